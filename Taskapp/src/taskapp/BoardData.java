@@ -0,0 +1,49 @@
+package taskapp;
+
+import java.util.List;
+
+/**
+ * Everything the task board needs to render: the board projection of all tasks plus the column header counts.
+ * The counts are taken from the same list as the cards, so the headers always agree with what is shown.
+ */
+public class BoardData {
+    private final List<Task> tasks;
+    private final int activeCount;
+    private final int completedCount;
+
+    public BoardData(List<Task> tasks) {
+        this.tasks = tasks;
+        int completed = 0;
+        for (Task task : tasks) {
+            if (task.isComplete()) {
+                completed++;
+            }
+        }
+        this.completedCount = completed;
+        this.activeCount = tasks.size() - completed;
+    }
+
+    /**
+     * Loads the board from the given service (call off the UI thread).
+     */
+    public static BoardData load(TaskService taskService) {
+        return new BoardData(taskService.getBoardTasks());
+    }
+
+    public List<Task> getTasks() { return tasks; }
+    public int getActiveCount() { return activeCount; }
+    public int getCompletedCount() { return completedCount; }
+
+    /**
+     * Active tasks assigned to the user.
+     */
+    public int getActiveCount(int userId) {
+        int count = 0;
+        for (Task task : tasks) {
+            if (!task.isComplete() && task.getAssignedToUserId() == userId) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,406 @@
+package taskapp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable column-per-field copy of the tasks table for reporting scans.
+ *
+ * Each column lives in a direct (off-heap) ByteBuffer: task IDs, assignee IDs and title codes
+ * as ints, priority ordinals and progress as bytes, and completion as a bitmap with one bit per
+ * row. Titles are dictionary-encoded: each distinct title is stored once on the heap and rows
+ * hold its code. A million tasks take about 14 MB outside the Java heap and, inside it, one
+ * String per distinct title, so a report no longer creates millions of Task objects for the GC.
+ *
+ * The scan methods (count, aggregate, selectIds, countByPriority) take a reusable Query and
+ * write into caller-supplied results, so they do not allocate. They walk the columns 64 rows
+ * at a time: the completion bitmap word for the block is used as a starting mask, the other
+ * predicates are evaluated without branches, and the survivors are counted with bitCount.
+ */
+public final class ColumnarTaskSnapshot {
+
+    public static final String[] PRIORITIES = { "High", "Medium", "Low" };
+
+    /**
+     * Ordinal of a priority name (High = 0, Medium = 1, Low = 2), or -1.
+     */
+    public static int priorityOrdinal(String priority) {
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (PRIORITIES[i].equals(priority)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Row filter. Set the fields once and reuse the object; null/-1 fields match every row.
+     */
+    public static final class Query {
+        public static final int ANY_STATUS = -1;
+        public static final int ACTIVE = 0;
+        public static final int COMPLETE = 1;
+
+        private int priorityMask; // bit n set = priority ordinal n matches
+        private int status;
+        private int minProgress;
+        private int maxProgress;
+        private int assignee;
+        private String title;
+        // 1 at [priority << 7 | progress] when that combination matches; rebuilt by the setters
+        private final byte[] priorityProgressTable = new byte[PRIORITIES.length << 7];
+
+        public Query() {
+            reset();
+        }
+
+        public Query priorities(String... names) {
+            priorityMask = 0;
+            for (String name : names) {
+                int ordinal = priorityOrdinal(name);
+                if (ordinal >= 0) {
+                    priorityMask |= 1 << ordinal;
+                }
+            }
+            fillTable();
+            return this;
+        }
+
+        public Query status(int status) { this.status = status; return this; }
+
+        public Query progressBetween(int min, int max) {
+            this.minProgress = min;
+            this.maxProgress = max;
+            fillTable();
+            return this;
+        }
+
+        public Query assignee(int userId) { this.assignee = userId; return this; }
+        public Query title(String title) { this.title = title; return this; }
+
+        private void fillTable() {
+            for (int pr = 0; pr < PRIORITIES.length; pr++) {
+                for (int pg = 0; pg < 128; pg++) {
+                    boolean match = (priorityMask & (1 << pr)) != 0 && pg >= minProgress && pg <= maxProgress;
+                    priorityProgressTable[(pr << 7) | pg] = (byte) (match ? 1 : 0);
+                }
+            }
+        }
+
+        public Query reset() {
+            priorityMask = 0b111;
+            status = ANY_STATUS;
+            minProgress = 0;
+            maxProgress = 100;
+            assignee = -1;
+            title = null;
+            fillTable();
+            return this;
+        }
+    }
+
+    /**
+     * Result of aggregate(); reused between calls.
+     */
+    public static final class Aggregate {
+        private long count;
+        private long progressSum;
+        private int minProgress;
+        private int maxProgress;
+
+        public long getCount() { return count; }
+        public long getProgressSum() { return progressSum; }
+        public int getMinProgress() { return count == 0 ? 0 : minProgress; }
+        public int getMaxProgress() { return count == 0 ? 0 : maxProgress; }
+
+        public double getAverageProgress() {
+            return count == 0 ? 0.0 : (double) progressSum / count;
+        }
+    }
+
+    private final int size;
+    private final ByteBuffer ids;        // int per row
+    private final ByteBuffer assignees;  // int per row
+    private final ByteBuffer titleCodes; // int per row
+    private final ByteBuffer priorities; // byte per row
+    private final ByteBuffer progress;   // byte per row
+    private final ByteBuffer completed;  // bit per row, packed in longs
+    private final List<String> titles;
+    private final Map<String, Integer> titleCodeByText;
+
+    private ColumnarTaskSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.assignees = builder.assignees;
+        this.titleCodes = builder.titleCodes;
+        this.priorities = builder.priorities;
+        this.progress = builder.progress;
+        this.completed = builder.completed;
+        this.titles = builder.titles;
+        this.titleCodeByText = builder.titleCodeByText;
+    }
+
+    /**
+     * Builds a snapshot from already loaded tasks (for backends without a streaming loader).
+     */
+    public static ColumnarTaskSnapshot fromTasks(List<Task> tasks) {
+        Builder builder = new Builder(tasks.size());
+        for (Task task : tasks) {
+            builder.add(task.getId(), task.getTitle(), task.getPriority(), task.getAssignedToUserId(), task.isComplete(), task.getProgress());
+        }
+        return builder.build();
+    }
+
+    // --- Row access ---
+
+    public int size() { return size; }
+    public int getId(int row) { return ids.getInt(row << 2); }
+    public int getAssignee(int row) { return assignees.getInt(row << 2); }
+    public String getTitle(int row) { return titles.get(titleCodes.getInt(row << 2)); }
+    public String getPriority(int row) { return PRIORITIES[priorities.get(row)]; }
+    public int getProgress(int row) { return progress.get(row); }
+
+    public boolean isComplete(int row) {
+        return (completed.getLong((row >>> 6) << 3) & (1L << row)) != 0;
+    }
+
+    public int getDistinctTitleCount() { return titles.size(); }
+
+    /**
+     * Off-heap bytes used by the columns.
+     */
+    public long getOffHeapBytes() {
+        return (long) ids.capacity() + assignees.capacity() + titleCodes.capacity()
+            + priorities.capacity() + progress.capacity() + completed.capacity();
+    }
+
+    // --- Scans ---
+
+    public long count(Query query) {
+        long count = 0;
+        int words = (size + 63) >>> 6;
+        int titleCode = titleCode(query);
+        if (titleCode == -2) {
+            return 0;
+        }
+        for (int word = 0; word < words; word++) {
+            count += Long.bitCount(matchWord(query, titleCode, word));
+        }
+        return count;
+    }
+
+    /**
+     * Count, progress total and progress range of the matching rows, written into result.
+     */
+    public Aggregate aggregate(Query query, Aggregate result) {
+        result.count = 0;
+        result.progressSum = 0;
+        result.minProgress = Integer.MAX_VALUE;
+        result.maxProgress = Integer.MIN_VALUE;
+        int titleCode = titleCode(query);
+        if (titleCode == -2) {
+            return result;
+        }
+        int words = (size + 63) >>> 6;
+        for (int word = 0; word < words; word++) {
+            long mask = matchWord(query, titleCode, word);
+            result.count += Long.bitCount(mask);
+            while (mask != 0) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(mask);
+                int p = progress.get(row);
+                result.progressSum += p;
+                result.minProgress = Math.min(result.minProgress, p);
+                result.maxProgress = Math.max(result.maxProgress, p);
+                mask &= mask - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Matching row counts per priority ordinal, written into counts (length 3).
+     */
+    public long[] countByPriority(Query query, long[] counts) {
+        counts[0] = counts[1] = counts[2] = 0;
+        int titleCode = titleCode(query);
+        if (titleCode == -2) {
+            return counts;
+        }
+        int words = (size + 63) >>> 6;
+        for (int word = 0; word < words; word++) {
+            long mask = matchWord(query, titleCode, word);
+            while (mask != 0) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(mask);
+                counts[priorities.get(row)]++;
+                mask &= mask - 1;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Writes the task IDs of matching rows into out (in ID order) and returns how many were written,
+     * stopping when out is full.
+     */
+    public int selectIds(Query query, int[] out) {
+        int written = 0;
+        int titleCode = titleCode(query);
+        if (titleCode == -2) {
+            return 0;
+        }
+        int words = (size + 63) >>> 6;
+        for (int word = 0; word < words && written < out.length; word++) {
+            long mask = matchWord(query, titleCode, word);
+            while (mask != 0 && written < out.length) {
+                out[written++] = getId((word << 6) + Long.numberOfTrailingZeros(mask));
+                mask &= mask - 1;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Dictionary code for the query's title: -1 = no title filter, -2 = title not present at all.
+     */
+    private int titleCode(Query query) {
+        if (query.title == null) {
+            return -1;
+        }
+        Integer code = titleCodeByText.get(query.title);
+        return code == null ? -2 : code;
+    }
+
+    /**
+     * Bitmask of the rows in one 64-row block that match the query.
+     * Priority and progress are tested together with one lookup in the query's
+     * (priority, progress) table, so the per-row work has no branches.
+     */
+    private long matchWord(Query query, int titleCode, int word) {
+        long mask = query.status == Query.COMPLETE ? completed.getLong(word << 3)
+                  : query.status == Query.ACTIVE ? ~completed.getLong(word << 3)
+                  : -1L;
+        int start = word << 6;
+        int rows = Math.min(64, size - start);
+        if (rows < 64) {
+            mask &= (1L << rows) - 1; // rows past the end of the last block
+        }
+        boolean checkPriority = query.priorityMask != 0b111;
+        boolean checkProgress = query.minProgress > 0 || query.maxProgress < 100;
+        if (mask != 0 && (checkPriority || checkProgress)) {
+            mask &= matchPriorityAndProgress(query, start, rows);
+        }
+        if (mask != 0 && query.assignee >= 0) {
+            mask &= matchInt(assignees, query.assignee, start, rows);
+        }
+        if (mask != 0 && titleCode >= 0) {
+            mask &= matchInt(titleCodes, titleCode, start, rows);
+        }
+        return mask;
+    }
+
+    private long matchPriorityAndProgress(Query query, int start, int rows) {
+        byte[] table = query.priorityProgressTable;
+        long keep = 0;
+        for (int row = 0; row < rows; row++) {
+            int pr = priorities.get(start + row);
+            int pg = progress.get(start + row);
+            keep |= (long) table[(pr << 7) | pg] << row;
+        }
+        return keep;
+    }
+
+    private static long matchInt(ByteBuffer column, int value, int start, int rows) {
+        long keep = 0;
+        for (int row = 0; row < rows; row++) {
+            keep |= (column.getInt((start + row) << 2) == value ? 1L : 0L) << row;
+        }
+        return keep;
+    }
+
+    // --- Building ---
+
+    /**
+     * Appends rows in ID order; columns grow by doubling until build() is called.
+     * The snapshot takes over the columns without copying them, so a builder can be built only
+     * once and rejects further rows afterwards.
+     */
+    public static final class Builder {
+        private int size;
+        private int capacity;
+        private ByteBuffer ids;
+        private ByteBuffer assignees;
+        private ByteBuffer titleCodes;
+        private ByteBuffer priorities;
+        private ByteBuffer progress;
+        private ByteBuffer completed;
+        private final List<String> titles = new ArrayList<>();
+        private final Map<String, Integer> titleCodeByText = new HashMap<>();
+        private boolean built;
+
+        public Builder(int expectedRows) {
+            allocate(Math.max(64, expectedRows));
+        }
+
+        /**
+         * Appends one row. Throws IllegalArgumentException for a priority other than High/Medium/Low.
+         */
+        public Builder add(int id, String title, String priority, int assignedToUserId, boolean isComplete, int progressValue) {
+            checkNotBuilt();
+            int ordinal = priorityOrdinal(priority);
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Unknown priority for task " + id + ": " + priority);
+            }
+            if (size == capacity) {
+                allocate(size * 2);
+            }
+            ids.putInt(size << 2, id);
+            assignees.putInt(size << 2, assignedToUserId);
+            titleCodes.putInt(size << 2, titleCodeByText.computeIfAbsent(title, t -> {
+                titles.add(t);
+                return titles.size() - 1;
+            }));
+            priorities.put(size, (byte) ordinal);
+            progress.put(size, (byte) Math.max(0, Math.min(100, progressValue)));
+            if (isComplete) {
+                int offset = (size >>> 6) << 3;
+                completed.putLong(offset, completed.getLong(offset) | (1L << size));
+            }
+            size++;
+            return this;
+        }
+
+        public ColumnarTaskSnapshot build() {
+            checkNotBuilt();
+            built = true;
+            return new ColumnarTaskSnapshot(this);
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+        }
+
+        private void allocate(int capacity) {
+            this.capacity = capacity;
+            ids = grow(ids, capacity * 4);
+            assignees = grow(assignees, capacity * 4);
+            titleCodes = grow(titleCodes, capacity * 4);
+            priorities = grow(priorities, capacity);
+            progress = grow(progress, capacity);
+            completed = grow(completed, ((capacity + 63) >>> 6) * 8);
+        }
+
+        private static ByteBuffer grow(ByteBuffer old, int bytes) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            if (old != null) {
+                buffer.put(0, old, 0, old.capacity());
+            }
+            return buffer;
+        }
+    }
+}
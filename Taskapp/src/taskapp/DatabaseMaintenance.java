@@ -0,0 +1,478 @@
+package taskapp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Background upkeep for a task database: returns free pages to the file system, truncates a large
+ * WAL, refreshes the query planner's statistics and checks integrity.
+ *
+ * A timer checks every checkIntervalMillis, but jobs only run once the activity counter (the
+ * repository's reads and writes, see forRepository) has not moved for idleMillis, and the counter is
+ * checked again before each job so a run stops as soon as the database is used. Space and WAL jobs
+ * are driven by thresholds on free pages and WAL size, the others by time since their last run.
+ *
+ * A database still without auto_vacuum is converted to incremental auto_vacuum (one full VACUUM) the
+ * first time its free pages cross the threshold; after that each run frees at most vacuumPagesPerRun
+ * pages so writers are never held up for long. The full VACUUM holds an exclusive lock for the whole
+ * rewrite, so only idle time inside this process is a guarantee: another process that uses the file
+ * meanwhile waits for it (up to its busy timeout). Jobs themselves never wait for a lock; one that finds
+ * the database busy is retried at the next idle check. Every run is logged and kept in getRecentRuns()
+ * with its duration and outcome.
+ */
+public class DatabaseMaintenance implements AutoCloseable {
+
+    public enum Job { CHECKPOINT, VACUUM, INCREMENTAL_VACUUM, OPTIMIZE, INTEGRITY_CHECK }
+
+    public enum Outcome { DONE, BUSY, FAILED }
+
+    /**
+     * Thresholds and intervals. Immutable; the with* methods return modified copies.
+     */
+    public static final class Policy {
+        private final long checkIntervalMillis;
+        private final long idleMillis;
+        private final long freePagesThreshold;
+        private final int vacuumPagesPerRun;
+        private final long walBytesThreshold;
+        private final long optimizeIntervalMillis;
+        private final long integrityCheckIntervalMillis;
+
+        private Policy(long checkIntervalMillis, long idleMillis, long freePagesThreshold, int vacuumPagesPerRun,
+                       long walBytesThreshold, long optimizeIntervalMillis, long integrityCheckIntervalMillis) {
+            this.checkIntervalMillis = checkIntervalMillis;
+            this.idleMillis = idleMillis;
+            this.freePagesThreshold = freePagesThreshold;
+            this.vacuumPagesPerRun = vacuumPagesPerRun;
+            this.walBytesThreshold = walBytesThreshold;
+            this.optimizeIntervalMillis = optimizeIntervalMillis;
+            this.integrityCheckIntervalMillis = integrityCheckIntervalMillis;
+        }
+
+        /**
+         * Checks every minute, runs after 30 s without writes; vacuums from 1024 free pages (2048 per run),
+         * checkpoints a WAL over 8 MB, optimizes hourly and checks integrity daily.
+         */
+        public static Policy defaultPolicy() {
+            return new Policy(TimeUnit.MINUTES.toMillis(1), TimeUnit.SECONDS.toMillis(30), 1024, 2048,
+                8L << 20, TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(1));
+        }
+
+        public Policy withCheckInterval(long millis) {
+            return new Policy(millis, idleMillis, freePagesThreshold, vacuumPagesPerRun, walBytesThreshold, optimizeIntervalMillis, integrityCheckIntervalMillis);
+        }
+
+        public Policy withIdle(long millis) {
+            return new Policy(checkIntervalMillis, millis, freePagesThreshold, vacuumPagesPerRun, walBytesThreshold, optimizeIntervalMillis, integrityCheckIntervalMillis);
+        }
+
+        public Policy withFreePages(long threshold, int pagesPerRun) {
+            return new Policy(checkIntervalMillis, idleMillis, threshold, pagesPerRun, walBytesThreshold, optimizeIntervalMillis, integrityCheckIntervalMillis);
+        }
+
+        public Policy withWalBytes(long threshold) {
+            return new Policy(checkIntervalMillis, idleMillis, freePagesThreshold, vacuumPagesPerRun, threshold, optimizeIntervalMillis, integrityCheckIntervalMillis);
+        }
+
+        public Policy withIntervals(long optimizeMillis, long integrityCheckMillis) {
+            return new Policy(checkIntervalMillis, idleMillis, freePagesThreshold, vacuumPagesPerRun, walBytesThreshold, optimizeMillis, integrityCheckMillis);
+        }
+    }
+
+    /**
+     * One job execution.
+     */
+    public static final class Run {
+        private final Job job;
+        private final long startedAt;
+        private final long durationMillis;
+        private final Outcome outcome;
+        private final String detail;
+
+        Run(Job job, long startedAt, long durationMillis, Outcome outcome, String detail) {
+            this.job = job;
+            this.startedAt = startedAt;
+            this.durationMillis = durationMillis;
+            this.outcome = outcome;
+            this.detail = detail;
+        }
+
+        public Job getJob() { return job; }
+        public long getStartedAt() { return startedAt; }
+        public long getDurationMillis() { return durationMillis; }
+        public Outcome getOutcome() { return outcome; }
+        public String getDetail() { return detail; }
+
+        @Override
+        public String toString() {
+            return job + " " + outcome + " in " + durationMillis + " ms: " + detail;
+        }
+    }
+
+    /**
+     * Space figures read at the start of the last check.
+     */
+    public static final class Status {
+        private final long pageCount;
+        private final long freePages;
+        private final long pageSize;
+        private final int autoVacuum; // 0 = none, 1 = full, 2 = incremental
+        private final String journalMode;
+        private final long walBytes;
+
+        Status(long pageCount, long freePages, long pageSize, int autoVacuum, String journalMode, long walBytes) {
+            this.pageCount = pageCount;
+            this.freePages = freePages;
+            this.pageSize = pageSize;
+            this.autoVacuum = autoVacuum;
+            this.journalMode = journalMode;
+            this.walBytes = walBytes;
+        }
+
+        public long getPageCount() { return pageCount; }
+        public long getFreePages() { return freePages; }
+        public long getPageSize() { return pageSize; }
+        public boolean isIncrementalVacuum() { return autoVacuum == 2; }
+        public boolean isWal() { return "wal".equalsIgnoreCase(journalMode); }
+        public long getWalBytes() { return walBytes; }
+    }
+
+    @FunctionalInterface
+    private interface SqlJob {
+        String run(Connection conn) throws SQLException;
+    }
+
+    private static final int RECENT_RUNS = 64;
+
+    private final String jdbcUrl; // null = the main database
+    private final Policy policy;
+    private final LongSupplier activity;
+    private final LongSupplier clock;
+    private ScheduledExecutorService timer;
+
+    private final Deque<Run> recentRuns = new ArrayDeque<>();
+    private final Map<Job, long[]> totals = new EnumMap<>(Job.class); // job -> {runs, total millis}
+    private final Map<Job, Long> lastDone = new EnumMap<>(Job.class);
+    private volatile Status lastStatus;
+    private long lastActivity;
+    private long lastActiveAt;
+
+    /**
+     * One maintenance per database file of a repository (every shard of a ShardedTaskRepository), each
+     * treating its file as idle while the repository neither reads nor writes. Backends without a
+     * database file get none.
+     */
+    public static List<DatabaseMaintenance> forRepository(TaskRepository repository, Policy policy) {
+        List<String> urls = new ArrayList<>();
+        if (repository instanceof ShardedTaskRepository) {
+            urls.addAll(((ShardedTaskRepository) repository).getShardUrls());
+        } else if (repository instanceof SqliteTaskRepository) {
+            urls.add(((SqliteTaskRepository) repository).getJdbcUrl());
+        }
+        List<DatabaseMaintenance> result = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            result.add(new DatabaseMaintenance(url, policy, repository::getActivityCount, System::currentTimeMillis));
+        }
+        return result;
+    }
+
+    /**
+     * @param jdbcUrl  database to maintain (null = the main database)
+     * @param activity any counter that changes while the database is in use
+     * @param clock    epoch milliseconds
+     */
+    public DatabaseMaintenance(String jdbcUrl, Policy policy, LongSupplier activity, LongSupplier clock) {
+        this.jdbcUrl = jdbcUrl;
+        this.policy = policy;
+        this.activity = activity;
+        this.clock = clock;
+        this.lastActivity = activity.getAsLong();
+        this.lastActiveAt = clock.getAsLong();
+    }
+
+    /**
+     * Starts the idle checks on a background thread.
+     */
+    public synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "taskapp-db-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::runIfIdle, policy.checkIntervalMillis, policy.checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the due jobs if the database has been idle for idleMillis; returns the runs (empty if not idle).
+     */
+    public synchronized List<Run> runIfIdle() {
+        long now = clock.getAsLong();
+        long current = activity.getAsLong();
+        if (current != lastActivity) {
+            lastActivity = current;
+            lastActiveAt = now;
+            return new ArrayList<>();
+        }
+        if (now - lastActiveAt < policy.idleMillis) {
+            return new ArrayList<>();
+        }
+        return runDue(true);
+    }
+
+    /**
+     * Runs every job whose threshold or interval is reached, idle or not.
+     */
+    public synchronized List<Run> runDue() {
+        return runDue(false);
+    }
+
+    /**
+     * With whileIdle, stops before the next job once the activity counter has moved.
+     */
+    private List<Run> runDue(boolean whileIdle) {
+        List<Run> runs = new ArrayList<>();
+        try (Connection conn = UserAuth.getConnection(jdbcUrl)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA busy_timeout = 0"); // report BUSY at once instead of queueing behind users
+            }
+            Status status = inspect(conn);
+            lastStatus = status;
+            if (status.freePages >= policy.freePagesThreshold && status.autoVacuum != 1 && stillIdle(whileIdle)) {
+                runs.add(status.isIncrementalVacuum()
+                    ? run(Job.INCREMENTAL_VACUUM, conn, c -> incrementalVacuum(c, status))
+                    : run(Job.VACUUM, conn, c -> vacuum(c, status)));
+            }
+            if (isDue(Job.OPTIMIZE, policy.optimizeIntervalMillis) && stillIdle(whileIdle)) {
+                runs.add(run(Job.OPTIMIZE, conn, this::optimize));
+            }
+            if (isDue(Job.INTEGRITY_CHECK, policy.integrityCheckIntervalMillis) && stillIdle(whileIdle)) {
+                runs.add(run(Job.INTEGRITY_CHECK, conn, this::integrityCheck));
+            }
+            // Last, so it also moves what vacuum and ANALYZE just wrote into the main file
+            if (status.isWal() && status.walBytes >= policy.walBytesThreshold && stillIdle(whileIdle)) {
+                runs.add(run(Job.CHECKPOINT, conn, this::checkpoint));
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error inspecting database for maintenance", e, "url", jdbcUrl);
+        }
+        return runs;
+    }
+
+    private boolean stillIdle(boolean whileIdle) {
+        return !whileIdle || activity.getAsLong() == lastActivity;
+    }
+
+    private boolean isDue(Job job, long interval) {
+        Long last = lastDone.get(job);
+        return last == null || clock.getAsLong() - last >= interval;
+    }
+
+    private Run run(Job job, Connection conn, SqlJob work) {
+        long startedAt = clock.getAsLong();
+        long start = System.nanoTime();
+        Outcome outcome;
+        String detail;
+        try {
+            detail = work.run(conn);
+            outcome = Outcome.DONE;
+        } catch (SQLException e) {
+            outcome = RetryPolicy.isBusy(e) ? Outcome.BUSY : Outcome.FAILED;
+            detail = e.getMessage();
+            if (outcome == Outcome.FAILED) {
+                TaskLog.error("Database maintenance failed", e, "job", job, "url", jdbcUrl);
+            }
+        }
+        Run run = new Run(job, startedAt, (System.nanoTime() - start) / 1_000_000, outcome, detail);
+        record(run);
+        TaskLog.info("Database maintenance", "job", job, "outcome", outcome, "millis", run.durationMillis, "detail", detail);
+        return run;
+    }
+
+    private void record(Run run) {
+        if (run.outcome == Outcome.DONE) {
+            lastDone.put(run.job, run.startedAt);
+        }
+        long[] total = totals.computeIfAbsent(run.job, j -> new long[2]);
+        total[0]++;
+        total[1] += run.durationMillis;
+        synchronized (recentRuns) {
+            recentRuns.addLast(run);
+            if (recentRuns.size() > RECENT_RUNS) {
+                recentRuns.removeFirst();
+            }
+        }
+    }
+
+    // --- Jobs ---
+
+    private Status inspect(Connection conn) throws SQLException {
+        long walBytes = 0;
+        String journalMode = queryString(conn, "PRAGMA journal_mode");
+        if ("wal".equalsIgnoreCase(journalMode)) {
+            String file = mainFile(conn);
+            if (file != null && !file.isEmpty()) {
+                try {
+                    Path wal = Path.of(file + "-wal");
+                    walBytes = Files.exists(wal) ? Files.size(wal) : 0;
+                } catch (IOException e) {
+                    TaskLog.warn("Could not read WAL size", "file", file, "error", e.getMessage());
+                }
+            }
+        }
+        return new Status(queryLong(conn, "PRAGMA page_count"), queryLong(conn, "PRAGMA freelist_count"),
+            queryLong(conn, "PRAGMA page_size"), (int) queryLong(conn, "PRAGMA auto_vacuum"), journalMode, walBytes);
+    }
+
+    private static String mainFile(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA database_list")) {
+            while (rs.next()) {
+                if ("main".equals(rs.getString("name"))) {
+                    return rs.getString("file");
+                }
+            }
+        }
+        return null;
+    }
+
+    private String checkpoint(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            rs.next();
+            if (rs.getInt(1) != 0) {
+                throw new SQLException("Checkpoint blocked by readers or writers", null, 5); // SQLITE_BUSY
+            }
+            return "checkpointed " + rs.getInt(3) + " of " + rs.getInt(2) + " WAL frames; WAL truncated";
+        }
+    }
+
+    // One-time switch to incremental auto_vacuum; only a full VACUUM can change it on an existing file
+    private String vacuum(Connection conn, Status before) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+        }
+        long pages = queryLong(conn, "PRAGMA page_count");
+        return "rewrote file with incremental auto_vacuum; " + before.pageCount + " -> " + pages + " pages ("
+            + (before.pageCount - pages) * before.pageSize / 1024 + " KB freed)";
+    }
+
+    private String incrementalVacuum(Connection conn, Status before) throws SQLException {
+        // The driver steps the pragma once per execute, and each step frees one page; one transaction for all
+        long pages = Math.min(before.freePages, policy.vacuumPagesPerRun);
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement("PRAGMA incremental_vacuum")) {
+                for (long i = 0; i < pages; i++) {
+                    stmt.execute();
+                }
+            } // closed first: a statement still mid-step blocks the commit
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        long freed = before.freePages - queryLong(conn, "PRAGMA freelist_count");
+        return "freed " + freed + " of " + before.freePages + " free pages (" + freed * before.pageSize / 1024 + " KB)";
+    }
+
+    // ANALYZE once if the planner has no statistics yet, otherwise let SQLite re-analyze what changed
+    private String optimize(Connection conn) throws SQLException {
+        boolean analyzed = queryLong(conn, "SELECT COUNT(*) FROM sqlite_master WHERE name = 'sqlite_stat1'") > 0;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(analyzed ? "PRAGMA optimize" : "ANALYZE");
+        }
+        return analyzed ? "PRAGMA optimize" : "ANALYZE (no statistics yet)";
+    }
+
+    private String integrityCheck(Connection conn) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA quick_check")) {
+            while (rs.next()) {
+                String line = rs.getString(1);
+                if (!"ok".equals(line)) {
+                    problems.add(line);
+                }
+            }
+        }
+        if (!problems.isEmpty()) {
+            TaskLog.error("Database integrity check failed", null, "url", jdbcUrl, "problems", problems);
+            return "problems: " + problems;
+        }
+        return "ok";
+    }
+
+    private static long queryLong(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static String queryString(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    // --- Metrics ---
+
+    /**
+     * Up to the last 64 runs, oldest first.
+     */
+    public List<Run> getRecentRuns() {
+        synchronized (recentRuns) {
+            return new ArrayList<>(recentRuns);
+        }
+    }
+
+    public synchronized long getRunCount(Job job) {
+        long[] total = totals.get(job);
+        return total == null ? 0 : total[0];
+    }
+
+    public synchronized long getTotalMillis(Job job) {
+        long[] total = totals.get(job);
+        return total == null ? 0 : total[1];
+    }
+
+    /**
+     * Space figures from the last check, or null before the first one.
+     */
+    public Status getLastStatus() { return lastStatus; }
+
+    /**
+     * Stops the idle checks; a run in progress finishes.
+     */
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdown();
+            timer = null;
+        }
+    }
+}
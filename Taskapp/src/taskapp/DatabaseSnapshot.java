@@ -0,0 +1,223 @@
+package taskapp;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read-only point-in-time copy of the task database for reporting.
+ * The copy is produced with VACUUM INTO, which reads the live database inside a
+ * single read transaction, so it is consistent. In rollback journal mode (the
+ * default for task_manager.db) that transaction holds a shared lock for the whole
+ * copy and writers cannot commit until it ends, so refresh a large database at
+ * quiet times or sparingly. Reads from the snapshot never touch the main database.
+ *
+ * Each refresh writes a new version file (name-N.db) rather than replacing the
+ * previous one, which Windows does not allow while readers have it open; a version
+ * is deleted once it has been replaced and its last connection is closed.
+ * Pass an instance to TaskService(DatabaseSnapshot) to route its read methods here.
+ */
+public class DatabaseSnapshot implements AutoCloseable {
+
+    private static final String SQLITE_OPEN_READONLY = "1";
+
+    /**
+     * One snapshot file and the connections still reading it.
+     */
+    private static final class Version {
+        final Path file;
+        int readers = 0;
+        boolean replaced = false;
+
+        Version(Path file) {
+            this.file = file;
+        }
+    }
+
+    private final Path snapshotFile;
+    private final Object versionLock = new Object(); // guards current, retired and the reader counts
+    private Version current = null;
+    private final List<Version> retired = new ArrayList<>(); // replaced, not yet deleted
+    private long nextVersion = 1;
+    private ScheduledExecutorService scheduler;
+    private volatile Instant lastRefreshed = null;
+
+    /**
+     * @param snapshotFile base name of the version files, e.g. reports.db for reports-1.db, reports-2.db, ...
+     */
+    public DatabaseSnapshot(Path snapshotFile) {
+        this.snapshotFile = snapshotFile.toAbsolutePath();
+    }
+
+    /**
+     * Snapshot stored next to the main database as task_manager_snapshot-N.db.
+     */
+    public static DatabaseSnapshot alongsideMainDatabase() {
+        return new DatabaseSnapshot(Path.of("task_manager_snapshot.db"));
+    }
+
+    /**
+     * File of the current version, or null before the first refresh.
+     */
+    public Path getSnapshotFile() {
+        synchronized (versionLock) {
+            return current == null ? null : current.file;
+        }
+    }
+
+    /**
+     * Time of the last successful refresh, or null if no snapshot has been taken in this process.
+     */
+    public Instant getLastRefreshed() { return lastRefreshed; }
+
+    /**
+     * Takes a fresh copy of the main database as a new version; connections opened afterwards read it.
+     * Returns false (and keeps the previous version) if the copy fails.
+     */
+    public synchronized boolean refresh() {
+        Path file = versionFile(nextVersion++);
+        try {
+            Files.deleteIfExists(file); // left over from an earlier run; VACUUM INTO refuses to overwrite
+            try (Connection conn = UserAuth.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("VACUUM INTO ?")) {
+                stmt.setString(1, file.toString());
+                stmt.executeUpdate();
+            }
+        } catch (SQLException | IOException e) {
+            TaskLog.error("Error refreshing database snapshot", e, "file", file);
+            return false;
+        }
+        synchronized (versionLock) {
+            if (current != null) {
+                current.replaced = true;
+                retired.add(current);
+            }
+            current = new Version(file);
+            deleteUnread();
+        }
+        lastRefreshed = Instant.now();
+        return true;
+    }
+
+    private Path versionFile(long version) {
+        String name = snapshotFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot);
+        return snapshotFile.resolveSibling(stem + "-" + version + extension);
+    }
+
+    // Deletes replaced versions nobody reads any more; one that cannot be deleted yet is retried later
+    private void deleteUnread() {
+        Iterator<Version> it = retired.iterator();
+        while (it.hasNext()) {
+            Version version = it.next();
+            if (version.readers > 0) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(version.file);
+                it.remove();
+            } catch (IOException e) {
+                TaskLog.warn("Could not delete old database snapshot", "file", version.file, "error", e.getMessage());
+            }
+        }
+    }
+
+    private void release(Version version) {
+        synchronized (versionLock) {
+            version.readers--;
+            if (version.replaced) {
+                deleteUnread();
+            }
+        }
+    }
+
+    /**
+     * Refreshes the snapshot now and then every interval on a background thread.
+     */
+    public synchronized void schedule(long interval, TimeUnit unit) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-db-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, interval, unit);
+    }
+
+    /**
+     * Opens a read-only connection to the current version, taking one first if none exists yet.
+     * The version stays on disk until the connection is closed.
+     */
+    public Connection getConnection() throws SQLException {
+        Version version = acquire();
+        if (version == null && (!refresh() || (version = acquire()) == null)) {
+            throw new SQLException("No database snapshot available at " + snapshotFile);
+        }
+        Properties props = new Properties();
+        props.setProperty("open_mode", SQLITE_OPEN_READONLY);
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = DriverManager.getConnection("jdbc:sqlite:" + version.file, props);
+        } catch (SQLException e) {
+            release(version);
+            throw e;
+        }
+        return QueryTrace.wrap(releaseOnClose(conn, version), System.nanoTime() - start);
+    }
+
+    private Version acquire() {
+        synchronized (versionLock) {
+            if (current != null) {
+                current.readers++;
+            }
+            return current;
+        }
+    }
+
+    private Connection releaseOnClose(Connection conn, Version version) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(DatabaseSnapshot.class.getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                try {
+                    return method.invoke(conn, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                } finally {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        release(version);
+                    }
+                }
+            });
+    }
+
+    /**
+     * Stops scheduled refreshes. The current version file is left in place.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
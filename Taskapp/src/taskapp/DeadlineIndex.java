@@ -0,0 +1,197 @@
+package taskapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sorted index of the due dates of incomplete tasks.
+ * Entries are ordered by (dueAt, taskId), so "overdue", "due before T" and "next deadline"
+ * are range reads costing O(log n + results) instead of a scan over every task.
+ * Completed tasks keep their due date on record but leave the sorted set.
+ * All methods are thread-safe; change listeners run after the index lock is released.
+ */
+public class DeadlineIndex {
+
+    private static final class Entry implements Comparable<Entry> {
+        final long dueAt;
+        final int taskId;
+
+        Entry(long dueAt, int taskId) {
+            this.dueAt = dueAt;
+            this.taskId = taskId;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(dueAt, other.dueAt);
+            return byTime != 0 ? byTime : Integer.compare(taskId, other.taskId);
+        }
+    }
+
+    private final TreeSet<Entry> active = new TreeSet<>();
+    private final Map<Integer, Entry> byTask = new HashMap<>();
+    private final Set<Integer> completedIds = new HashSet<>(); // so a moved deadline keeps the task's status
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Builds the index from tasks (for tasks without a due date only the status is kept).
+     */
+    public static DeadlineIndex build(List<Task> tasks) {
+        DeadlineIndex index = new DeadlineIndex();
+        for (Task task : tasks) {
+            index.putTask(task.getId(), task.getDueAt(), task.isComplete());
+        }
+        return index;
+    }
+
+    /**
+     * Replaces the whole index with tasks, in place, so holders of this instance (e.g. a
+     * DeadlineScheduler) see the reloaded deadlines. Used when storage may differ from the index.
+     */
+    public void reload(List<Task> tasks) {
+        synchronized (this) {
+            active.clear();
+            byTask.clear();
+            completedIds.clear();
+            for (Task task : tasks) {
+                put(task.getId(), task.getDueAt(), task.isComplete());
+            }
+        }
+        fireChanged();
+    }
+
+    /**
+     * Adds, moves or removes (dueAt == null) a task's deadline.
+     */
+    public void putTask(int taskId, Long dueAt, boolean isComplete) {
+        synchronized (this) {
+            put(taskId, dueAt, isComplete);
+        }
+        fireChanged();
+    }
+
+    private void put(int taskId, Long dueAt, boolean isComplete) {
+        Entry old = byTask.remove(taskId);
+        if (old != null) {
+            active.remove(old);
+        }
+        if (isComplete) {
+            completedIds.add(taskId);
+        } else {
+            completedIds.remove(taskId);
+        }
+        if (dueAt != null) {
+            Entry entry = new Entry(dueAt, taskId);
+            byTask.put(taskId, entry);
+            if (!isComplete) {
+                active.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Moves (or clears) a task's deadline, keeping its last known completion status.
+     */
+    public void setDueAt(int taskId, Long dueAt) {
+        boolean isComplete;
+        synchronized (this) {
+            isComplete = completedIds.contains(taskId);
+        }
+        putTask(taskId, dueAt, isComplete);
+    }
+
+    /**
+     * Updates completion without changing the due date.
+     */
+    public void setComplete(int taskId, boolean isComplete) {
+        synchronized (this) {
+            if (isComplete) {
+                completedIds.add(taskId);
+            } else {
+                completedIds.remove(taskId);
+            }
+            Entry entry = byTask.get(taskId);
+            if (entry == null) {
+                return;
+            }
+            if (isComplete) {
+                active.remove(entry);
+            } else {
+                active.add(entry);
+            }
+        }
+        fireChanged();
+    }
+
+    public void removeTask(int taskId) {
+        putTask(taskId, null, false);
+    }
+
+    /**
+     * Due date of a task, or null.
+     */
+    public synchronized Long getDueAt(int taskId) {
+        Entry entry = byTask.get(taskId);
+        return entry == null ? null : entry.dueAt;
+    }
+
+    /**
+     * Incomplete tasks whose deadline is before now, earliest first.
+     */
+    public synchronized List<Integer> getOverdue(long now) {
+        return ids(active.headSet(new Entry(now, Integer.MIN_VALUE), false));
+    }
+
+    /**
+     * Incomplete tasks due in [from, to), earliest first.
+     */
+    public synchronized List<Integer> getDueBetween(long from, long to) {
+        if (to <= from) {
+            return new ArrayList<>();
+        }
+        return ids(active.subSet(new Entry(from, Integer.MIN_VALUE), true, new Entry(to, Integer.MIN_VALUE), false));
+    }
+
+    /**
+     * Earliest deadline strictly after the given time among incomplete tasks, or null.
+     */
+    public synchronized Long getNextDeadlineAfter(long time) {
+        Entry next = active.higher(new Entry(time, Integer.MAX_VALUE));
+        return next == null ? null : next.dueAt;
+    }
+
+    /**
+     * Earliest deadline among incomplete tasks (possibly already past), or null.
+     */
+    public synchronized Long getNextDeadline() {
+        return active.isEmpty() ? null : active.first().dueAt;
+    }
+
+    public synchronized int size() {
+        return active.size();
+    }
+
+    /**
+     * Runs the listener after every change (used by DeadlineScheduler to re-arm its timer).
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    private void fireChanged() {
+        changeListeners.forEach(Runnable::run);
+    }
+
+    private static List<Integer> ids(NavigableSet<Entry> entries) {
+        List<Integer> ids = new ArrayList<>(entries.size());
+        entries.forEach(e -> ids.add(e.taskId));
+        return ids;
+    }
+}
@@ -0,0 +1,110 @@
+package taskapp;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Fires a reminder when an incomplete task reaches its due date.
+ *
+ * Instead of polling every task, the scheduler keeps a single timer set for the next deadline
+ * in the DeadlineIndex. When it fires, every task due since the last firing is reported once,
+ * and the timer is re-armed for the following deadline. Any change to the index re-arms it too.
+ */
+public class DeadlineScheduler implements AutoCloseable {
+
+    /**
+     * Notified on the scheduler thread; UI listeners should hand off to the EDT.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onTaskDue(int taskId, long dueAt);
+    }
+
+    private final DeadlineIndex index;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService timer;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledFuture<?> pending;
+    private long watermark; // deadlines at or before this have been reported
+    private boolean closed;
+
+    public DeadlineScheduler(DeadlineIndex index) {
+        this(index, System::currentTimeMillis);
+    }
+
+    /**
+     * Deadlines already past when the scheduler starts are not reported; getOverdue covers those.
+     */
+    public DeadlineScheduler(DeadlineIndex index, LongSupplier clock) {
+        this.index = index;
+        this.clock = clock;
+        this.watermark = clock.getAsLong();
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "taskapp-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        index.addChangeListener(this::rearm);
+        rearm();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Cancels the current timer and sets a new one for the next unreported deadline.
+     */
+    private synchronized void rearm() {
+        if (closed) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        Long next = index.getNextDeadlineAfter(watermark);
+        if (next != null) {
+            long delay = Math.max(0, next - clock.getAsLong());
+            pending = timer.schedule(this::fire, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void fire() {
+        long now = clock.getAsLong();
+        List<Integer> due;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            due = index.getDueBetween(watermark + 1, now + 1);
+            watermark = Math.max(watermark, now);
+        }
+        for (int taskId : due) {
+            Long dueAt = index.getDueAt(taskId);
+            if (dueAt != null) {
+                listeners.forEach(l -> l.onTaskDue(taskId, dueAt));
+            }
+        }
+        rearm();
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,545 @@
+package taskapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * Thread-safe TaskRepository that keeps everything in memory, for tests and benchmarks.
+ * Tasks are indexed by assignee and by status so the filtered queries avoid a full scan,
+ * and the statistics groups are maintained on every write like the SQLite task_stats table.
+ * Applies the same constraints as the SQLite schema (non-null title, High/Medium/Low priority).
+ */
+public class InMemoryTaskRepository implements TaskRepository {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Integer, Row> tasks = new TreeMap<>();
+    private final Map<Integer, TreeSet<Integer>> byAssignee = new HashMap<>();
+    private final TreeSet<Integer> activeIds = new TreeSet<>();
+    private final TreeSet<Integer> completedIds = new TreeSet<>();
+    private final Map<StatsKey, long[]> stats = new HashMap<>(); // {count, progressSum}
+    private final Map<Integer, Integer> parentOf = new TreeMap<>(); // childId -> parentId
+    private final Set<List<Integer>> blockers = new LinkedHashSet<>(); // [blockerId, blockedId]
+    private final Map<Integer, List<HistoryRow>> history = new HashMap<>(); // kept after a task is deleted
+    private int nextId = 1;
+    private volatile int auditUserId;
+
+    private final Map<Integer, String> usernames = new ConcurrentHashMap<>();
+    private final IntFunction<Optional<String>> usernameLookup;
+
+    /**
+     * Creates an isolated repository whose usernames are registered with putUsername.
+     */
+    public InMemoryTaskRepository() {
+        this.usernameLookup = id -> Optional.ofNullable(usernames.get(id));
+    }
+
+    /**
+     * Creates a repository that resolves usernames through the given lookup (e.g. UserDirectory::getUsername).
+     */
+    public InMemoryTaskRepository(IntFunction<Optional<String>> usernameLookup) {
+        this.usernameLookup = usernameLookup;
+    }
+
+    /**
+     * Registers a username for the default (isolated) lookup.
+     */
+    public void putUsername(int userId, String username) {
+        usernames.put(userId, username);
+    }
+
+    @Override
+    public void initialize() {
+        // Nothing to set up
+    }
+
+    // --- Writes ---
+
+    @Override
+    public int createTask(String title, String description, String priority, int assignedToUserId, Long dueAt) {
+        if (!isValid(title, priority)) {
+            return -1;
+        }
+        lock.writeLock().lock();
+        try {
+            Row row = new Row(nextId++, title, description, priority, assignedToUserId, false, 0, 0, dueAt);
+            tasks.put(row.id, row);
+            index(row);
+            appendHistory(row.id, TaskChange.Kind.CREATED, TaskDelta.full(toTask(row, false)));
+            return row.id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean editTask(int taskId, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        if (!isValid(title, priority)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            Row old = tasks.get(taskId);
+            if (old == null) {
+                return false;
+            }
+            replace(old, new Row(taskId, title, description, priority, assignedToUserId, isComplete, progress, old.version + 1, old.dueAt));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        return editVersioned(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress, true, null);
+    }
+
+    @Override
+    public TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress, Long dueAt) {
+        return editVersioned(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress, false, dueAt);
+    }
+
+    private TaskService.EditResult editVersioned(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId,
+                                                 boolean isComplete, int progress, boolean keepDueAt, Long dueAt) {
+        if (!isValid(title, priority)) {
+            return TaskService.EditResult.FAILED;
+        }
+        lock.writeLock().lock();
+        try {
+            Row old = tasks.get(taskId);
+            if (old == null) {
+                return TaskService.EditResult.NOT_FOUND;
+            }
+            if (old.version != expectedVersion) {
+                return TaskService.EditResult.CONFLICT;
+            }
+            replace(old, new Row(taskId, title, description, priority, assignedToUserId, isComplete, progress, old.version + 1, keepDueAt ? old.dueAt : dueAt));
+            return TaskService.EditResult.UPDATED;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean setDueAt(int taskId, Long dueAt) {
+        lock.writeLock().lock();
+        try {
+            Row old = tasks.get(taskId);
+            if (old == null) {
+                return false;
+            }
+            replace(old, new Row(taskId, old.title, old.description, old.priority, old.assignedToUserId, old.isComplete, old.progress, old.version + 1, dueAt));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteTask(int taskId) {
+        lock.writeLock().lock();
+        try {
+            Row old = tasks.remove(taskId);
+            if (old == null) {
+                return false;
+            }
+            unindex(old);
+            appendHistory(taskId, TaskChange.Kind.DELETED, new byte[] { 0 });
+            // Same as the SQLite task_relations_delete trigger
+            parentOf.remove(taskId);
+            parentOf.values().removeIf(parentId -> parentId == taskId);
+            blockers.removeIf(link -> link.get(0) == taskId || link.get(1) == taskId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Bulk Operations ---
+
+    @Override
+    public List<Integer> reassignAll(int fromUserId, int toUserId) {
+        lock.writeLock().lock();
+        try {
+            if (fromUserId == toUserId) {
+                return new ArrayList<>();
+            }
+            List<Integer> ids = new ArrayList<>(byAssignee.getOrDefault(fromUserId, new TreeSet<>()));
+            for (int id : ids) {
+                Row old = tasks.get(id);
+                replace(old, new Row(id, old.title, old.description, old.priority, toUserId, old.isComplete, old.progress, old.version + 1, old.dueAt));
+            }
+            return ids;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> completeWhere(TaskFilter filter) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (int id : new ArrayList<>(activeIds)) {
+                Row old = tasks.get(id);
+                if (filter.test(toTask(old, false))) {
+                    replace(old, new Row(id, old.title, old.description, old.priority, old.assignedToUserId, true, old.progress, old.version + 1, old.dueAt));
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> deleteCompletedOlderThan(long cutoff) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (int id : new ArrayList<>(completedIds)) {
+                List<HistoryRow> rows = history.get(id);
+                if (rows != null && !rows.isEmpty() && rows.get(rows.size() - 1).changedAt < cutoff) {
+                    deleteTask(id);
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean setParent(int childId, int parentId) {
+        lock.writeLock().lock();
+        try {
+            if (!tasks.containsKey(childId) || !tasks.containsKey(parentId)) {
+                return false;
+            }
+            parentOf.put(childId, parentId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean clearParent(int childId) {
+        lock.writeLock().lock();
+        try {
+            parentOf.remove(childId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addBlocker(int blockerId, int blockedId) {
+        lock.writeLock().lock();
+        try {
+            if (!tasks.containsKey(blockerId) || !tasks.containsKey(blockedId)) {
+                return false;
+            }
+            blockers.add(List.of(blockerId, blockedId));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeBlocker(int blockerId, int blockedId) {
+        lock.writeLock().lock();
+        try {
+            blockers.remove(List.of(blockerId, blockedId));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Reads ---
+
+    @Override
+    public List<Task> getAllTasks() {
+        lock.readLock().lock();
+        try {
+            List<Task> result = new ArrayList<>(tasks.size());
+            tasks.values().forEach(row -> result.add(toTask(row, false)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByAssignee(int userId) {
+        lock.readLock().lock();
+        try {
+            return toTasks(byAssignee.getOrDefault(userId, new TreeSet<>()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(boolean isComplete) {
+        lock.readLock().lock();
+        try {
+            return toTasks(isComplete ? completedIds : activeIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getBoardTasks() {
+        lock.readLock().lock();
+        try {
+            List<Task> result = new ArrayList<>(tasks.size());
+            tasks.values().forEach(row -> result.add(toTask(row, true)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<String> getTaskDescription(int taskId) {
+        lock.readLock().lock();
+        try {
+            Row row = tasks.get(taskId);
+            return row == null ? Optional.empty() : Optional.of(row.description != null ? row.description : "");
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskStatistics getTaskStatistics() {
+        TaskStatistics result = new TaskStatistics();
+        lock.readLock().lock();
+        try {
+            stats.forEach((key, totals) -> {
+                if (totals[0] > 0) {
+                    result.addGroup(key.isComplete, key.priority, key.assignedToUserId, (int) totals[0], totals[1]);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public List<int[]> getSubtaskLinks() {
+        lock.readLock().lock();
+        try {
+            List<int[]> links = new ArrayList<>(parentOf.size());
+            parentOf.forEach((child, parent) -> links.add(new int[] { parent, child }));
+            return links;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<int[]> getBlockerLinks() {
+        lock.readLock().lock();
+        try {
+            List<int[]> links = new ArrayList<>(blockers.size());
+            blockers.forEach(link -> links.add(new int[] { link.get(0), link.get(1) }));
+            return links;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- History ---
+
+    @Override
+    public void setAuditUser(int userId) {
+        this.auditUserId = userId;
+    }
+
+    @Override
+    public List<TaskChange> getTaskHistory(int taskId) {
+        lock.readLock().lock();
+        try {
+            List<TaskChange> changes = new ArrayList<>();
+            for (HistoryRow row : history.getOrDefault(taskId, new ArrayList<>())) {
+                if (row.kind != null) {
+                    changes.add(new TaskChange(taskId, row.kind, row.changedAt, row.changedBy, row.delta));
+                }
+            }
+            return changes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replays the task's history from the latest checkpoint at or before the given time.
+     */
+    @Override
+    public Optional<Task> getTaskAsOf(int taskId, long timestamp) {
+        lock.readLock().lock();
+        try {
+            List<HistoryRow> rows = history.getOrDefault(taskId, new ArrayList<>());
+            int start = -1;
+            for (int i = rows.size() - 1; i >= 0 && start < 0; i--) {
+                if (rows.get(i).isCheckpoint() && rows.get(i).changedAt <= timestamp) {
+                    start = i;
+                }
+            }
+            if (start < 0) {
+                return Optional.empty();
+            }
+            Task task = new Task(taskId, null, null, null, 0, null, false, 0);
+            boolean exists = true;
+            for (int i = start; i < rows.size() && rows.get(i).changedAt <= timestamp; i++) {
+                exists = rows.get(i).kind != TaskChange.Kind.DELETED;
+                TaskDelta.apply(rows.get(i).delta, task);
+            }
+            if (!exists) {
+                return Optional.empty();
+            }
+            task.setAssignedToUsername(usernameLookup.apply(task.getAssignedToUserId()).orElse("Unknown"));
+            return Optional.of(task);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Helpers (callers hold the lock) ---
+
+    private static boolean isValid(String title, String priority) {
+        return title != null && ("High".equals(priority) || "Medium".equals(priority) || "Low".equals(priority));
+    }
+
+    private void replace(Row old, Row updated) {
+        unindex(old);
+        tasks.put(updated.id, updated);
+        index(updated);
+        Task after = toTask(updated, false);
+        byte[] delta = TaskDelta.diff(toTask(old, false), after);
+        if (TaskDelta.fieldsOf(delta) != 0) {
+            appendHistory(updated.id, TaskChange.Kind.EDITED, delta);
+            if (editsSinceCheckpoint(updated.id) >= TaskDelta.CHECKPOINT_INTERVAL) {
+                appendHistory(updated.id, null, TaskDelta.full(after));
+            }
+        }
+    }
+
+    private void appendHistory(int taskId, TaskChange.Kind kind, byte[] delta) {
+        history.computeIfAbsent(taskId, id -> new ArrayList<>())
+            .add(new HistoryRow(kind, System.currentTimeMillis(), auditUserId, delta));
+    }
+
+    private int editsSinceCheckpoint(int taskId) {
+        List<HistoryRow> rows = history.get(taskId);
+        int count = 0;
+        for (int i = rows.size() - 1; i >= 0 && !rows.get(i).isCheckpoint(); i--) {
+            count++;
+        }
+        return count;
+    }
+
+    private void index(Row row) {
+        byAssignee.computeIfAbsent(row.assignedToUserId, id -> new TreeSet<>()).add(row.id);
+        (row.isComplete ? completedIds : activeIds).add(row.id);
+        long[] totals = stats.computeIfAbsent(new StatsKey(row.isComplete, row.priority, row.assignedToUserId), k -> new long[2]);
+        totals[0]++;
+        totals[1] += row.progress;
+    }
+
+    private void unindex(Row row) {
+        Set<Integer> ids = byAssignee.get(row.assignedToUserId);
+        if (ids != null) {
+            ids.remove(row.id);
+            if (ids.isEmpty()) {
+                byAssignee.remove(row.assignedToUserId);
+            }
+        }
+        (row.isComplete ? completedIds : activeIds).remove(row.id);
+        StatsKey key = new StatsKey(row.isComplete, row.priority, row.assignedToUserId);
+        long[] totals = stats.get(key);
+        if (totals != null) {
+            totals[0]--;
+            totals[1] -= row.progress;
+            if (totals[0] == 0) {
+                stats.remove(key);
+            }
+        }
+    }
+
+    private List<Task> toTasks(Set<Integer> ids) {
+        List<Task> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            result.add(toTask(tasks.get(id), false));
+        }
+        return result;
+    }
+
+    private Task toTask(Row row, boolean previewOnly) {
+        Task task = new Task(row.id, row.title, previewOnly ? null : row.description, row.priority,
+            row.assignedToUserId, usernameLookup.apply(row.assignedToUserId).orElse("Unknown"),
+            row.isComplete, row.progress, row.version);
+        if (previewOnly) {
+            task.setDescriptionPreview(Task.previewOf(row.description));
+        }
+        task.setDueAt(row.dueAt);
+        return task;
+    }
+
+    /**
+     * Immutable stored task; edits replace the whole row so readers never see a partial update.
+     */
+    private static final class Row {
+        final int id;
+        final String title;
+        final String description;
+        final String priority;
+        final int assignedToUserId;
+        final boolean isComplete;
+        final int progress;
+        final int version;
+        final Long dueAt;
+
+        Row(int id, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress, int version, Long dueAt) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.priority = priority;
+            this.assignedToUserId = assignedToUserId;
+            this.isComplete = isComplete;
+            this.progress = progress;
+            this.version = version;
+            this.dueAt = dueAt;
+        }
+    }
+
+    private record StatsKey(boolean isComplete, String priority, int assignedToUserId) {}
+
+    /**
+     * One history entry; kind is null for the internal checkpoints that bound replay length.
+     */
+    private record HistoryRow(TaskChange.Kind kind, long changedAt, int changedBy, byte[] delta) {
+        boolean isCheckpoint() {
+            return kind == null || kind == TaskChange.Kind.CREATED;
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package taskapp;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Records every JDBC statement run on connections from UserAuth.getConnection() (and database
+ * snapshots): its SQL, bound parameters, duration, row count and the time spent waiting for the
+ * connection (opening it, or queueing in the WriteScheduler).
+ *
+ * Statement threads only hand an Entry to a bounded queue; a daemon thread moves entries into a
+ * ring buffer of the last CAPACITY statements and logs those slower than the threshold through
+ * TaskLog. If the queue is full the entry is dropped rather than slowing the caller down.
+ * Parameters of statements that mention a password, secret or token column are never recorded.
+ *
+ * Settings: taskapp.trace=false turns tracing off; taskapp.trace.slowMillis sets the
+ * slow-query threshold (default 100 ms), which can also be changed at runtime.
+ */
+public final class QueryTrace {
+
+    public static final int CAPACITY = 1024;
+
+    /**
+     * One traced statement.
+     */
+    public static final class Entry {
+        private final long timestamp;
+        private final String thread;
+        private final String sql;
+        private final String parameters;
+        private final long durationNanos;
+        private final long rows;
+        private final long connectionWaitNanos;
+        private final String error;
+        private final boolean slow;
+
+        Entry(long timestamp, String thread, String sql, String parameters, long durationNanos, long rows, long connectionWaitNanos, String error, boolean slow) {
+            this.timestamp = timestamp;
+            this.thread = thread;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.durationNanos = durationNanos;
+            this.rows = rows;
+            this.connectionWaitNanos = connectionWaitNanos;
+            this.error = error;
+            this.slow = slow;
+        }
+
+        /** Epoch milliseconds when the statement finished. */
+        public long getTimestamp() { return timestamp; }
+        public String getThread() { return thread; }
+        public String getSql() { return sql; }
+        /** Bound parameters, e.g. [5, 'Report', null], or [***, ***] when redacted. */
+        public String getParameters() { return parameters; }
+        /** From execute until the update returned or the result set was read to the end or closed. */
+        public long getDurationNanos() { return durationNanos; }
+        /** Rows updated or read, or -1 if unknown. */
+        public long getRows() { return rows; }
+        public long getConnectionWaitNanos() { return connectionWaitNanos; }
+        /** Error message if the statement failed, otherwise null. */
+        public String getError() { return error; }
+        public boolean isSlow() { return slow; }
+
+        @Override
+        public String toString() {
+            return "sql=" + TaskLog.quote(sql) + " params=" + TaskLog.quote(parameters)
+                + " micros=" + durationNanos / 1000 + " rows=" + rows + " waitMicros=" + connectionWaitNanos / 1000
+                + (error != null ? " error=" + TaskLog.quote(error) : "");
+        }
+    }
+
+    private static final Pattern SENSITIVE = Pattern.compile("password|passwd|secret|token", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("taskapp.trace"));
+    private static volatile long slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("taskapp.trace.slowMillis", 100));
+
+    private static final BlockingQueue<Entry> pending = new ArrayBlockingQueue<>(4 * CAPACITY);
+    private static final Entry[] ring = new Entry[CAPACITY];
+    private static long written = 0; // guarded by ring
+    private static final AtomicLong queued = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static volatile long drained = 0;
+    private static final List<Consumer<Entry>> slowListeners = new CopyOnWriteArrayList<>();
+
+    private static final ThreadLocal<long[]> connectionWait = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * Attached (as a suppressed exception) to errors thrown by traced statements, so the statement
+     * can be logged by whichever thread catches the error.
+     */
+    private static final class FailedStatement extends Exception {
+        private static final long serialVersionUID = 1L;
+        final transient Entry entry;
+
+        FailedStatement(Entry entry) {
+            super(entry.getSql(), null, false, false);
+            this.entry = entry;
+        }
+    }
+
+    static {
+        Thread drainer = new Thread(QueryTrace::drain, "taskapp-query-trace");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private QueryTrace() {}
+
+    // --- Settings ---
+
+    public static boolean isEnabled() { return enabled; }
+
+    /**
+     * Turns tracing of newly opened connections on or off.
+     */
+    public static void setEnabled(boolean on) { enabled = on; }
+
+    public static long getSlowThresholdMillis() { return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos); }
+
+    public static void setSlowThresholdMillis(long millis) { slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis); }
+
+    /**
+     * Called on the trace thread for each statement slower than the threshold.
+     */
+    public static void addSlowQueryListener(Consumer<Entry> listener) { slowListeners.add(listener); }
+
+    public static void removeSlowQueryListener(Consumer<Entry> listener) { slowListeners.remove(listener); }
+
+    // --- Reading the buffer ---
+
+    /**
+     * The most recent traced statements, oldest first.
+     */
+    public static List<Entry> getRecent() {
+        synchronized (ring) {
+            int count = (int) Math.min(written, CAPACITY);
+            List<Entry> recent = new ArrayList<>(count);
+            for (long i = written - count; i < written; i++) {
+                recent.add(ring[(int) (i % CAPACITY)]);
+            }
+            return recent;
+        }
+    }
+
+    public static List<Entry> getSlowQueries() {
+        List<Entry> slow = new ArrayList<>();
+        for (Entry entry : getRecent()) {
+            if (entry.isSlow()) {
+                slow.add(entry);
+            }
+        }
+        return slow;
+    }
+
+    /**
+     * Entries lost because the trace thread fell behind.
+     */
+    public static long getDroppedCount() { return dropped.get(); }
+
+    /**
+     * Waits (up to a second) until everything traced so far is in the ring buffer.
+     */
+    public static void flush() {
+        long target = queued.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (drained < target && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+    }
+
+    public static void clear() {
+        flush();
+        synchronized (ring) {
+            Arrays.fill(ring, null);
+            written = 0;
+        }
+    }
+
+    /**
+     * The traced statement that raised an error (or one of its causes), or null.
+     */
+    static Entry failedStatement(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            for (Throwable suppressed : t.getSuppressed()) {
+                if (suppressed instanceof FailedStatement) {
+                    return ((FailedStatement) suppressed).entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    // --- Recording ---
+
+    /**
+     * Returns a traced view of conn (or conn itself when tracing is off). connectNanos is the time
+     * taken to obtain it, reported with the first statement run on this thread.
+     */
+    public static Connection wrap(Connection conn, long connectNanos) {
+        if (!enabled || conn == null) {
+            return conn;
+        }
+        connectionWait.get()[0] = connectNanos;
+        return (Connection) Proxy.newProxyInstance(QueryTrace.class.getClassLoader(),
+            new Class<?>[] { Connection.class }, new ConnectionHandler(conn));
+    }
+
+    /**
+     * Sets the wait reported with this thread's next statement, e.g. time spent in a write queue.
+     */
+    static void setConnectionWait(long nanos) {
+        connectionWait.get()[0] = nanos;
+    }
+
+    private static long takeConnectionWait() {
+        long[] wait = connectionWait.get();
+        long nanos = wait[0];
+        wait[0] = 0;
+        return nanos;
+    }
+
+    private static void record(String sql, String parameters, long startNanos, long rows, long waitNanos, Throwable error) {
+        long duration = System.nanoTime() - startNanos;
+        Entry entry = new Entry(System.currentTimeMillis(), Thread.currentThread().getName(), sql, parameters,
+            duration, rows, waitNanos, error == null ? null : String.valueOf(error.getMessage()), duration >= slowThresholdNanos);
+        if (error != null) {
+            error.addSuppressed(new FailedStatement(entry));
+        }
+        if (pending.offer(entry)) {
+            queued.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private static void drain() {
+        while (true) {
+            Entry entry;
+            try {
+                entry = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (ring) {
+                ring[(int) (written % CAPACITY)] = entry;
+                written++;
+            }
+            if (entry.isSlow()) {
+                // A failing log handler or listener must not stop the drain thread
+                try {
+                    TaskLog.warn("Slow query", "sql", entry.getSql(), "params", entry.getParameters(),
+                        "millis", entry.getDurationNanos() / 1_000_000, "rows", entry.getRows(),
+                        "waitMillis", entry.getConnectionWaitNanos() / 1_000_000, "thread", entry.getThread());
+                } catch (RuntimeException e) {
+                    reportFailure("Error logging slow query", e);
+                }
+                for (Consumer<Entry> listener : slowListeners) {
+                    try {
+                        listener.accept(entry);
+                    } catch (RuntimeException e) {
+                        reportFailure("Slow query listener failed", e);
+                    }
+                }
+            }
+            drained++; // only this thread writes it
+        }
+    }
+
+    private static void reportFailure(String message, RuntimeException error) {
+        try {
+            TaskLog.error(message, error);
+        } catch (RuntimeException ignored) {
+            // logging itself is broken; keep draining
+        }
+    }
+
+    // --- Proxies ---
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object objectMethod(Object proxy, Object target, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            default: return "Traced " + target;
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, target, method, args);
+            }
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (SQLException e) {
+                if (method.getName().equals("prepareStatement")) {
+                    record((String) args[0], "[]", System.nanoTime(), -1, takeConnectionWait(), e);
+                }
+                throw e;
+            }
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return Proxy.newProxyInstance(QueryTrace.class.getClassLoader(),
+                        new Class<?>[] { PreparedStatement.class }, new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement":
+                    return Proxy.newProxyInstance(QueryTrace.class.getClassLoader(),
+                        new Class<?>[] { Statement.class }, new StatementHandler((Statement) result, null));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql; // null for plain statements
+        private Object[] parameters = new Object[8];
+        private int parameterCount = 0;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, target, method, args);
+            }
+            String name = method.getName();
+            if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                return call(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                Arrays.fill(parameters, null);
+                parameterCount = 0;
+                return call(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return call(target, method, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql : (String) args[0];
+            String params = describeParameters(sql);
+            long wait = takeConnectionWait();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (Throwable e) {
+                record(sql, params, start, -1, wait, e);
+                throw e;
+            }
+            switch (name) {
+                case "executeQuery":
+                    return Proxy.newProxyInstance(QueryTrace.class.getClassLoader(),
+                        new Class<?>[] { ResultSet.class }, new ResultSetHandler((ResultSet) result, sql, params, start, wait));
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    record(sql, params, start, ((Number) result).longValue(), wait, null);
+                    break;
+                case "executeBatch":
+                    record(sql, params, start, Arrays.stream((int[]) result).asLongStream().sum(), wait, null);
+                    break;
+                case "executeLargeBatch":
+                    record(sql, params, start, Arrays.stream((long[]) result).sum(), wait, null);
+                    break;
+                default: // execute
+                    record(sql, params, start, (Boolean) result ? -1 : target.getUpdateCount(), wait, null);
+            }
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+
+        private String describeParameters(String sql) {
+            int count = parameterCount;
+            boolean redact = sql != null && SENSITIVE.matcher(sql).find();
+            StringBuilder text = new StringBuilder("[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    text.append(", ");
+                }
+                Object value = parameters[i];
+                if (redact) {
+                    text.append("***");
+                } else if (value instanceof String) {
+                    String s = (String) value;
+                    text.append('\'').append(s.length() > MAX_PARAMETER_LENGTH ? s.substring(0, MAX_PARAMETER_LENGTH) + "..." : s).append('\'');
+                } else if (value instanceof byte[]) {
+                    text.append("<").append(((byte[]) value).length).append(" bytes>");
+                } else {
+                    text.append(value);
+                }
+            }
+            return text.append(']').toString();
+        }
+    }
+
+    /**
+     * Counts rows as they are read; the query is recorded when the rows run out or the result set closes.
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private final String params;
+        private final long start;
+        private final long wait;
+        private long rows = 0;
+        private boolean recorded = false;
+
+        ResultSetHandler(ResultSet target, String sql, String params, long start, long wait) {
+            this.target = target;
+            this.sql = sql;
+            this.params = params;
+            this.start = start;
+            this.wait = wait;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return objectMethod(proxy, target, method, args);
+            }
+            switch (method.getName()) {
+                case "next":
+                    boolean more;
+                    try {
+                        more = target.next();
+                    } catch (SQLException e) {
+                        finish(e);
+                        throw e;
+                    }
+                    if (more) {
+                        rows++;
+                    } else {
+                        finish(null);
+                    }
+                    return more;
+                case "close":
+                    finish(null);
+                    return call(target, method, args);
+                default:
+                    return call(target, method, args);
+            }
+        }
+
+        private void finish(Throwable error) {
+            if (!recorded) {
+                recorded = true;
+                record(sql, params, start, rows, wait, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package taskapp;
+
+import java.sql.SQLException;
+
+/**
+ * How often and how long to retry a database write that failed because SQLite was busy or locked.
+ * Delays grow exponentially from initialDelayMillis up to maxDelayMillis.
+ */
+public class RetryPolicy {
+
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Default policy: up to 8 attempts, 5 ms doubling to at most 500 ms.
+     */
+    public static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(8, 5, 500);
+    }
+
+    /**
+     * Single attempt, no retries.
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, 0, 0);
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+
+    /**
+     * Delay before the given retry (1 = first retry).
+     */
+    public long delayMillis(int retry) {
+        long delay = initialDelayMillis << Math.min(retry - 1, 20);
+        return Math.min(delay, maxDelayMillis);
+    }
+
+    /**
+     * True if the exception is SQLITE_BUSY or SQLITE_LOCKED (including their extended codes).
+     */
+    public static boolean isBusy(SQLException e) {
+        int primary = e.getErrorCode() & 0xFF;
+        return primary == SQLITE_BUSY || primary == SQLITE_LOCKED;
+    }
+}
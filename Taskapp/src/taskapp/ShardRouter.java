@@ -0,0 +1,35 @@
+package taskapp;
+
+import java.util.Map;
+
+/**
+ * Chooses the shard a new task is stored in, from the user it is assigned to.
+ * A task stays in its shard when it is reassigned later.
+ */
+@FunctionalInterface
+public interface ShardRouter {
+
+    /**
+     * Shard index (0 to shardCount - 1) for a task assigned to the given user.
+     */
+    int shardFor(int assignedToUserId, int shardCount);
+
+    /**
+     * Spreads users evenly over the shards.
+     */
+    static ShardRouter hashed() {
+        return (userId, shardCount) -> Math.floorMod(userId, shardCount);
+    }
+
+    /**
+     * Puts each team's users on the team's shard (user ID -> shard index);
+     * users without an entry are hashed.
+     */
+    static ShardRouter byTeam(Map<Integer, Integer> shardByUser) {
+        ShardRouter fallback = hashed();
+        return (userId, shardCount) -> {
+            Integer shard = shardByUser.get(userId);
+            return shard != null ? Math.floorMod(shard, shardCount) : fallback.shardFor(userId, shardCount);
+        };
+    }
+}
@@ -0,0 +1,362 @@
+package taskapp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * TaskRepository that spreads tasks over several SQLite files ("shards"), each with its own
+ * WriteScheduler, so writes to different shards never wait for the same lock.
+ *
+ * Shard 0 is the main database (which also holds the users table); shard k is a sibling file
+ * named like task_manager-shard1.db. New tasks go to the shard chosen by the ShardRouter from
+ * their assignee. Each shard hands out task IDs from its own range (shard k starts after
+ * k * ID_RANGE), so any task ID maps back to its shard without a lookup table, and existing
+ * single-file databases become shard 0 unchanged. A shard whose range is used up rejects new
+ * tasks instead of handing out IDs that belong to the next shard.
+ *
+ * Queries that span every shard (getAllTasks, getBoardTasks, statistics, ...) run on all
+ * shards in parallel and are concatenated in shard order, which is also ID order.
+ * Subtask links are stored with the child and blocker links with the blocked task; links
+ * to a task deleted in another shard are left behind and ignored by TaskGraph.
+ */
+public class ShardedTaskRepository implements TaskRepository, AutoCloseable {
+
+    /**
+     * Task IDs per shard. With int IDs this allows up to 127 shards of 16.7 million tasks each.
+     */
+    public static final int ID_RANGE = 1 << 24;
+    public static final int MAX_SHARDS = Integer.MAX_VALUE / ID_RANGE;
+
+    private final List<SqliteTaskRepository> shards = new ArrayList<>();
+    private final List<WriteScheduler> writers = new ArrayList<>();
+    private final ShardRouter router;
+    private final ExecutorService readers;
+
+    /**
+     * Creates shardCount shards next to the main database (UserAuth.getJdbcUrl()).
+     */
+    public ShardedTaskRepository(int shardCount, ShardRouter router) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        this.router = router;
+        String mainUrl = UserAuth.getJdbcUrl();
+        for (int i = 0; i < shardCount; i++) {
+            String url = shardUrl(mainUrl, i);
+            WriteScheduler writer = new WriteScheduler(1024, 64, 2000, RetryPolicy.defaultPolicy(), url);
+            writers.add(writer);
+            shards.add(new SqliteTaskRepository(url, null, writer, (long) i * ID_RANGE, (long) (i + 1) * ID_RANGE));
+        }
+        this.readers = Executors.newFixedThreadPool(shardCount, r -> {
+            Thread thread = new Thread(r, "taskapp-shard-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * URL of shard i: the main database for shard 0, otherwise "-shard<i>" added before the extension.
+     */
+    static String shardUrl(String mainUrl, int index) {
+        if (index == 0) {
+            return mainUrl;
+        }
+        int dot = mainUrl.lastIndexOf('.');
+        int nameStart = Math.max(mainUrl.lastIndexOf(':'), Math.max(mainUrl.lastIndexOf('/'), mainUrl.lastIndexOf('\\')));
+        return dot > nameStart
+            ? mainUrl.substring(0, dot) + "-shard" + index + mainUrl.substring(dot)
+            : mainUrl + "-shard" + index;
+    }
+
+    public int getShardCount() { return shards.size(); }
+
+    /**
+     * Database URL of every shard, in shard order.
+     */
+    public List<String> getShardUrls() {
+        List<String> urls = new ArrayList<>(shards.size());
+        shards.forEach(shard -> urls.add(shard.getJdbcUrl()));
+        return urls;
+    }
+
+    /**
+     * Reads and writes started on any shard.
+     */
+    @Override
+    public long getActivityCount() {
+        long total = 0;
+        for (SqliteTaskRepository shard : shards) {
+            total += shard.getActivityCount();
+        }
+        return total;
+    }
+
+    /**
+     * Shard holding a task ID, or -1 if the ID is outside every shard's range.
+     */
+    public int shardOf(int taskId) {
+        int shard = taskId <= 0 ? -1 : (taskId - 1) / ID_RANGE;
+        return shard < shards.size() ? shard : -1;
+    }
+
+    private Optional<SqliteTaskRepository> shardFor(int taskId) {
+        int shard = shardOf(taskId);
+        return shard < 0 ? Optional.empty() : Optional.of(shards.get(shard));
+    }
+
+    /**
+     * Runs a query on every shard in parallel; results are in shard order.
+     */
+    private <T> List<T> scatter(Function<SqliteTaskRepository, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (SqliteTaskRepository shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), readers));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        futures.forEach(f -> results.add(f.join()));
+        return results;
+    }
+
+    private <T> List<T> gather(Function<SqliteTaskRepository, List<T>> query) {
+        List<T> all = new ArrayList<>();
+        scatter(query).forEach(all::addAll);
+        return all;
+    }
+
+    // --- Setup ---
+
+    /**
+     * Creates the tables in every shard and reserves each shard's ID range. Throws IllegalStateException
+     * if a range cannot be reserved, since the shard would otherwise hand out IDs of another shard.
+     */
+    @Override
+    public void initialize() {
+        scatter(shard -> {
+            shard.initialize();
+            return null;
+        });
+        for (int i = 1; i < shards.size(); i++) {
+            reserveIdRange(shards.get(i), (long) i * ID_RANGE);
+        }
+    }
+
+    /**
+     * Starts a new shard's AUTOINCREMENT counter at the beginning of its range, and checks that an
+     * existing counter is inside it.
+     */
+    private void reserveIdRange(SqliteTaskRepository shard, long firstIdMinusOne) {
+        String insert = "INSERT INTO sqlite_sequence (name, seq) SELECT 'tasks', ? "
+                      + "WHERE NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'tasks')";
+        long seq;
+        try (Connection conn = UserAuth.getConnection(shard.getJdbcUrl())) {
+            try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+                pstmt.setLong(1, firstIdMinusOne);
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT seq FROM sqlite_sequence WHERE name = 'tasks'");
+                 ResultSet rs = pstmt.executeQuery()) {
+                seq = rs.next() ? rs.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error reserving shard ID range", e, "shard", shard.getJdbcUrl());
+            throw new IllegalStateException("Could not reserve the ID range of shard " + shard.getJdbcUrl(), e);
+        }
+        if (seq < firstIdMinusOne) {
+            TaskLog.error("Shard ID counter is below its range", null, "shard", shard.getJdbcUrl(), "seq", seq);
+            throw new IllegalStateException("Shard " + shard.getJdbcUrl() + " hands out IDs below its range (counter at " + seq + ")");
+        }
+    }
+
+    // --- Writes (routed to one shard) ---
+
+    @Override
+    public int createTask(String title, String description, String priority, int assignedToUserId, Long dueAt) {
+        int shard = router.shardFor(assignedToUserId, shards.size());
+        return shards.get(shard).createTask(title, description, priority, assignedToUserId, dueAt);
+    }
+
+    @Override
+    public boolean setDueAt(int taskId, Long dueAt) {
+        return shardFor(taskId).map(s -> s.setDueAt(taskId, dueAt)).orElse(false);
+    }
+
+    @Override
+    public boolean editTask(int taskId, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        return shardFor(taskId)
+            .map(s -> s.editTask(taskId, title, description, priority, assignedToUserId, isComplete, progress))
+            .orElse(false);
+    }
+
+    @Override
+    public TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        return shardFor(taskId)
+            .map(s -> s.editTask(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress))
+            .orElse(TaskService.EditResult.NOT_FOUND);
+    }
+
+    @Override
+    public TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress, Long dueAt) {
+        return shardFor(taskId)
+            .map(s -> s.editTask(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress, dueAt))
+            .orElse(TaskService.EditResult.NOT_FOUND);
+    }
+
+    @Override
+    public boolean deleteTask(int taskId) {
+        return shardFor(taskId).map(s -> s.deleteTask(taskId)).orElse(false);
+    }
+
+    // --- Bulk Operations (one statement per shard, run in parallel; each shard commits on its own) ---
+
+    @Override
+    public List<Integer> reassignAll(int fromUserId, int toUserId) {
+        return gatherBulk(shard -> shard.reassignAll(fromUserId, toUserId));
+    }
+
+    @Override
+    public List<Integer> completeWhere(TaskFilter filter) {
+        return gatherBulk(shard -> shard.completeWhere(filter));
+    }
+
+    @Override
+    public List<Integer> deleteCompletedOlderThan(long cutoff) {
+        return gatherBulk(shard -> shard.deleteCompletedOlderThan(cutoff));
+    }
+
+    /**
+     * Affected IDs of every shard, or null if any shard failed (the others may still have committed).
+     */
+    private List<Integer> gatherBulk(Function<SqliteTaskRepository, List<Integer>> bulk) {
+        List<Integer> all = new ArrayList<>();
+        for (List<Integer> ids : scatter(bulk)) {
+            if (ids == null) {
+                return null;
+            }
+            all.addAll(ids);
+        }
+        return all;
+    }
+
+    // --- Reads ---
+
+    @Override
+    public List<Task> getAllTasks() {
+        return gather(SqliteTaskRepository::getAllTasks);
+    }
+
+    /**
+     * Streams the shards one after another, which keeps the ID order and reads one shard at a time.
+     */
+    @Override
+    public Flow.Publisher<Task> streamAllTasks() {
+        List<TaskPublisher.CursorFactory> sources = new ArrayList<>();
+        shards.forEach(shard -> sources.add(shard::openTaskCursor));
+        return new TaskPublisher(TaskPublisher.concat(sources));
+    }
+
+    @Override
+    public List<Task> getTasksByAssignee(int userId) {
+        // Reassigned tasks stay in their original shard, so every shard is asked
+        return gather(shard -> shard.getTasksByAssignee(userId));
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(boolean isComplete) {
+        return gather(shard -> shard.getTasksByStatus(isComplete));
+    }
+
+    @Override
+    public List<Task> getBoardTasks() {
+        return gather(SqliteTaskRepository::getBoardTasks);
+    }
+
+    @Override
+    public Optional<String> getTaskDescription(int taskId) {
+        return shardFor(taskId).flatMap(s -> s.getTaskDescription(taskId));
+    }
+
+    @Override
+    public TaskStatistics getTaskStatistics() {
+        TaskStatistics total = new TaskStatistics();
+        scatter(SqliteTaskRepository::getTaskStatistics).forEach(total::merge);
+        return total;
+    }
+
+    /**
+     * Streams every shard into one columnar snapshot, in shard (and so ID) order.
+     */
+    @Override
+    public ColumnarTaskSnapshot getColumnarSnapshot() {
+        ColumnarTaskSnapshot.Builder builder = new ColumnarTaskSnapshot.Builder(1024);
+        shards.forEach(shard -> shard.loadColumns(builder));
+        return builder.build();
+    }
+
+    // --- History ---
+
+    @Override
+    public void setAuditUser(int userId) {
+        shards.forEach(shard -> shard.setAuditUser(userId));
+    }
+
+    @Override
+    public List<TaskChange> getTaskHistory(int taskId) {
+        return shardFor(taskId).map(s -> s.getTaskHistory(taskId)).orElseGet(ArrayList::new);
+    }
+
+    @Override
+    public Optional<Task> getTaskAsOf(int taskId, long timestamp) {
+        return shardFor(taskId).flatMap(s -> s.getTaskAsOf(taskId, timestamp));
+    }
+
+    // --- Relations ---
+
+    @Override
+    public boolean setParent(int childId, int parentId) {
+        return shardFor(childId).map(s -> s.setParent(childId, parentId)).orElse(false);
+    }
+
+    @Override
+    public boolean clearParent(int childId) {
+        return shardFor(childId).map(s -> s.clearParent(childId)).orElse(false);
+    }
+
+    @Override
+    public boolean addBlocker(int blockerId, int blockedId) {
+        return shardFor(blockedId).map(s -> s.addBlocker(blockerId, blockedId)).orElse(false);
+    }
+
+    @Override
+    public boolean removeBlocker(int blockerId, int blockedId) {
+        return shardFor(blockedId).map(s -> s.removeBlocker(blockerId, blockedId)).orElse(false);
+    }
+
+    @Override
+    public List<int[]> getSubtaskLinks() {
+        return gather(SqliteTaskRepository::getSubtaskLinks);
+    }
+
+    @Override
+    public List<int[]> getBlockerLinks() {
+        return gather(SqliteTaskRepository::getBlockerLinks);
+    }
+
+    /**
+     * Drains and stops every shard's writer, then the reader pool.
+     */
+    @Override
+    public void close() {
+        writers.forEach(WriteScheduler::close);
+        readers.shutdown();
+    }
+}
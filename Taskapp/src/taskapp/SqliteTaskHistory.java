@@ -0,0 +1,252 @@
+package taskapp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only task_history table used by SqliteTaskRepository. Every statement runs on the
+ * caller's connection, so history rows commit in the same transaction as the change they describe.
+ *
+ * Rows hold TaskDelta bytes. Creation rows and checkpoint rows hold the full task; edit rows
+ * hold only the changed fields. After every CHECKPOINT_INTERVAL edits a checkpoint is added,
+ * so reconstructing a task reads one checkpoint and at most CHECKPOINT_INTERVAL edits.
+ */
+final class SqliteTaskHistory {
+
+    // Stored kind codes: TaskChange.Kind ordinals, plus an internal checkpoint kind
+    private static final int CREATED = TaskChange.Kind.CREATED.ordinal();
+    private static final int EDITED = TaskChange.Kind.EDITED.ordinal();
+    private static final int DELETED = TaskChange.Kind.DELETED.ordinal();
+    private static final int CHECKPOINT = 3;
+    private static final String IS_CHECKPOINT = "kind IN (" + CREATED + ", " + CHECKPOINT + ")";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO task_history (task_id, kind, changed_at, changed_by, delta) VALUES (?, ?, ?, ?, ?)";
+    // Latest checkpoint ID (NULL if none) and the number of rows after it
+    private static final String LAST_CHECKPOINT_SQL =
+        "SELECT c.id, (SELECT COUNT(*) FROM task_history e WHERE e.task_id = ?1 AND e.id > c.id) "
+        + "FROM (SELECT MAX(id) AS id FROM task_history WHERE task_id = ?1 AND " + IS_CHECKPOINT + ") c";
+    private static final String HISTORY_SQL =
+        "SELECT kind, changed_at, changed_by, delta FROM task_history WHERE task_id = ? AND kind <> " + CHECKPOINT + " ORDER BY id ASC";
+    private static final String CHECKPOINT_AS_OF_SQL =
+        "SELECT MAX(id) FROM task_history WHERE task_id = ? AND " + IS_CHECKPOINT + " AND changed_at <= ?";
+    private static final String REPLAY_SQL =
+        "SELECT kind, delta FROM task_history WHERE task_id = ? AND id >= ? AND changed_at <= ? ORDER BY id ASC";
+
+    private SqliteTaskHistory() {}
+
+    static void createTable(Connection conn) throws SQLException {
+        String[] ddl = {
+            "CREATE TABLE IF NOT EXISTS task_history ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + "task_id INTEGER NOT NULL," // no foreign key: history outlives the task
+                + "kind INTEGER NOT NULL,"
+                + "changed_at INTEGER NOT NULL," // epoch milliseconds
+                + "changed_by INTEGER NOT NULL," // user ID, 0 = unknown
+                + "delta BLOB NOT NULL"
+                + ");",
+            "CREATE INDEX IF NOT EXISTS idx_history_task ON task_history (task_id, id);"
+        };
+        for (String sql : ddl) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    // --- Recording ---
+
+    static void recordCreate(Connection conn, Task created, int changedBy) throws SQLException {
+        try (Recorder recorder = new Recorder(conn, changedBy)) {
+            recorder.recordCreate(created);
+        }
+    }
+
+    /**
+     * Records the fields that differ between before and after. Nothing is written if nothing changed.
+     */
+    static void recordEdit(Connection conn, Task before, Task after, int changedBy) throws SQLException {
+        try (Recorder recorder = new Recorder(conn, changedBy)) {
+            recorder.recordEdit(before, after);
+        }
+    }
+
+    static void recordDelete(Connection conn, Task before, int changedBy) throws SQLException {
+        try (Recorder recorder = new Recorder(conn, changedBy)) {
+            recorder.recordDelete(before);
+        }
+    }
+
+    /**
+     * Records any number of changes on one connection, preparing each statement once.
+     * Bulk operations record one change per affected task, so their rows are inserted in
+     * JDBC batches (flushed every BATCH_SIZE rows and on close): a task's pending rows are
+     * never needed by a later lookup, because each task is recorded only once.
+     */
+    static final class Recorder implements AutoCloseable {
+        private static final int BATCH_SIZE = 512;
+
+        private final Connection conn;
+        private final int changedBy;
+        private final boolean batched;
+        private final long now = System.currentTimeMillis();
+        private PreparedStatement insert;
+        private PreparedStatement lastCheckpoint;
+        private int pending = 0;
+
+        Recorder(Connection conn, int changedBy) {
+            this(conn, changedBy, false);
+        }
+
+        /**
+         * With batched set, each task may be recorded at most once.
+         */
+        Recorder(Connection conn, int changedBy, boolean batched) {
+            this.conn = conn;
+            this.changedBy = changedBy;
+            this.batched = batched;
+        }
+
+        void recordCreate(Task created) throws SQLException {
+            insert(created.getId(), CREATED, TaskDelta.full(created));
+        }
+
+        void recordEdit(Task before, Task after) throws SQLException {
+            byte[] delta = TaskDelta.diff(before, after);
+            if (TaskDelta.fieldsOf(delta) == 0) {
+                return;
+            }
+            int editsSinceCheckpoint = ensureBaseline(before);
+            insert(after.getId(), EDITED, delta);
+            if (editsSinceCheckpoint + 1 >= TaskDelta.CHECKPOINT_INTERVAL) {
+                insert(after.getId(), CHECKPOINT, TaskDelta.full(after));
+            }
+        }
+
+        void recordDelete(Task before) throws SQLException {
+            ensureBaseline(before);
+            insert(before.getId(), DELETED, new byte[] { 0 });
+        }
+
+        /**
+         * Tasks created before history was recorded get a checkpoint of their current state first.
+         * Returns the number of rows since the latest checkpoint.
+         */
+        private int ensureBaseline(Task before) throws SQLException {
+            if (lastCheckpoint == null) {
+                lastCheckpoint = conn.prepareStatement(LAST_CHECKPOINT_SQL);
+            }
+            lastCheckpoint.setInt(1, before.getId());
+            try (ResultSet rs = lastCheckpoint.executeQuery()) {
+                if (rs.next() && rs.getLong(1) != 0) {
+                    return rs.getInt(2);
+                }
+            }
+            insert(before.getId(), CHECKPOINT, TaskDelta.full(before));
+            return 0;
+        }
+
+        private void insert(int taskId, int kind, byte[] delta) throws SQLException {
+            if (insert == null) {
+                insert = conn.prepareStatement(INSERT_SQL);
+            }
+            insert.setInt(1, taskId);
+            insert.setInt(2, kind);
+            insert.setLong(3, now);
+            insert.setInt(4, changedBy);
+            insert.setBytes(5, delta);
+            if (!batched) {
+                insert.executeUpdate();
+            } else {
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                insert.executeBatch();
+                pending = 0;
+            }
+        }
+
+        /**
+         * Writes any batched rows and closes the statements.
+         */
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                for (PreparedStatement pstmt : new PreparedStatement[] { insert, lastCheckpoint }) {
+                    if (pstmt != null) {
+                        pstmt.close();
+                    }
+                }
+            }
+        }
+    }
+
+    // --- Reading ---
+
+    /**
+     * The task's changes, oldest first (internal checkpoints are not listed).
+     */
+    static List<TaskChange> readHistory(Connection conn, int taskId) throws SQLException {
+        List<TaskChange> changes = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(HISTORY_SQL)) {
+            pstmt.setInt(1, taskId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new TaskChange(taskId, TaskChange.Kind.values()[rs.getInt("kind")],
+                        rs.getLong("changed_at"), rs.getInt("changed_by"), rs.getBytes("delta")));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * The task as it was at the given time: the latest checkpoint at or before it plus the edits after that.
+     * Empty if the task did not exist yet (or was deleted) at that time. The username is not filled in.
+     */
+    static Optional<Task> reconstruct(Connection conn, int taskId, long timestamp) throws SQLException {
+        long checkpointId = queryLong(conn, CHECKPOINT_AS_OF_SQL, taskId, timestamp);
+        if (checkpointId == 0) {
+            return Optional.empty();
+        }
+        Task task = new Task(taskId, null, null, null, 0, null, false, 0);
+        boolean exists = true;
+        try (PreparedStatement pstmt = conn.prepareStatement(REPLAY_SQL)) {
+            pstmt.setInt(1, taskId);
+            pstmt.setLong(2, checkpointId);
+            pstmt.setLong(3, timestamp);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int kind = rs.getInt("kind");
+                    exists = kind != DELETED;
+                    TaskDelta.apply(rs.getBytes("delta"), task);
+                }
+            }
+        }
+        return exists ? Optional.of(task) : Optional.empty();
+    }
+
+    private static long queryLong(Connection conn, String sql, long... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setLong(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,1000 @@
+package taskapp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * TaskRepository backed by the SQLite database returned by UserAuth.getConnection().
+ * Task usernames are resolved through the UserDirectory cache.
+ */
+public class SqliteTaskRepository implements TaskRepository {
+
+    private final DatabaseSnapshot readSnapshot; // null = read from the main database
+    private final WriteScheduler writeScheduler; // null = each write opens its own connection
+    private final String jdbcUrl; // null = the main database (UserAuth.getJdbcUrl())
+    private final long minTaskId; // createTask fails rather than hand out this ID or a smaller one
+    private final long maxTaskId; // createTask fails rather than hand out a larger ID
+    private volatile int auditUserId; // recorded as changed_by in task_history, 0 = unknown
+    private final AtomicLong activity = new AtomicLong(); // reads and writes started, see getActivityCount
+
+    public SqliteTaskRepository() {
+        this(null, null);
+    }
+
+    /**
+     * Creates a repository whose read methods query the given snapshot.
+     * Writes still go to the main database.
+     */
+    public SqliteTaskRepository(DatabaseSnapshot readSnapshot) {
+        this(readSnapshot, null);
+    }
+
+    /**
+     * Creates a repository that sends createTask/editTask/deleteTask through the given
+     * WriteScheduler (serialized, group-committed, retried on SQLITE_BUSY).
+     */
+    public SqliteTaskRepository(DatabaseSnapshot readSnapshot, WriteScheduler writeScheduler) {
+        this(null, readSnapshot, writeScheduler);
+    }
+
+    /**
+     * Creates a repository for another database file (e.g. one shard of a ShardedTaskRepository).
+     * The write scheduler, if any, must write to the same file.
+     */
+    public SqliteTaskRepository(String jdbcUrl, DatabaseSnapshot readSnapshot, WriteScheduler writeScheduler) {
+        this(jdbcUrl, readSnapshot, writeScheduler, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * As above, but createTask fails (and stores nothing) if AUTOINCREMENT hands out an ID outside
+     * (minTaskId, maxTaskId], e.g. a shard's ID range.
+     */
+    public SqliteTaskRepository(String jdbcUrl, DatabaseSnapshot readSnapshot, WriteScheduler writeScheduler, long minTaskId, long maxTaskId) {
+        this.jdbcUrl = jdbcUrl;
+        this.readSnapshot = readSnapshot;
+        this.writeScheduler = writeScheduler;
+        this.minTaskId = minTaskId;
+        this.maxTaskId = Math.min(maxTaskId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The database this repository writes to (null = the main database).
+     */
+    public String getJdbcUrl() { return jdbcUrl; }
+
+    // --- SQL ---
+
+    private static final String INSERT_TASK_SQL =
+        "INSERT INTO tasks (title, description, priority, assigned_to_user_id, progress, due_at) VALUES (?, ?, ?, ?, 0, ?)";
+    private static final String UPDATE_TASK_SQL =
+        "UPDATE tasks SET title = ?, description = ?, priority = ?, assigned_to_user_id = ?, is_complete = ?, progress = ?, version = version + 1 WHERE id = ?";
+    private static final String UPDATE_TASK_VERSIONED_SQL =
+        "UPDATE tasks SET title = ?, description = ?, priority = ?, assigned_to_user_id = ?, is_complete = ?, progress = ?, due_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String UPDATE_DUE_AT_SQL =
+        "UPDATE tasks SET due_at = ?, version = version + 1 WHERE id = ?";
+    private static final String DELETE_TASK_SQL =
+        "DELETE FROM tasks WHERE id = ?";
+    private static final String TASK_COLUMNS =
+        "id, title, description, priority, assigned_to_user_id, is_complete, progress, version, due_at";
+    private static final String SELECT_TASKS_SQL =
+        "SELECT " + TASK_COLUMNS + " FROM tasks ";
+    private static final String SELECT_TASK_BY_ID_SQL =
+        SELECT_TASKS_SQL + "WHERE id = ?";
+    private static final String SELECT_TASK_PAGE_SQL =
+        SELECT_TASKS_SQL + "WHERE id > ? ORDER BY id ASC LIMIT ?";
+
+    /**
+     * Tasks read per query by streamAllTasks.
+     */
+    static final int STREAM_PAGE_SIZE = TaskPublisher.BATCH_SIZE;
+    private static final String BOARD_TASKS_SQL =
+        "SELECT id, title, substr(description, 1, " + (Task.PREVIEW_LENGTH + 1) + ") AS description_head, "
+        + "priority, assigned_to_user_id, is_complete, progress, version, due_at FROM tasks ORDER BY id ASC";
+    // Bulk operations: one statement each, RETURNING the changed rows for history and caches
+    private static final String REASSIGN_ALL_SQL =
+        "UPDATE tasks SET assigned_to_user_id = ?, version = version + 1 WHERE assigned_to_user_id = ? RETURNING " + TASK_COLUMNS;
+    private static final String COMPLETE_WHERE_SQL =
+        "UPDATE tasks SET is_complete = 1, version = version + 1 WHERE is_complete = 0";
+    private static final String DELETE_COMPLETED_SQL =
+        "DELETE FROM tasks WHERE is_complete = 1"
+        + " AND EXISTS (SELECT 1 FROM task_history h WHERE h.task_id = tasks.id)"
+        + " AND NOT EXISTS (SELECT 1 FROM task_history h WHERE h.task_id = tasks.id AND h.changed_at >= ?)"
+        + " RETURNING " + TASK_COLUMNS;
+    private static final String TASK_DESCRIPTION_SQL =
+        "SELECT description FROM tasks WHERE id = ?";
+    private static final String COLUMNAR_TASKS_SQL =
+        "SELECT id, title, priority, assigned_to_user_id, is_complete, progress FROM tasks ORDER BY id ASC";
+    private static final String TASK_STATS_SQL =
+        "SELECT is_complete, priority, assigned_to_user_id, task_count, progress_sum FROM task_stats WHERE task_count > 0";
+
+    @Override
+    public long getActivityCount() {
+        return activity.get();
+    }
+
+    private Connection getReadConnection() throws SQLException {
+        activity.incrementAndGet();
+        return readSnapshot != null ? readSnapshot.getConnection() : UserAuth.getConnection(jdbcUrl);
+    }
+
+    /**
+     * Runs a write on the scheduler's connection, or on a fresh connection when there is no scheduler.
+     * Either way the work runs in one transaction, so a change and its history row commit together.
+     */
+    private <T> T write(WriteScheduler.SqlWork<T> work) throws SQLException {
+        activity.incrementAndGet();
+        if (writeScheduler != null) {
+            return writeScheduler.execute(work);
+        }
+        try (Connection conn = UserAuth.getConnection(jdbcUrl)) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.apply(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Sets the user recorded as the author of subsequent changes (0 = unknown).
+     */
+    @Override
+    public void setAuditUser(int userId) {
+        this.auditUserId = userId;
+    }
+
+    private Optional<String> getUsernameById(int userId) {
+        return UserDirectory.getUsername(userId);
+    }
+
+    // --- Database Setup ---
+
+    /**
+     * Creates the tasks table if it does not exist.
+     * ADDED 'progress' column.
+     */
+    @Override
+    public void initialize() {
+        String createTasksTable = "CREATE TABLE IF NOT EXISTS tasks ("
+                                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                                + "title TEXT NOT NULL,"
+                                + "description TEXT,"
+                                + "priority TEXT CHECK(priority IN ('High', 'Medium', 'Low')) NOT NULL,"
+                                + "assigned_to_user_id INTEGER NOT NULL,"
+                                + "is_complete BOOLEAN NOT NULL DEFAULT 0,"
+                                + "progress INTEGER NOT NULL DEFAULT 0," // <-- ADDED: Default progress is 0
+                                + "version INTEGER NOT NULL DEFAULT 0,"
+                                + "due_at INTEGER," // epoch milliseconds, NULL = no due date
+                                + "FOREIGN KEY (assigned_to_user_id) REFERENCES users(id)"
+                                + ");";
+
+        try (Connection conn = UserAuth.getConnection(jdbcUrl);
+             PreparedStatement stmt = conn.prepareStatement(createTasksTable)) {
+            stmt.executeUpdate();
+            // Databases created before a column existed are upgraded in place
+            addColumnIfMissing(conn, "tasks", "version", "INTEGER NOT NULL DEFAULT 0");
+            addColumnIfMissing(conn, "tasks", "due_at", "INTEGER");
+            createTaskIndexes(conn);
+            createTaskStatsTable(conn);
+            createTaskRelationTables(conn);
+            SqliteTaskHistory.createTable(conn);
+        } catch (SQLException e) {
+            TaskLog.error("Error creating tasks table", e, "url", jdbcUrl);
+        }
+    }
+
+    /**
+     * Indexes backing getTasksByAssignee and getTasksByStatus.
+     */
+    private void createTaskIndexes(Connection conn) throws SQLException {
+        String[] ddl = {
+            "CREATE INDEX IF NOT EXISTS idx_tasks_assignee ON tasks (assigned_to_user_id);",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_status ON tasks (is_complete);",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_due ON tasks (due_at) WHERE due_at IS NOT NULL;"
+        };
+        for (String sql : ddl) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Creates the subtask and blocker relation tables. A trigger removes a task's
+     * relations when the task is deleted.
+     */
+    private void createTaskRelationTables(Connection conn) throws SQLException {
+        String[] ddl = {
+            "CREATE TABLE IF NOT EXISTS task_subtasks ("
+                + "child_id INTEGER PRIMARY KEY," // a task has at most one parent
+                + "parent_id INTEGER NOT NULL,"
+                + "FOREIGN KEY (child_id) REFERENCES tasks(id),"
+                + "FOREIGN KEY (parent_id) REFERENCES tasks(id)"
+                + ");",
+            "CREATE INDEX IF NOT EXISTS idx_subtasks_parent ON task_subtasks (parent_id);",
+            "CREATE TABLE IF NOT EXISTS task_blockers ("
+                + "blocker_id INTEGER NOT NULL,"
+                + "blocked_id INTEGER NOT NULL,"
+                + "PRIMARY KEY (blocker_id, blocked_id),"
+                + "FOREIGN KEY (blocker_id) REFERENCES tasks(id),"
+                + "FOREIGN KEY (blocked_id) REFERENCES tasks(id)"
+                + ");",
+            "CREATE INDEX IF NOT EXISTS idx_blockers_blocked ON task_blockers (blocked_id);",
+            "CREATE TRIGGER IF NOT EXISTS task_relations_delete AFTER DELETE ON tasks BEGIN "
+                + "DELETE FROM task_subtasks WHERE child_id = OLD.id OR parent_id = OLD.id; "
+                + "DELETE FROM task_blockers WHERE blocker_id = OLD.id OR blocked_id = OLD.id; "
+                + "END;"
+        };
+        for (String sql : ddl) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Creates the task_stats summary table and the triggers that keep it in step with tasks.
+     * Each row holds the count and progress total of one (is_complete, priority, assignee) group,
+     * so statistics are read without scanning tasks.
+     */
+    private void createTaskStatsTable(Connection conn) throws SQLException {
+        boolean existed = tableExists(conn, "task_stats");
+        String[] ddl = {
+            "CREATE TABLE IF NOT EXISTS task_stats ("
+                + "is_complete BOOLEAN NOT NULL,"
+                + "priority TEXT NOT NULL,"
+                + "assigned_to_user_id INTEGER NOT NULL,"
+                + "task_count INTEGER NOT NULL DEFAULT 0,"
+                + "progress_sum INTEGER NOT NULL DEFAULT 0,"
+                + "PRIMARY KEY (is_complete, priority, assigned_to_user_id)"
+                + ");",
+            "CREATE TRIGGER IF NOT EXISTS task_stats_insert AFTER INSERT ON tasks BEGIN "
+                + STATS_ADD_NEW
+                + " END;",
+            "CREATE TRIGGER IF NOT EXISTS task_stats_delete AFTER DELETE ON tasks BEGIN "
+                + STATS_REMOVE_OLD
+                + " END;",
+            "CREATE TRIGGER IF NOT EXISTS task_stats_update "
+                + "AFTER UPDATE OF is_complete, priority, assigned_to_user_id, progress ON tasks BEGIN "
+                + STATS_REMOVE_OLD + " " + STATS_ADD_NEW
+                + " END;"
+        };
+        for (String sql : ddl) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.executeUpdate();
+            }
+        }
+        if (!existed) {
+            rebuildTaskStatistics(conn);
+        }
+    }
+
+    private static final String STATS_ADD_NEW =
+        "INSERT INTO task_stats (is_complete, priority, assigned_to_user_id, task_count, progress_sum) "
+        + "VALUES (NEW.is_complete, NEW.priority, NEW.assigned_to_user_id, 1, NEW.progress) "
+        + "ON CONFLICT (is_complete, priority, assigned_to_user_id) "
+        + "DO UPDATE SET task_count = task_count + 1, progress_sum = progress_sum + excluded.progress_sum;";
+
+    private static final String STATS_REMOVE_OLD =
+        "UPDATE task_stats SET task_count = task_count - 1, progress_sum = progress_sum - OLD.progress "
+        + "WHERE is_complete = OLD.is_complete AND priority = OLD.priority AND assigned_to_user_id = OLD.assigned_to_user_id;";
+
+    /**
+     * Recomputes task_stats from scratch (used when the summary table is first created).
+     */
+    private void rebuildTaskStatistics(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement clear = conn.prepareStatement("DELETE FROM task_stats");
+             PreparedStatement fill = conn.prepareStatement(
+                 "INSERT INTO task_stats (is_complete, priority, assigned_to_user_id, task_count, progress_sum) "
+                 + "SELECT is_complete, priority, assigned_to_user_id, COUNT(*), SUM(progress) FROM tasks "
+                 + "GROUP BY is_complete, priority, assigned_to_user_id")) {
+            clear.executeUpdate();
+            fill.executeUpdate();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Adds a column to an existing table unless it is already present.
+     */
+    static void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+        try (PreparedStatement info = conn.prepareStatement("PRAGMA table_info(" + table + ")");
+             ResultSet rs = info.executeQuery()) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        try (PreparedStatement alter = conn.prepareStatement("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition)) {
+            alter.executeUpdate();
+        }
+    }
+
+    // --- Task CRUD Methods ---
+
+    /**
+     * Creates a new task in the database.
+     * INCLUDES progress (defaults to 0).
+     */
+    @Override
+    public int createTask(String title, String description, String priority, int assignedToUserId, Long dueAt) {
+        // ADDED 'progress' to the column list
+        String sql = INSERT_TASK_SQL;
+        try {
+            return write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setString(1, title);
+                    pstmt.setString(2, description);
+                    pstmt.setString(3, priority);
+                    pstmt.setInt(4, assignedToUserId);
+                    // progress is implicitly 0 as defined in the SQL string
+                    setNullableLong(pstmt, 5, dueAt);
+
+                    pstmt.executeUpdate();
+                    long generatedId;
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        generatedId = keys.next() ? keys.getLong(1) : -1;
+                    }
+                    if (generatedId > 0 && (generatedId <= minTaskId || generatedId > maxTaskId)) {
+                        // throwing rolls the insert back, so the row and the counter bump are not kept
+                        throw new SQLException("Task ID " + generatedId + " is outside the IDs " + (minTaskId + 1) + " to "
+                            + maxTaskId + " of this database");
+                    }
+                    int taskId = (int) generatedId;
+                    if (taskId > 0) {
+                        Task created = new Task(taskId, title, description, priority, assignedToUserId, null, false, 0);
+                        created.setDueAt(dueAt);
+                        SqliteTaskHistory.recordCreate(conn, created, auditUserId);
+                    }
+                    return taskId;
+                }
+            });
+        } catch (SQLException e) {
+            TaskLog.error("Error creating task", e, "title", title, "assignee", assignedToUserId);
+            return -1;
+        }
+    }
+
+    /**
+     * Updates an existing task's details.
+     * ADDED 'progress' parameter and SQL update.
+     */
+    @Override
+    public boolean editTask(int taskId, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        // ADDED progress = ? to the SET clause
+        String sql = UPDATE_TASK_SQL;
+        try {
+            return write(conn -> {
+                Task before = readTask(conn, taskId);
+                if (before == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, title);
+                    pstmt.setString(2, description);
+                    pstmt.setString(3, priority);
+                    pstmt.setInt(4, assignedToUserId);
+                    pstmt.setBoolean(5, isComplete);
+                    pstmt.setInt(6, progress); // <-- NEW: progress value
+                    pstmt.setInt(7, taskId);
+
+                    int rowsAffected = pstmt.executeUpdate();
+                    if (rowsAffected > 0) {
+                        SqliteTaskHistory.recordEdit(conn, before,
+                            edited(before, title, description, priority, assignedToUserId, isComplete, progress), auditUserId);
+                    }
+                    return rowsAffected > 0;
+                }
+            });
+        } catch (SQLException e) {
+            TaskLog.error("Error editing task", e, "taskId", taskId);
+            return false;
+        }
+    }
+    
+    /**
+     * Updates a task only if it still has the version the caller read.
+     * Returns CONFLICT instead of overwriting a concurrent edit.
+     */
+    @Override
+    public TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        return editVersioned(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress, true, null);
+    }
+
+    /**
+     * Same, also setting the due date in the same versioned UPDATE.
+     */
+    @Override
+    public TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress, Long dueAt) {
+        return editVersioned(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress, false, dueAt);
+    }
+
+    private TaskService.EditResult editVersioned(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId,
+                                                 boolean isComplete, int progress, boolean keepDueAt, Long dueAt) {
+        String sql = UPDATE_TASK_VERSIONED_SQL;
+        try {
+            return write(conn -> {
+                // Read first: tells a stale version apart from a deleted row, and gives the history its "before"
+                Task before = readTask(conn, taskId);
+                if (before == null) {
+                    return TaskService.EditResult.NOT_FOUND;
+                }
+                if (before.getVersion() != expectedVersion) {
+                    return TaskService.EditResult.CONFLICT;
+                }
+                Long newDueAt = keepDueAt ? before.getDueAt() : dueAt;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, title);
+                    pstmt.setString(2, description);
+                    pstmt.setString(3, priority);
+                    pstmt.setInt(4, assignedToUserId);
+                    pstmt.setBoolean(5, isComplete);
+                    pstmt.setInt(6, progress);
+                    setNullableLong(pstmt, 7, newDueAt);
+                    pstmt.setInt(8, taskId);
+                    pstmt.setInt(9, expectedVersion);
+
+                    if (pstmt.executeUpdate() == 0) {
+                        return TaskService.EditResult.CONFLICT;
+                    }
+                }
+                Task after = edited(before, title, description, priority, assignedToUserId, isComplete, progress);
+                after.setDueAt(newDueAt);
+                SqliteTaskHistory.recordEdit(conn, before, after, auditUserId);
+                return TaskService.EditResult.UPDATED;
+            });
+        } catch (SQLException e) {
+            TaskLog.error("Error editing task", e, "taskId", taskId, "expectedVersion", expectedVersion);
+            return TaskService.EditResult.FAILED;
+        }
+    }
+
+    /**
+     * Sets or clears (null) a task's due date.
+     */
+    @Override
+    public boolean setDueAt(int taskId, Long dueAt) {
+        String sql = UPDATE_DUE_AT_SQL;
+        try {
+            return write(conn -> {
+                Task before = readTask(conn, taskId);
+                if (before == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    setNullableLong(pstmt, 1, dueAt);
+                    pstmt.setInt(2, taskId);
+                    pstmt.executeUpdate();
+                }
+                Task after = edited(before, before.getTitle(), before.getDescription(), before.getPriority(),
+                    before.getAssignedToUserId(), before.isComplete(), before.getProgress());
+                after.setDueAt(dueAt);
+                SqliteTaskHistory.recordEdit(conn, before, after, auditUserId);
+                return true;
+            });
+        } catch (SQLException e) {
+            TaskLog.error("Error setting due date", e, "taskId", taskId);
+            return false;
+        }
+    }
+
+    private static void setNullableLong(PreparedStatement pstmt, int index, Long value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, Types.INTEGER);
+        } else {
+            pstmt.setLong(index, value);
+        }
+    }
+
+    private static Long getNullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Reads one task on the given connection (inside a write, so it sees the current row), or null.
+     */
+    private Task readTask(Connection conn, int taskId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_TASK_BY_ID_SQL)) {
+            pstmt.setInt(1, taskId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapTask(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * Copy of a task with new editable values (same ID, version and due date).
+     */
+    private static Task edited(Task before, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        Task after = new Task(before.getId(), title, description, priority, assignedToUserId,
+            before.getAssignedToUsername(), isComplete, progress, before.getVersion() + 1);
+        after.setDueAt(before.getDueAt());
+        return after;
+    }
+
+    /**
+     * Deletes a task by ID.
+     */
+    @Override
+    public boolean deleteTask(int taskId) {
+        String sql = DELETE_TASK_SQL;
+        try {
+            return write(conn -> {
+                Task before = readTask(conn, taskId);
+                if (before == null) {
+                    return false;
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, taskId);
+                    pstmt.executeUpdate();
+                }
+                SqliteTaskHistory.recordDelete(conn, before, auditUserId);
+                return true;
+            });
+        } catch (SQLException e) {
+            TaskLog.error("Error deleting task", e, "taskId", taskId);
+            return false;
+        }
+    }
+
+    // --- Bulk Operations ---
+
+    @Override
+    public List<Integer> reassignAll(int fromUserId, int toUserId) {
+        if (fromUserId == toUserId) {
+            return new ArrayList<>();
+        }
+        return bulkWrite(REASSIGN_ALL_SQL, List.of(toUserId, fromUserId), after -> {
+            Task before = previousVersion(after);
+            before.setAssignedToUserId(fromUserId);
+            return before;
+        }, "Error reassigning tasks");
+    }
+
+    @Override
+    public List<Integer> completeWhere(TaskFilter filter) {
+        StringBuilder sql = new StringBuilder(COMPLETE_WHERE_SQL);
+        List<Object> params = new ArrayList<>();
+        filter.appendSql(sql, params);
+        sql.append(" RETURNING ").append(TASK_COLUMNS);
+        return bulkWrite(sql.toString(), params, after -> {
+            Task before = previousVersion(after);
+            before.setComplete(false);
+            return before;
+        }, "Error completing tasks");
+    }
+
+    @Override
+    public List<Integer> deleteCompletedOlderThan(long cutoff) {
+        return bulkWrite(DELETE_COMPLETED_SQL, List.of(cutoff), null, "Error deleting completed tasks");
+    }
+
+    /**
+     * Runs one UPDATE/DELETE ... RETURNING statement in a transaction and records history for
+     * every returned row in the same transaction. For updates, before rebuilds a row's previous
+     * state from its new one; for deletes (before == null) the returned rows are the old state.
+     * Returns the affected IDs in ascending order, or null on failure (nothing was changed).
+     */
+    private List<Integer> bulkWrite(String sql, List<Object> params, UnaryOperator<Task> before, String errorMessage) {
+        try {
+            return write(conn -> {
+                List<Task> rows = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < params.size(); i++) {
+                        pstmt.setObject(i + 1, params.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            rows.add(mapTask(rs));
+                        }
+                    }
+                }
+                List<Integer> ids = new ArrayList<>(rows.size());
+                try (SqliteTaskHistory.Recorder history = new SqliteTaskHistory.Recorder(conn, auditUserId, true)) {
+                    for (Task row : rows) {
+                        if (before == null) {
+                            history.recordDelete(row);
+                        } else {
+                            history.recordEdit(before.apply(row), row);
+                        }
+                        ids.add(row.getId());
+                    }
+                }
+                Collections.sort(ids);
+                return ids;
+            });
+        } catch (SQLException e) {
+            TaskLog.error(errorMessage, e, "params", params);
+            return null;
+        }
+    }
+
+    /**
+     * Copy of a task with the version before its last edit; the caller reverts the edited field.
+     */
+    private static Task previousVersion(Task after) {
+        Task before = new Task(after.getId(), after.getTitle(), after.getDescription(), after.getPriority(),
+            after.getAssignedToUserId(), after.getAssignedToUsername(), after.isComplete(), after.getProgress(), after.getVersion() - 1);
+        before.setDueAt(after.getDueAt());
+        return before;
+    }
+
+    /**
+     * Fetches all tasks.
+     * Fetches the 'progress' column and passes it to the Task constructor.
+     */
+    @Override
+    public List<Task> getAllTasks() {
+        return queryTasks("", -1);
+    }
+
+    /**
+     * Streams all tasks ordered by ID, one page at a time (see openTaskCursor).
+     */
+    @Override
+    public Flow.Publisher<Task> streamAllTasks() {
+        return new TaskPublisher(this::openTaskCursor);
+    }
+
+    /**
+     * Reads all tasks in ID order in pages of STREAM_PAGE_SIZE (WHERE id > last ID LIMIT n), with a
+     * fresh statement and connection per page that are closed before the page is handed out.
+     * Package-private for ShardedTaskRepository.
+     *
+     * Keeping one result set open for the whole stream would hold a SHARED lock between requests,
+     * and in rollback-journal mode that blocks every writer for as long as a slow subscriber waits.
+     * With pages the lock is held only while a page is read. The price is that the stream is no
+     * longer one snapshot: each page sees the table as of its own query, so a task edited mid-stream
+     * arrives as it was when its page was read, and tasks created meanwhile with higher IDs are
+     * included. Each task is still delivered at most once, in ID order.
+     */
+    TaskPublisher.Cursor openTaskCursor() {
+        return new TaskPublisher.Cursor() {
+            private final ArrayDeque<Task> page = new ArrayDeque<>();
+            private int lastId = 0;
+            private boolean exhausted = false;
+
+            @Override
+            public Task next() throws SQLException {
+                if (page.isEmpty() && !exhausted) {
+                    readPage();
+                }
+                return page.poll();
+            }
+
+            private void readPage() throws SQLException {
+                try (Connection conn = getReadConnection();
+                     PreparedStatement pstmt = conn.prepareStatement(SELECT_TASK_PAGE_SQL)) {
+                    pstmt.setInt(1, lastId);
+                    pstmt.setInt(2, STREAM_PAGE_SIZE);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            page.add(mapTask(rs));
+                        }
+                    }
+                }
+                exhausted = page.size() < STREAM_PAGE_SIZE;
+                if (!page.isEmpty()) {
+                    lastId = page.peekLast().getId();
+                }
+            }
+
+            @Override
+            public void close() {
+                page.clear();
+                exhausted = true;
+            }
+        };
+    }
+
+    /**
+     * Fetches the tasks assigned to one user (uses idx_tasks_assignee).
+     */
+    @Override
+    public List<Task> getTasksByAssignee(int userId) {
+        return queryTasks("WHERE assigned_to_user_id = ?", userId);
+    }
+
+    /**
+     * Fetches completed or active tasks (uses idx_tasks_status).
+     */
+    @Override
+    public List<Task> getTasksByStatus(boolean isComplete) {
+        return queryTasks("WHERE is_complete = ?", isComplete ? 1 : 0);
+    }
+
+    private List<Task> queryTasks(String whereClause, int param) {
+        List<Task> tasks = new ArrayList<>();
+        // ADDED 'progress' to the SELECT statement
+        String sql = SELECT_TASKS_SQL + whereClause + " ORDER BY id ASC";
+        
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            if (!whereClause.isEmpty()) {
+                pstmt.setInt(1, param);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(mapTask(rs));
+                }
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error fetching tasks", e, "filter", whereClause);
+        }
+        return tasks;
+    }
+
+    /**
+     * Builds a Task from a SELECT_TASKS_SQL row.
+     */
+    private Task mapTask(ResultSet rs) throws SQLException {
+        int assignedToUserId = rs.getInt("assigned_to_user_id");
+        Optional<String> username = getUsernameById(assignedToUserId);
+
+        Task task = new Task(
+            rs.getInt("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getString("priority"),
+            assignedToUserId,
+            username.orElse("Unknown"),
+            rs.getBoolean("is_complete"),
+            rs.getInt("progress"), // <-- NEW: getting progress from DB
+            rs.getInt("version")
+        );
+        task.setDueAt(getNullableLong(rs, "due_at"));
+        return task;
+    }
+
+    /**
+     * Fetches all tasks as a lightweight board projection.
+     * Only the first PREVIEW_LENGTH + 1 characters of each description are read;
+     * use getTaskDescription to load the full text when a task is opened.
+     */
+    @Override
+    public List<Task> getBoardTasks() {
+        List<Task> tasks = new ArrayList<>();
+        String sql = BOARD_TASKS_SQL;
+
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                int assignedToUserId = rs.getInt("assigned_to_user_id");
+                Optional<String> username = getUsernameById(assignedToUserId);
+
+                Task task = new Task(
+                    rs.getInt("id"),
+                    rs.getString("title"),
+                    null, // loaded on demand
+                    rs.getString("priority"),
+                    assignedToUserId,
+                    username.orElse("Unknown"),
+                    rs.getBoolean("is_complete"),
+                    rs.getInt("progress"),
+                    rs.getInt("version")
+                );
+                task.setDescriptionPreview(Task.previewOf(rs.getString("description_head")));
+                task.setDueAt(getNullableLong(rs, "due_at"));
+                tasks.add(task);
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error fetching board tasks", e);
+        }
+        return tasks;
+    }
+
+    /**
+     * Fetches the full description of a single task.
+     */
+    @Override
+    public Optional<String> getTaskDescription(int taskId) {
+        String sql = TASK_DESCRIPTION_SQL;
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, taskId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    String description = rs.getString("description");
+                    return Optional.of(description != null ? description : "");
+                }
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error fetching task description", e, "taskId", taskId);
+        }
+        return Optional.empty();
+    }
+
+    // --- Columnar Snapshot ---
+
+    /**
+     * Streams the scan columns straight into off-heap buffers; no Task objects or descriptions are loaded.
+     */
+    @Override
+    public ColumnarTaskSnapshot getColumnarSnapshot() {
+        ColumnarTaskSnapshot.Builder builder = new ColumnarTaskSnapshot.Builder(1024);
+        loadColumns(builder);
+        return builder.build();
+    }
+
+    /**
+     * Appends this database's tasks to a columnar builder (also used to combine shards).
+     */
+    void loadColumns(ColumnarTaskSnapshot.Builder builder) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(COLUMNAR_TASKS_SQL)) {
+            pstmt.setFetchSize(4096);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getBoolean(5), rs.getInt(6));
+                }
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error building columnar snapshot", e);
+        }
+    }
+
+    // --- Task Statistics ---
+
+    /**
+     * Returns task counts and average progress by status, priority and assignee.
+     * Reads the trigger-maintained task_stats table, so the cost depends on the
+     * number of groups rather than the number of tasks.
+     */
+    @Override
+    public TaskStatistics getTaskStatistics() {
+        TaskStatistics stats = new TaskStatistics();
+        String sql = TASK_STATS_SQL;
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                stats.addGroup(
+                    rs.getBoolean("is_complete"),
+                    rs.getString("priority"),
+                    rs.getInt("assigned_to_user_id"),
+                    rs.getInt("task_count"),
+                    rs.getLong("progress_sum")
+                );
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error fetching task statistics", e);
+        }
+        return stats;
+    }
+
+    // --- Task History ---
+
+    /**
+     * Fetches the recorded changes of a task, oldest first (also works after the task is deleted).
+     */
+    @Override
+    public List<TaskChange> getTaskHistory(int taskId) {
+        try (Connection conn = getReadConnection()) {
+            return SqliteTaskHistory.readHistory(conn, taskId);
+        } catch (SQLException e) {
+            TaskLog.error("Error fetching task history", e, "taskId", taskId);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Rebuilds a task as it was at the given time from its nearest checkpoint and the edits after it.
+     */
+    @Override
+    public Optional<Task> getTaskAsOf(int taskId, long timestamp) {
+        try (Connection conn = getReadConnection()) {
+            Optional<Task> task = SqliteTaskHistory.reconstruct(conn, taskId, timestamp);
+            task.ifPresent(t -> t.setAssignedToUsername(getUsernameById(t.getAssignedToUserId()).orElse("Unknown")));
+            return task;
+        } catch (SQLException e) {
+            TaskLog.error("Error reconstructing task", e, "taskId", taskId, "asOf", timestamp);
+            return Optional.empty();
+        }
+    }
+
+    // --- Task Relations ---
+
+    @Override
+    public boolean setParent(int childId, int parentId) {
+        // Only for an existing child; the parent may live in another shard, so TaskService checks it
+        return writeRelation("INSERT OR REPLACE INTO task_subtasks (child_id, parent_id) SELECT ?1, ?2 WHERE EXISTS (SELECT 1 FROM tasks WHERE id = ?1)",
+            childId, parentId, true, "Error linking subtask");
+    }
+
+    @Override
+    public boolean clearParent(int childId) {
+        return writeRelation("DELETE FROM task_subtasks WHERE child_id = ?", childId, null, false, "Error unlinking subtask");
+    }
+
+    @Override
+    public boolean addBlocker(int blockerId, int blockedId) {
+        return writeRelation("INSERT OR REPLACE INTO task_blockers (blocker_id, blocked_id) SELECT ?1, ?2 WHERE EXISTS (SELECT 1 FROM tasks WHERE id = ?2)",
+            blockerId, blockedId, true, "Error adding blocker");
+    }
+
+    @Override
+    public boolean removeBlocker(int blockerId, int blockedId) {
+        return writeRelation("DELETE FROM task_blockers WHERE blocker_id = ? AND blocked_id = ?", blockerId, blockedId, false, "Error removing blocker");
+    }
+
+    // requireRow: false if the statement changed nothing (e.g. the task does not exist)
+    private boolean writeRelation(String sql, int first, Integer second, boolean requireRow, String errorMessage) {
+        try {
+            return write(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, first);
+                    if (second != null) {
+                        pstmt.setInt(2, second);
+                    }
+                    return pstmt.executeUpdate() > 0 || !requireRow;
+                }
+            });
+        } catch (SQLException e) {
+            TaskLog.error(errorMessage, e, "first", first, "second", second);
+            return false;
+        }
+    }
+
+    @Override
+    public List<int[]> getSubtaskLinks() {
+        return readLinks("SELECT parent_id, child_id FROM task_subtasks", "Error fetching subtasks");
+    }
+
+    @Override
+    public List<int[]> getBlockerLinks() {
+        return readLinks("SELECT blocker_id, blocked_id FROM task_blockers", "Error fetching blockers");
+    }
+
+    private List<int[]> readLinks(String sql, String errorMessage) {
+        List<int[]> links = new ArrayList<>();
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                links.add(new int[] { rs.getInt(1), rs.getInt(2) });
+            }
+        } catch (SQLException e) {
+            TaskLog.error(errorMessage, e);
+        }
+        return links;
+    }
+}
@@ -0,0 +1,77 @@
+package taskapp;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background work that used to run on the EDT before the first frame appeared.
+ * start() runs the users and tasks schema checks in parallel, then loads the
+ * UserDirectory cache. login(), register() and preloadBoard() wait for that; the
+ * app starts preloadBoard() together with the login and drops the board if the
+ * login fails, so a successful login finds it loaded or well under way.
+ */
+public class StartupPipeline {
+
+    private final TaskService taskService;
+    private final ExecutorService executor;
+    private final long startNanos = System.nanoTime();
+    private volatile long databaseReadyNanos = -1;
+    private CompletableFuture<Void> databaseReady;
+
+    public StartupPipeline(TaskService taskService) {
+        this.taskService = taskService;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "taskapp-startup-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts the schema checks and the user directory load. Safe to call more than once.
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (databaseReady == null) {
+            CompletableFuture<Void> usersTable = CompletableFuture.runAsync(UserAuth::createUsersTable, executor);
+            CompletableFuture<Void> tasksTable = CompletableFuture.runAsync(taskService::createTasksTable, executor);
+            databaseReady = CompletableFuture.allOf(usersTable, tasksTable)
+                .thenRunAsync(UserDirectory::getUsers, executor)
+                .thenRun(() -> databaseReadyNanos = System.nanoTime());
+        }
+        return databaseReady;
+    }
+
+    /**
+     * Authenticates once the database is ready.
+     */
+    public CompletableFuture<Optional<UserAuth>> login(String username, String password) {
+        return start().thenApplyAsync(ignored -> UserAuth.loginUser(username, password), executor);
+    }
+
+    /**
+     * Registers once the database is ready.
+     */
+    public CompletableFuture<Optional<UserAuth>> register(String username, String password) {
+        return start().thenApplyAsync(ignored -> UserAuth.registerUser(username, password), executor);
+    }
+
+    /**
+     * Loads the board once the database is ready, typically while credentials are still being checked.
+     * Cancel the result if the login fails; a load already running finishes and is ignored.
+     */
+    public CompletableFuture<BoardData> preloadBoard() {
+        return start().thenApplyAsync(ignored -> BoardData.load(taskService), executor);
+    }
+
+    /**
+     * Milliseconds from construction until the schema checks and user load finished, or -1 if still running.
+     */
+    public long getDatabaseReadyMillis() {
+        long ready = databaseReadyNanos;
+        return ready < 0 ? -1 : (ready - startNanos) / 1_000_000;
+    }
+}
@@ -13,6 +13,11 @@ public class Task {
    private String assignedToUsername;
    private boolean isComplete;
    private int progress; // New field for task progress (0-100)
+   private int version; // Row version for optimistic concurrency, bumped on every edit
+   private Long dueAt; // Deadline in epoch milliseconds, null = no due date
+   private String descriptionPreview; // Set on board projections, where the full description is not loaded
+
+   public static final int PREVIEW_LENGTH = 50; // Longer descriptions are cut to 47 chars + "..."
 
    public Task(int id, String title, String description, String priority, int assignedToUserId, String assignedToUsername, boolean isComplete, int progress) {
        this.id = id;
@@ -25,6 +30,11 @@ public class Task {
        this.progress = progress;
    }
 
+   public Task(int id, String title, String description, String priority, int assignedToUserId, String assignedToUsername, boolean isComplete, int progress, int version) {
+       this(id, title, description, priority, assignedToUserId, assignedToUsername, isComplete, progress);
+       this.version = version;
+   }
+
    // Getters
    public int getId() { return id; }
    public String getTitle() { return title; }
@@ -34,15 +44,38 @@ public class Task {
    public String getAssignedToUsername() { return assignedToUsername; }
    public boolean isComplete() { return isComplete; }
    public int getProgress() { return progress; } // New Getter
+   public int getVersion() { return version; }
+   public Long getDueAt() { return dueAt; }
+   public boolean hasDueDate() { return dueAt != null; }
+   public boolean isDescriptionLoaded() { return description != null || descriptionPreview == null; }
+
+   /**
+    * Short form of the description for task cards.
+    * Uses the stored preview for board projections, otherwise truncates the full description.
+    */
+   public String getDescriptionPreview() {
+       return descriptionPreview != null ? descriptionPreview : previewOf(description);
+   }
+
+   /**
+    * Truncates a description to the card preview format.
+    */
+   public static String previewOf(String description) {
+       if (description == null) return "";
+       return description.length() > PREVIEW_LENGTH ? description.substring(0, PREVIEW_LENGTH - 3) + "..." : description;
+   }
 
    // Setters for editing
    public void setTitle(String title) { this.title = title; }
-   public void setDescription(String description) { this.description = description; }
+   public void setDescription(String description) { this.description = description; this.descriptionPreview = null; }
+   public void setDescriptionPreview(String descriptionPreview) { this.descriptionPreview = descriptionPreview; }
    public void setPriority(String priority) { this.priority = priority; }
    public void setAssignedToUserId(int assignedToUserId) { this.assignedToUserId = assignedToUserId; }
    public void setAssignedToUsername(String assignedToUsername) { this.assignedToUsername = assignedToUsername; }
    public void setComplete(boolean complete) { isComplete = complete; }
    public void setProgress(int progress) { this.progress = progress; } // New Setter
+   public void setVersion(int version) { this.version = version; }
+   public void setDueAt(Long dueAt) { this.dueAt = dueAt; }
 
    @Override
    public String toString() {
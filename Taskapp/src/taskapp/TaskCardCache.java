@@ -0,0 +1,236 @@
+package taskapp;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import javax.swing.BorderFactory;
+import javax.swing.JComponent;
+import javax.swing.border.Border;
+
+/**
+ * Render cache for the board's task cards.
+ *
+ * Styling (fonts, colors, borders) is created once and shared by every card. For each task the
+ * cache keeps a Snapshot of what its card shows plus the card components already built from it,
+ * one per board column ("slot"), and reuses them for as long as the task keeps the same version,
+ * so redrawing a board whose tasks did not change builds no new cards. Entries are evicted least
+ * recently used once their estimated size exceeds maxBytes.
+ *
+ * Used on the Swing event thread only.
+ */
+public final class TaskCardCache {
+
+    // --- Shared styling ---
+
+    public static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 14);
+    public static final Font STATUS_FONT = new Font("Arial", Font.BOLD, 12);
+    public static final Font INFO_FONT = new Font("Arial", Font.ITALIC, 11);
+
+    private static final Color DONE_STATUS = Color.GREEN.darker();
+    private static final Color ACTIVE_STATUS = Color.BLUE.darker();
+    private static final Border DONE_BORDER = cardBorder(new Color(0, 150, 0));
+    private static final Border HIGH_BORDER = cardBorder(new Color(200, 0, 0));
+    private static final Border MEDIUM_BORDER = cardBorder(new Color(255, 200, 0));
+    private static final Border LOW_BORDER = cardBorder(new Color(100, 100, 100));
+    private static final String[] PROGRESS_TEXT = new String[101];
+
+    static {
+        for (int i = 0; i < PROGRESS_TEXT.length; i++) {
+            PROGRESS_TEXT[i] = i + "%";
+        }
+    }
+
+    private static Border cardBorder(Color color) {
+        return BorderFactory.createCompoundBorder(BorderFactory.createLineBorder(color, 2),
+            BorderFactory.createEmptyBorder(8, 8, 8, 8));
+    }
+
+    /**
+     * Rough retained size of one built card (panel, labels, text area, buttons and their layouts),
+     * and of a snapshot without its strings; used to keep the cache under maxBytes.
+     */
+    static final int CARD_BYTES = 12 * 1024;
+    static final int SNAPSHOT_BYTES = 160;
+
+    /**
+     * Everything a card shows, computed once per task version. Immutable.
+     */
+    public static final class Snapshot {
+        private final String title;
+        private final String statusText;
+        private final Color statusColor;
+        private final Border border;
+        private final String descriptionPreview;
+        private final String assignedText;
+        private final Long dueAt;
+        private final boolean complete;
+
+        private Snapshot(Task task) {
+            this.title = task.getTitle();
+            this.complete = task.isComplete();
+            int progress = task.getProgress();
+            this.statusText = complete ? "DONE"
+                : progress >= 0 && progress <= 100 ? PROGRESS_TEXT[progress] : progress + "%";
+            this.statusColor = complete ? DONE_STATUS : progress < 100 ? ACTIVE_STATUS : Color.GRAY;
+            this.border = complete ? DONE_BORDER
+                : "High".equals(task.getPriority()) ? HIGH_BORDER
+                : "Medium".equals(task.getPriority()) ? MEDIUM_BORDER : LOW_BORDER;
+            this.descriptionPreview = task.getDescriptionPreview();
+            this.assignedText = "Assigned: " + task.getAssignedToUsername();
+            this.dueAt = task.getDueAt();
+        }
+
+        public String getTitle() { return title; }
+        public String getStatusText() { return statusText; }
+        public Color getStatusColor() { return statusColor; }
+        public Border getBorder() { return border; }
+        public String getDescriptionPreview() { return descriptionPreview; }
+        public String getAssignedText() { return assignedText; }
+        public Long getDueAt() { return dueAt; }
+
+        public boolean isOverdue(long now) {
+            return !complete && dueAt != null && dueAt < now;
+        }
+
+        private long estimatedBytes() {
+            return SNAPSHOT_BYTES + 2L * (title.length() + descriptionPreview.length() + assignedText.length());
+        }
+    }
+
+    private static final class Entry {
+        final int version;
+        final Snapshot snapshot;
+        final JComponent[] cards;
+        boolean cardsOverdue; // the due-date line of the built cards
+        long bytes;
+
+        Entry(int version, Snapshot snapshot, int slots) {
+            this.version = version;
+            this.snapshot = snapshot;
+            this.cards = new JComponent[slots];
+            this.bytes = snapshot.estimatedBytes();
+        }
+    }
+
+    private final int slots;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(256, 0.75f, true); // access order = LRU
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param slots    number of places a task's card can appear at once (e.g. board columns)
+     * @param maxBytes estimated memory the cache may use
+     */
+    public TaskCardCache(int slots, long maxBytes) {
+        this.slots = slots;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * What the task's card shows, reused while the task keeps its version.
+     */
+    public Snapshot snapshot(Task task) {
+        return entry(task).snapshot;
+    }
+
+    /**
+     * The task's card for one slot. Built with build the first time, then reused while the task keeps
+     * its version and overdue state; a card is only in one container at a time, hence one per slot.
+     */
+    public JComponent card(Task task, int slot, long now, Function<Snapshot, JComponent> build) {
+        Entry entry = entry(task);
+        boolean overdue = entry.snapshot.isOverdue(now);
+        if (overdue != entry.cardsOverdue) {
+            for (int i = 0; i < entry.cards.length; i++) {
+                dropCard(entry, i);
+            }
+            entry.cardsOverdue = overdue;
+        }
+        JComponent card = entry.cards[slot];
+        if (card == null) {
+            misses++;
+            card = build.apply(entry.snapshot);
+            entry.cards[slot] = card;
+            entry.bytes += CARD_BYTES;
+            bytes += CARD_BYTES;
+            evictOverBudget(entry);
+        } else {
+            hits++;
+        }
+        return card;
+    }
+
+    private Entry entry(Task task) {
+        Entry entry = entries.get(task.getId());
+        if (entry != null && entry.version == task.getVersion()) {
+            return entry;
+        }
+        if (entry != null) {
+            bytes -= entry.bytes;
+        }
+        entry = new Entry(task.getVersion(), new Snapshot(task), slots);
+        entries.put(task.getId(), entry);
+        bytes += entry.bytes;
+        evictOverBudget(entry);
+        return entry;
+    }
+
+    private void dropCard(Entry entry, int slot) {
+        if (entry.cards[slot] != null) {
+            entry.cards[slot] = null;
+            entry.bytes -= CARD_BYTES;
+            bytes -= CARD_BYTES;
+        }
+    }
+
+    // Evicts least recently used entries, never the one being returned
+    private void evictOverBudget(Entry keep) {
+        Iterator<Map.Entry<Integer, Entry>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (eldest == keep) {
+                continue;
+            }
+            it.remove();
+            bytes -= eldest.bytes;
+            evictions++;
+        }
+    }
+
+    /**
+     * Drops a task's cards, e.g. after it was deleted.
+     */
+    public void remove(int taskId) {
+        Entry entry = entries.remove(taskId);
+        if (entry != null) {
+            bytes -= entry.bytes;
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public int size() { return entries.size(); }
+    public long getEstimatedBytes() { return bytes; }
+    public long getMaxBytes() { return maxBytes; }
+
+    /**
+     * Cards reused without building.
+     */
+    public long getHits() { return hits; }
+
+    /**
+     * Cards built because the task was new, had changed, or had been evicted.
+     */
+    public long getMisses() { return misses; }
+
+    public long getEvictions() { return evictions; }
+}
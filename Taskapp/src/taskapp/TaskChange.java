@@ -0,0 +1,58 @@
+package taskapp;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One entry of a task's audit history: who changed the task, when, and the new value of each changed field.
+ */
+public class TaskChange {
+
+    public enum Kind {
+        CREATED, // stores every field
+        EDITED,  // stores only the changed fields
+        DELETED  // stores no fields
+    }
+
+    private final int taskId;
+    private final Kind kind;
+    private final long changedAt; // epoch milliseconds
+    private final int changedBy;  // user ID, 0 = unknown
+    private final byte[] delta;
+
+    public TaskChange(int taskId, Kind kind, long changedAt, int changedBy, byte[] delta) {
+        this.taskId = taskId;
+        this.kind = kind;
+        this.changedAt = changedAt;
+        this.changedBy = changedBy;
+        this.delta = delta;
+    }
+
+    public int getTaskId() { return taskId; }
+    public Kind getKind() { return kind; }
+    public long getChangedAt() { return changedAt; }
+    public int getChangedBy() { return changedBy; }
+
+    /**
+     * Changed field name -> new value (e.g. "progress" -> 60).
+     */
+    public Map<String, Object> getNewValues() {
+        return TaskDelta.decode(delta);
+    }
+
+    public Set<String> getChangedFields() {
+        return getNewValues().keySet();
+    }
+
+    /**
+     * Size of the stored delta in bytes.
+     */
+    public int getEncodedSize() {
+        return delta.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Task %d %s at %d by user %d: %s", taskId, kind, changedAt, changedBy, getChangedFields());
+    }
+}
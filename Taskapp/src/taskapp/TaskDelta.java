@@ -0,0 +1,193 @@
+package taskapp;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact binary encoding of the fields that changed between two versions of a task.
+ *
+ * Layout: one byte with a bit per changed field, then the new value of each changed field
+ * in bit order. Ints use zig-zag varints, strings a varint length (0 = null, otherwise
+ * length + 1) followed by UTF-8 bytes, and the due date a varint that is 0 for "no due date".
+ * A typical progress edit is 2 bytes; a full task (a checkpoint) is its text plus about 10 bytes.
+ */
+public final class TaskDelta {
+
+    public static final int TITLE = 1;
+    public static final int DESCRIPTION = 1 << 1;
+    public static final int PRIORITY = 1 << 2;
+    public static final int ASSIGNEE = 1 << 3;
+    public static final int COMPLETE = 1 << 4;
+    public static final int PROGRESS = 1 << 5;
+    public static final int DUE_AT = 1 << 6;
+    public static final int ALL_FIELDS = (1 << 7) - 1;
+
+    private static final String[] FIELD_NAMES = {
+        "title", "description", "priority", "assignedToUserId", "isComplete", "progress", "dueAt"
+    };
+
+    /**
+     * Number of deltas stored between two full-state checkpoints of the same task,
+     * which bounds the rows read to reconstruct a task at any point in time.
+     */
+    public static final int CHECKPOINT_INTERVAL = 16;
+
+    private TaskDelta() {}
+
+    /**
+     * Encodes the fields of after that differ from before.
+     */
+    public static byte[] diff(Task before, Task after) {
+        int mask = 0;
+        if (!Objects.equals(before.getTitle(), after.getTitle())) mask |= TITLE;
+        if (!Objects.equals(before.getDescription(), after.getDescription())) mask |= DESCRIPTION;
+        if (!Objects.equals(before.getPriority(), after.getPriority())) mask |= PRIORITY;
+        if (before.getAssignedToUserId() != after.getAssignedToUserId()) mask |= ASSIGNEE;
+        if (before.isComplete() != after.isComplete()) mask |= COMPLETE;
+        if (before.getProgress() != after.getProgress()) mask |= PROGRESS;
+        if (!Objects.equals(before.getDueAt(), after.getDueAt())) mask |= DUE_AT;
+        return encode(after, mask);
+    }
+
+    /**
+     * Encodes every field of a task (used for creation records and checkpoints).
+     */
+    public static byte[] full(Task state) {
+        return encode(state, ALL_FIELDS);
+    }
+
+    /**
+     * Bit mask of the fields present in an encoded delta.
+     */
+    public static int fieldsOf(byte[] delta) {
+        return delta.length == 0 ? 0 : delta[0] & 0xFF;
+    }
+
+    /**
+     * Writes the values in a delta onto target.
+     */
+    public static void apply(byte[] delta, Task target) {
+        Reader in = new Reader(delta);
+        int mask = in.readByte();
+        if ((mask & TITLE) != 0) target.setTitle(in.readString());
+        if ((mask & DESCRIPTION) != 0) target.setDescription(in.readString());
+        if ((mask & PRIORITY) != 0) target.setPriority(in.readString());
+        if ((mask & ASSIGNEE) != 0) target.setAssignedToUserId(in.readInt());
+        if ((mask & COMPLETE) != 0) target.setComplete(in.readByte() != 0);
+        if ((mask & PROGRESS) != 0) target.setProgress(in.readInt());
+        if ((mask & DUE_AT) != 0) target.setDueAt(in.readNullableLong());
+    }
+
+    /**
+     * Decodes a delta into field name -> new value, in field order.
+     */
+    public static Map<String, Object> decode(byte[] delta) {
+        Task values = new Task(0, null, null, null, 0, null, false, 0);
+        apply(delta, values);
+        int mask = fieldsOf(delta);
+        Object[] all = {
+            values.getTitle(), values.getDescription(), values.getPriority(), values.getAssignedToUserId(),
+            values.isComplete(), values.getProgress(), values.getDueAt()
+        };
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int bit = 0; bit < FIELD_NAMES.length; bit++) {
+            if ((mask & (1 << bit)) != 0) {
+                result.put(FIELD_NAMES[bit], all[bit]);
+            }
+        }
+        return result;
+    }
+
+    // --- Encoding ---
+
+    private static byte[] encode(Task state, int mask) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16);
+        out.write(mask);
+        if ((mask & TITLE) != 0) writeString(out, state.getTitle());
+        if ((mask & DESCRIPTION) != 0) writeString(out, state.getDescription());
+        if ((mask & PRIORITY) != 0) writeString(out, state.getPriority());
+        if ((mask & ASSIGNEE) != 0) writeVarLong(out, zigZag(state.getAssignedToUserId()));
+        if ((mask & COMPLETE) != 0) out.write(state.isComplete() ? 1 : 0);
+        if ((mask & PROGRESS) != 0) writeVarLong(out, zigZag(state.getProgress()));
+        if ((mask & DUE_AT) != 0) writeVarLong(out, state.getDueAt() == null ? 0 : zigZag(state.getDueAt()) + 1);
+        return out.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            return data[pos++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        int readInt() {
+            return (int) readZigZag();
+        }
+
+        Long readNullableLong() {
+            long raw = readVarLong();
+            if (raw == 0) {
+                return null;
+            }
+            raw -= 1;
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(data, pos, length - 1, StandardCharsets.UTF_8);
+            pos += length - 1;
+            return value;
+        }
+    }
+}
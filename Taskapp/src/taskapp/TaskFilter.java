@@ -0,0 +1,94 @@
+package taskapp;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable task condition for bulk operations such as TaskService.completeWhere.
+ * SQL backends turn it into a WHERE clause so the operation runs as one statement;
+ * other backends use it as a predicate. Conditions that are set are combined with AND.
+ */
+public final class TaskFilter implements Predicate<Task> {
+
+    private static final TaskFilter ALL = new TaskFilter(null, null, 0, 100);
+
+    private final Set<String> priorities; // null = any
+    private final Integer assignee;       // null = any
+    private final int minProgress;
+    private final int maxProgress;
+
+    private TaskFilter(Set<String> priorities, Integer assignee, int minProgress, int maxProgress) {
+        this.priorities = priorities;
+        this.assignee = assignee;
+        this.minProgress = minProgress;
+        this.maxProgress = maxProgress;
+    }
+
+    /**
+     * Matches every task.
+     */
+    public static TaskFilter all() { return ALL; }
+
+    /**
+     * Tasks that are 100% done, e.g. to complete them in one go.
+     */
+    public static TaskFilter fullyProgressed() { return ALL.progressBetween(100, 100); }
+
+    public TaskFilter priorities(String... values) {
+        return new TaskFilter(new LinkedHashSet<>(Arrays.asList(values)), assignee, minProgress, maxProgress);
+    }
+
+    public TaskFilter assignee(int userId) {
+        return new TaskFilter(priorities, userId, minProgress, maxProgress);
+    }
+
+    /**
+     * Progress between min and max inclusive.
+     */
+    public TaskFilter progressBetween(int min, int max) {
+        return new TaskFilter(priorities, assignee, min, max);
+    }
+
+    @Override
+    public boolean test(Task task) {
+        return (priorities == null || priorities.contains(task.getPriority()))
+            && (assignee == null || assignee == task.getAssignedToUserId())
+            && task.getProgress() >= minProgress && task.getProgress() <= maxProgress;
+    }
+
+    /**
+     * Appends the condition as "AND ..." terms over the tasks columns, adding its parameters in order.
+     */
+    void appendSql(StringBuilder sql, List<Object> params) {
+        if (priorities != null) {
+            sql.append(" AND priority IN (");
+            int i = 0;
+            for (String priority : priorities) {
+                sql.append(i++ == 0 ? "?" : ", ?");
+                params.add(priority);
+            }
+            if (priorities.isEmpty()) {
+                sql.append("NULL");
+            }
+            sql.append(')');
+        }
+        if (assignee != null) {
+            sql.append(" AND assigned_to_user_id = ?");
+            params.add(assignee);
+        }
+        if (minProgress > 0 || maxProgress < 100) {
+            sql.append(" AND progress BETWEEN ? AND ?");
+            params.add(minProgress);
+            params.add(maxProgress);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TaskFilter[priorities=" + priorities + ", assignee=" + assignee
+            + ", progress=" + minProgress + ".." + maxProgress + "]";
+    }
+}
@@ -0,0 +1,304 @@
+package taskapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory index of subtask (parent/child) and blocker relations between tasks.
+ *
+ * Rolled-up progress: a task without subtasks counts as its own progress (100 once complete);
+ * a task with subtasks counts as the average of its subtasks' rolled-up progress. Each parent
+ * keeps the sum of its children's values, so a change to one task only walks up its ancestors.
+ *
+ * Subtasks form a forest (one parent per task). Blocker edges form a DAG; edges that would
+ * close a cycle are rejected.
+ */
+public class TaskGraph {
+
+    private static final class Node {
+        final int id;
+        double ownProgress;
+        boolean isComplete;
+        Node parent;
+        final List<Node> children = new ArrayList<>(0);
+        double childSum;
+        final Set<Node> blocks = new HashSet<>(0);
+        final Set<Node> blockedBy = new HashSet<>(0);
+
+        Node(int id) {
+            this.id = id;
+        }
+
+        double rolledUp() {
+            return children.isEmpty() ? ownProgress : childSum / children.size();
+        }
+    }
+
+    private final Map<Integer, Node> nodes = new HashMap<>();
+
+    /**
+     * Builds the graph from tasks and the stored relation rows.
+     */
+    public static TaskGraph build(List<Task> tasks, List<int[]> subtaskLinks, List<int[]> blockerLinks) {
+        TaskGraph graph = new TaskGraph();
+        for (Task task : tasks) {
+            graph.putTask(task.getId(), task.isComplete(), task.getProgress());
+        }
+        for (int[] link : subtaskLinks) {
+            graph.setParent(link[1], link[0]);
+        }
+        for (int[] link : blockerLinks) {
+            graph.addBlocker(link[0], link[1]);
+        }
+        return graph;
+    }
+
+    // --- Tasks ---
+
+    /**
+     * Adds a task or updates its own progress/completion, rolling the change up to its ancestors.
+     */
+    public synchronized void putTask(int taskId, boolean isComplete, int progress) {
+        Node node = nodes.computeIfAbsent(taskId, Node::new);
+        double before = node.rolledUp();
+        node.isComplete = isComplete;
+        node.ownProgress = isComplete ? 100 : progress;
+        propagate(node.parent, node.rolledUp() - before);
+    }
+
+    /**
+     * Removes a task and all of its relations; its subtasks become top-level tasks.
+     */
+    public synchronized void removeTask(int taskId) {
+        Node node = nodes.remove(taskId);
+        if (node == null) {
+            return;
+        }
+        detach(node);
+        for (Node child : new ArrayList<>(node.children)) {
+            detach(child);
+        }
+        for (Node blocked : node.blocks) {
+            blocked.blockedBy.remove(node);
+        }
+        for (Node blocker : node.blockedBy) {
+            blocker.blocks.remove(node);
+        }
+    }
+
+    public synchronized boolean contains(int taskId) {
+        return nodes.containsKey(taskId);
+    }
+
+    /**
+     * Rolled-up progress (0-100) of a task, or -1 if the task is unknown.
+     */
+    public synchronized double getRolledUpProgress(int taskId) {
+        Node node = nodes.get(taskId);
+        return node == null ? -1 : node.rolledUp();
+    }
+
+    // --- Subtasks ---
+
+    /**
+     * Would making childId a subtask of parentId create a cycle (or a self-link)?
+     * Walks up from the parent, so the cost is the depth of the tree.
+     */
+    public synchronized boolean wouldCreateSubtaskCycle(int parentId, int childId) {
+        for (Node n = nodes.get(parentId); n != null; n = n.parent) {
+            if (n.id == childId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes childId a subtask of parentId (replacing any previous parent).
+     * Returns false if either task is unknown or the link would create a cycle.
+     */
+    public synchronized boolean setParent(int childId, int parentId) {
+        Node child = nodes.get(childId);
+        Node parent = nodes.get(parentId);
+        if (child == null || parent == null || wouldCreateSubtaskCycle(parentId, childId)) {
+            return false;
+        }
+        detach(child);
+        double before = parent.rolledUp();
+        child.parent = parent;
+        parent.children.add(child);
+        parent.childSum += child.rolledUp();
+        propagate(parent.parent, parent.rolledUp() - before);
+        return true;
+    }
+
+    /**
+     * Makes a task top-level again.
+     */
+    public synchronized void clearParent(int childId) {
+        Node child = nodes.get(childId);
+        if (child != null) {
+            detach(child);
+        }
+    }
+
+    public synchronized int getParent(int taskId) {
+        Node node = nodes.get(taskId);
+        return node == null || node.parent == null ? -1 : node.parent.id;
+    }
+
+    public synchronized List<Integer> getSubtasks(int taskId) {
+        Node node = nodes.get(taskId);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Integer> ids = new ArrayList<>(node.children.size());
+        node.children.forEach(c -> ids.add(c.id));
+        return ids;
+    }
+
+    // --- Blockers ---
+
+    /**
+     * Would "blockerId blocks blockedId" close a cycle? True if blockedId already (transitively) blocks blockerId.
+     */
+    public synchronized boolean wouldCreateBlockerCycle(int blockerId, int blockedId) {
+        if (blockerId == blockedId) {
+            return true;
+        }
+        Node start = nodes.get(blockedId);
+        if (start == null) {
+            return false;
+        }
+        Set<Node> seen = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node n = stack.pop();
+            if (n.id == blockerId) {
+                return true;
+            }
+            for (Node next : n.blocks) {
+                if (seen.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records that blockerId must finish before blockedId. Returns false on unknown tasks or a cycle.
+     */
+    public synchronized boolean addBlocker(int blockerId, int blockedId) {
+        Node blocker = nodes.get(blockerId);
+        Node blocked = nodes.get(blockedId);
+        if (blocker == null || blocked == null || wouldCreateBlockerCycle(blockerId, blockedId)) {
+            return false;
+        }
+        blocker.blocks.add(blocked);
+        blocked.blockedBy.add(blocker);
+        return true;
+    }
+
+    public synchronized void removeBlocker(int blockerId, int blockedId) {
+        Node blocker = nodes.get(blockerId);
+        Node blocked = nodes.get(blockedId);
+        if (blocker != null && blocked != null) {
+            blocker.blocks.remove(blocked);
+            blocked.blockedBy.remove(blocker);
+        }
+    }
+
+    /**
+     * True if any task blocking this one is still incomplete.
+     */
+    public synchronized boolean isBlocked(int taskId) {
+        Node node = nodes.get(taskId);
+        if (node == null) {
+            return false;
+        }
+        for (Node blocker : node.blockedBy) {
+            if (!blocker.isComplete) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Incomplete tasks with no incomplete blockers, by ID.
+     */
+    public synchronized List<Integer> getReadyTasks() {
+        List<Integer> ready = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (!node.isComplete && !isBlocked(node.id)) {
+                ready.add(node.id);
+            }
+        }
+        Collections.sort(ready);
+        return ready;
+    }
+
+    /**
+     * All task IDs ordered so every blocker comes before the tasks it blocks (ties by ID).
+     */
+    public synchronized List<Integer> topologicalOrder() {
+        Map<Node, Integer> remaining = new HashMap<>();
+        PriorityQueue<Node> ready = new PriorityQueue<>((a, b) -> Integer.compare(a.id, b.id));
+        for (Node node : nodes.values()) {
+            remaining.put(node, node.blockedBy.size());
+            if (node.blockedBy.isEmpty()) {
+                ready.add(node);
+            }
+        }
+        List<Integer> order = new ArrayList<>(nodes.size());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            order.add(node.id);
+            for (Node next : node.blocks) {
+                if (remaining.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        return order;
+    }
+
+    // --- Helpers (callers hold the lock) ---
+
+    private void detach(Node child) {
+        Node parent = child.parent;
+        if (parent == null) {
+            return;
+        }
+        double before = parent.rolledUp();
+        parent.children.remove(child);
+        parent.childSum -= child.rolledUp();
+        if (parent.children.isEmpty()) {
+            parent.childSum = 0; // drop accumulated rounding error
+        }
+        child.parent = null;
+        propagate(parent.parent, parent.rolledUp() - before);
+    }
+
+    /**
+     * Adds a change in a child's rolled-up value to each ancestor in turn.
+     */
+    private void propagate(Node ancestor, double delta) {
+        while (ancestor != null && delta != 0) {
+            double before = ancestor.rolledUp();
+            ancestor.childSum += delta;
+            delta = ancestor.rolledUp() - before;
+            ancestor = ancestor.parent;
+        }
+    }
+}
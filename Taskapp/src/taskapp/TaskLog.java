@@ -0,0 +1,117 @@
+package taskapp;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Structured, one-line-per-event logging through java.util.logging (logger "taskapp").
+ *
+ * Each line is a list of key=value pairs, e.g.
+ * <pre>time=... level=SEVERE msg="Error creating task" title="Report" error="[SQLITE_BUSY] ..." sqlState=null sql="INSERT ..."</pre>
+ * Errors from a traced JDBC statement also carry the statement's SQL and (redacted) parameters.
+ * Unless a logging config file is given (java.util.logging.config.file), the logger writes these lines to stderr itself instead of using the JDK's two-line format.
+ */
+public final class TaskLog {
+
+    private static final Logger LOGGER = Logger.getLogger("taskapp");
+
+    static {
+        if (System.getProperty("java.util.logging.config.file") == null) {
+            ConsoleHandler handler = new ConsoleHandler();
+            handler.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord record) {
+                    return "time=" + Instant.ofEpochMilli(record.getMillis()) + " level=" + record.getLevel()
+                        + " thread=" + quote(Thread.currentThread().getName()) + " " + record.getMessage() + System.lineSeparator();
+                }
+            });
+            LOGGER.addHandler(handler);
+            LOGGER.setUseParentHandlers(false);
+        }
+    }
+
+    private TaskLog() {}
+
+    public static Logger getLogger() { return LOGGER; }
+
+    /**
+     * Logs a failure with key/value context pairs. For a SQLException the SQL state, error code and
+     * the failed statement (if traced) are added.
+     */
+    public static void error(String message, Throwable error, Object... context) {
+        if (!LOGGER.isLoggable(Level.SEVERE)) {
+            return;
+        }
+        StringBuilder line = event(message, context);
+        if (error != null) {
+            append(line, "error", error.getMessage());
+            if (error instanceof SQLException) {
+                SQLException sqlError = (SQLException) error;
+                append(line, "sqlState", sqlError.getSQLState());
+                append(line, "errorCode", sqlError.getErrorCode());
+            }
+            QueryTrace.Entry failed = QueryTrace.failedStatement(error);
+            if (failed != null) {
+                append(line, "sql", failed.getSql());
+                append(line, "params", failed.getParameters());
+            }
+        }
+        LOGGER.log(Level.SEVERE, line.toString(), error); // the formatter prints the line; handlers can inspect the error
+    }
+
+    public static void warn(String message, Object... context) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.log(Level.WARNING, event(message, context).toString());
+        }
+    }
+
+    public static void info(String message, Object... context) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, event(message, context).toString());
+        }
+    }
+
+    private static StringBuilder event(String message, Object... context) {
+        StringBuilder line = new StringBuilder(128);
+        line.append("msg=").append(quote(message));
+        for (int i = 0; i + 1 < context.length; i += 2) {
+            append(line, String.valueOf(context[i]), context[i + 1]);
+        }
+        return line;
+    }
+
+    private static void append(StringBuilder line, String key, Object value) {
+        line.append(' ').append(key).append('=');
+        if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+        } else {
+            line.append(quote(value == null ? null : value.toString()));
+        }
+    }
+
+    /**
+     * Double-quoted value with quotes, backslashes and line breaks escaped ("null" stays bare).
+     */
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': quoted.append("\\\""); break;
+                case '\\': quoted.append("\\\\"); break;
+                case '\n': quoted.append("\\n"); break;
+                case '\r': quoted.append("\\r"); break;
+                default: quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -2,10 +2,23 @@ package taskapp;
 
 import java.awt.*;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
  * Main application class, rewritten as a Swing GUI for a user-friendly
@@ -17,19 +30,54 @@ public class TaskManagementApp {
 
 	private final JFrame frame;
 	private final TaskService taskService;
+	private final StartupPipeline startup;
 	private UserAuth currentUser = null;
+	private DeadlineScheduler deadlineScheduler = null;
+
+	private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
 	// GUI Components
 	private JTextField usernameField;
 	private JPasswordField passwordField;
 	private JLabel statusLabel;
 	private JPanel mainContentPanel;
+	private JTextField filterField;
+
+	// Board filter: the index is built off the EDT after login and brought up to date with the board
+	// whenever it is reloaded; each (debounced) query runs on the search thread
+	private static final int FILTER_DEBOUNCE_MS = 120;
+	private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "taskapp-board-search");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private volatile TaskSearchIndex searchIndex = TaskSearchIndex.empty();
+	private TaskSearchIndex.Result filterResult = null; // null = no filter
+	private BoardData currentBoard;
+	private Timer filterDebounce;
+	private int filterGeneration = 0;
+	private int searchIndexGeneration = 0; // index builds overtaken by a newer one are dropped
+
+	// Board columns; each is a slot of the card cache, so unchanged tasks keep their card components
+	private static final int MY_TASKS = 0, ACTIVE_TASKS = 1, COMPLETED_TASKS = 2;
+	private static final Color[] COLUMN_COLORS = { new Color(255, 230, 230), new Color(230, 240, 255), new Color(230, 255, 230) };
+	private static final long CARD_CACHE_BYTES = Long.getLong("taskapp.cardCache.kb", 16 * 1024) * 1024;
+	private final TaskCardCache cardCache = new TaskCardCache(COLUMN_COLORS.length, CARD_CACHE_BYTES);
+
+	// Vacuums, analyzes and checks each database file while the board neither reads nor writes it;
+	// -Dtaskapp.maintenance=false turns it off
+	private static final boolean MAINTENANCE = !"false".equalsIgnoreCase(System.getProperty("taskapp.maintenance"));
+	private final List<DatabaseMaintenance> maintenance;
 
 	public TaskManagementApp() {
-		this.taskService = new TaskService();
-		// Initialize Database Tables
-		UserAuth.createUsersTable();
-		taskService.createTasksTable();
+		TaskRepository repository = TaskRepository.fromSystemProperty();
+		this.taskService = new TaskService(repository);
+		this.maintenance = MAINTENANCE
+				? DatabaseMaintenance.forRepository(repository, DatabaseMaintenance.Policy.defaultPolicy())
+				: List.of();
+		// Initialize Database Tables and warm up queries in the background
+		this.startup = new StartupPipeline(taskService);
+		startup.start().thenRun(() -> maintenance.forEach(DatabaseMaintenance::start));
 		// Initialize GUI Frame
 		frame = new JFrame("Team Task Management System");
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -116,7 +164,7 @@ public class TaskManagementApp {
 		frame.repaint();
 	}
 
-	private void showMainUI() {
+	private void showMainUI(BoardData boardData) {
 		frame.getContentPane().removeAll();
 		frame.setTitle("Task Board | User: " + currentUser.getUsername());
 		// Top Panel
@@ -125,55 +173,287 @@ public class TaskManagementApp {
 				new Font("Arial", Font.PLAIN, 14), null), BorderLayout.WEST);
 		JPanel toolbar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 		toolbar.add(button("Create New Task", e -> showTaskDialog(null)));
+		JPopupMenu bulkMenu = new JPopupMenu();
+		bulkMenu.add(new JMenuItem("Reassign All Tasks of a User...")).addActionListener(e -> showReassignDialog());
+		bulkMenu.add(new JMenuItem("Complete All Tasks at 100%")).addActionListener(e -> confirmBulk(
+				"Mark every active task with 100% progress as complete?",
+				() -> taskService.completeWhere(TaskFilter.fullyProgressed()), "completed"));
+		bulkMenu.add(new JMenuItem("Delete Old Completed Tasks...")).addActionListener(e -> showCleanupDialog());
+		JButton bulkButton = new JButton("Bulk Actions");
+		bulkButton.addActionListener(e -> bulkMenu.show(bulkButton, 0, bulkButton.getHeight()));
+		toolbar.add(bulkButton);
 		toolbar.add(button("Logout", e -> {
 			currentUser = null;
+			taskService.setAuditUser(0);
+			cardCache.clear();
 			showLoginUI();
 		}));
 		topPanel.add(toolbar, BorderLayout.EAST);
+		topPanel.add(createFilterBar(), BorderLayout.CENTER);
 		// Main Content Panel
 		mainContentPanel = new JPanel(new GridLayout(1, 3, 10, 0));
 		mainContentPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
 		frame.add(topPanel, BorderLayout.NORTH);
 		frame.add(mainContentPanel, BorderLayout.CENTER);
-		refreshTaskBoard();
+		filterResult = null;
+		renderTaskBoard(boardData);
+		rebuildSearchIndex();
 		frame.revalidate();
 		frame.repaint();
+		startDeadlineReminders();
+	}
+
+	// --- Bulk Actions ---
+	private void showReassignDialog() {
+		JComboBox<String> fromBox = new JComboBox<>(UserDirectory.getAssigneeOptions());
+		JComboBox<String> toBox = new JComboBox<>(UserDirectory.getAssigneeOptions());
+		JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+		panel.add(label("Move all tasks of:", null, null));
+		panel.add(fromBox);
+		panel.add(label("To:", null, null));
+		panel.add(toBox);
+		if (JOptionPane.showConfirmDialog(frame, panel, "Reassign Tasks", JOptionPane.OK_CANCEL_OPTION,
+				JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION || fromBox.getSelectedItem() == null
+				|| toBox.getSelectedItem() == null)
+			return;
+		int fromUserId = Integer.parseInt(((String) fromBox.getSelectedItem()).split(" - ")[0]);
+		int toUserId = Integer.parseInt(((String) toBox.getSelectedItem()).split(" - ")[0]);
+		runBulk(() -> taskService.reassignAll(fromUserId, toUserId), "reassigned");
+	}
+
+	private void showCleanupDialog() {
+		String days = JOptionPane.showInputDialog(frame,
+				"Delete completed tasks whose last recorded change (in the task history) is older than how many days?\n"
+						+ "Tasks without any recorded history are kept.",
+				"30");
+		if (days == null)
+			return;
+		long cutoff;
+		try {
+			cutoff = System.currentTimeMillis() - Long.parseLong(days.trim()) * 24 * 60 * 60 * 1000;
+		} catch (NumberFormatException ex) {
+			JOptionPane.showMessageDialog(frame, "Please enter a whole number of days.", "Validation Error",
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		runBulk(() -> taskService.deleteCompletedOlderThan(cutoff), "deleted");
+	}
+
+	private void confirmBulk(String question, Supplier<TaskService.BulkResult> operation, String verb) {
+		if (JOptionPane.showConfirmDialog(frame, question, "Bulk Action", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION)
+			runBulk(operation, verb);
+	}
+
+	/**
+	 * Runs a bulk operation off the EDT, then patches the loaded board with the result
+	 * instead of reloading every task. If it fails, the board is reloaded (part of the change
+	 * may have been committed) and an error is shown.
+	 */
+	private void runBulk(Supplier<TaskService.BulkResult> operation, String verb) {
+		CompletableFuture.supplyAsync(operation)
+				.whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+					if (ex != null)
+						TaskLog.error("Bulk action failed", ex, "action", verb);
+					if (currentUser == null || currentBoard == null)
+						return;
+					if (ex != null || result.isFailed()) {
+						refreshTaskBoard();
+						JOptionPane.showMessageDialog(frame, "The tasks could not be " + verb + ". Please try again.",
+								"Error", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+					renderTaskBoard(new BoardData(result.applyTo(currentBoard.getTasks())));
+					rebuildSearchIndex();
+					JOptionPane.showMessageDialog(frame, result.getCount() + " task(s) " + verb + ".");
+				}));
+	}
+
+	// --- Board Filter ---
+
+	/**
+	 * Filter field; Ctrl+F focuses it and Escape clears it.
+	 */
+	private JComponent createFilterBar() {
+		JPanel filterBar = new JPanel(new BorderLayout(5, 0));
+		filterBar.setBorder(BorderFactory.createEmptyBorder(5, 20, 5, 20));
+		filterField = new JTextField();
+		filterField.setToolTipText("Filter by title, description or assignee (Ctrl+F, Esc to clear)");
+		filterBar.add(label("Filter:", null, null), BorderLayout.WEST);
+		filterBar.add(filterField, BorderLayout.CENTER);
+
+		filterDebounce = new Timer(FILTER_DEBOUNCE_MS, e -> applyFilter());
+		filterDebounce.setRepeats(false);
+		filterField.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) { filterDebounce.restart(); }
+			@Override
+			public void removeUpdate(DocumentEvent e) { filterDebounce.restart(); }
+			@Override
+			public void changedUpdate(DocumentEvent e) { filterDebounce.restart(); }
+		});
+
+		JRootPane root = frame.getRootPane();
+		root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+				.put(KeyStroke.getKeyStroke(KeyEvent.VK_F, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()), "focusFilter");
+		root.getActionMap().put("focusFilter", new AbstractAction() {
+			public void actionPerformed(java.awt.event.ActionEvent e) {
+				filterField.requestFocusInWindow();
+				filterField.selectAll();
+			}
+		});
+		filterField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "clearFilter");
+		filterField.getActionMap().put("clearFilter", new AbstractAction() {
+			public void actionPerformed(java.awt.event.ActionEvent e) {
+				filterField.setText("");
+			}
+		});
+		return filterBar;
+	}
+
+	/**
+	 * Runs the current filter text against the index on the search thread, then re-renders on the EDT.
+	 * Results of queries overtaken by newer keystrokes are dropped.
+	 */
+	private void applyFilter() {
+		if (filterField == null || currentBoard == null)
+			return;
+		String query = filterField.getText();
+		int generation = ++filterGeneration;
+		TaskSearchIndex index = searchIndex;
+		searchExecutor.execute(() -> {
+			TaskSearchIndex.Result result = index.search(query);
+			SwingUtilities.invokeLater(() -> {
+				if (generation != filterGeneration || currentUser == null)
+					return;
+				filterResult = result.isEverything() ? null : result;
+				renderTaskBoard(currentBoard);
+			});
+		});
+	}
+
+	/**
+	 * Brings the search index up to date with the board in the background and re-applies the filter.
+	 * The first build streams every task with its full description; after that only tasks whose
+	 * version changed are re-indexed, loading just their descriptions. Board tasks are changed only on
+	 * the EDT and each change is followed by another call, so a build that overlapped a change is
+	 * overtaken and dropped.
+	 */
+	private void rebuildSearchIndex() {
+		int generation = ++searchIndexGeneration;
+		TaskSearchIndex base = searchIndex;
+		List<Task> tasks = currentBoard.getTasks();
+		CompletableFuture<TaskSearchIndex> build;
+		if (base == TaskSearchIndex.empty()) {
+			TaskSearchIndex.Builder builder = new TaskSearchIndex.Builder();
+			build = TaskPublisher.forEach(taskService.streamAllTasks(), builder::add).thenApply(v -> builder.build());
+		} else {
+			build = CompletableFuture.supplyAsync(
+					() -> base.update(tasks, taskId -> taskService.getTaskDescription(taskId).orElse(null)));
+		}
+		build.whenComplete((index, ex) -> SwingUtilities.invokeLater(() -> {
+			if (ex != null) {
+				TaskLog.error("Error building search index", ex);
+				return;
+			}
+			if (generation != searchIndexGeneration)
+				return;
+			searchIndex = index;
+			if (!filterField.getText().isBlank())
+				applyFilter();
+		}));
+	}
+
+	/**
+	 * Builds the deadline index off the EDT and refreshes the board whenever a task falls due.
+	 */
+	private void startDeadlineReminders() {
+		if (deadlineScheduler != null)
+			return;
+		CompletableFuture.supplyAsync(() -> new DeadlineScheduler(taskService.getDeadlineIndex()))
+				.thenAccept(scheduler -> SwingUtilities.invokeLater(() -> {
+					deadlineScheduler = scheduler;
+					scheduler.addListener((taskId, dueAt) -> SwingUtilities.invokeLater(this::refreshTaskBoard));
+				}));
+	}
+
+	// --- Date Helpers ---
+	private static String formatDateTime(Long millis) {
+		return millis == null ? ""
+				: LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).format(DATE_TIME_FORMAT);
+	}
+
+	private static Long parseDueDate(String text) throws DateTimeParseException {
+		return text.isEmpty() ? null
+				: LocalDateTime.parse(text, DATE_TIME_FORMAT).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
 	}
 
 	// --- Authentication Handlers ---
 	private void attemptLogin() {
 		String username = usernameField.getText().trim();
 		String password = new String(passwordField.getPassword()).trim();
-		Optional<UserAuth> user = UserAuth.loginUser(username, password);
-		if (user.isPresent()) {
-			currentUser = user.get();
-			showMainUI();
-		} else {
-			statusLabel.setText("Login failed: Invalid credentials.");
-			statusLabel.setForeground(Color.RED);
-		}
+		authenticate(startup.login(username, password), "Login failed: Invalid credentials.");
 	}
 
 	private void attemptRegister() {
 		String username = usernameField.getText().trim();
 		String password = new String(passwordField.getPassword()).trim();
-		Optional<UserAuth> user = UserAuth.registerUser(username, password);
-		if (user.isPresent()) {
-			currentUser = user.get();
-			showMainUI();
-		} else {
-			statusLabel.setText("Registration failed (Username taken or empty).");
-			statusLabel.setForeground(Color.RED);
-		}
+		authenticate(startup.register(username, password), "Registration failed (Username taken or empty).");
+	}
+
+	/**
+	 * Starts loading the board alongside the credential check, so a successful login does not wait
+	 * for it from scratch. The login result is reported on its own as soon as it is known; if it
+	 * fails, the speculative board is discarded unseen (including any error it hit).
+	 */
+	private void authenticate(CompletableFuture<Optional<UserAuth>> auth, String failureMessage) {
+		statusLabel.setText("Please wait...");
+		statusLabel.setForeground(Color.BLUE);
+		CompletableFuture<BoardData> board = startup.preloadBoard();
+		auth.whenComplete((user, ex) -> SwingUtilities.invokeLater(() -> {
+			if (ex != null) {
+				board.cancel(false);
+				statusLabel.setText("Database error: " + ex.getMessage());
+				statusLabel.setForeground(Color.RED);
+			} else if (user.isEmpty()) {
+				board.cancel(false);
+				statusLabel.setText(failureMessage);
+				statusLabel.setForeground(Color.RED);
+			} else {
+				statusLabel.setText("Welcome, " + user.get().getUsername() + ". Loading tasks...");
+				statusLabel.setForeground(Color.BLUE);
+				showBoardFor(user.get(), board);
+			}
+		}));
+	}
+
+	private void showBoardFor(UserAuth user, CompletableFuture<BoardData> board) {
+		board.whenComplete((boardData, ex) -> SwingUtilities.invokeLater(() -> {
+			if (ex != null) {
+				statusLabel.setText("Could not load tasks: " + ex.getMessage());
+				statusLabel.setForeground(Color.RED);
+				return;
+			}
+			currentUser = user;
+			taskService.setAuditUser(user.getId());
+			showMainUI(boardData);
+		}));
 	}
 
 	// --- Task Board Logic ---
 	private void refreshTaskBoard() {
 		if (currentUser == null)
 			return;
+		renderTaskBoard(BoardData.load(taskService));
+		rebuildSearchIndex();
+	}
+
+	private void renderTaskBoard(BoardData boardData) {
+		currentBoard = boardData;
 		mainContentPanel.removeAll();
-		List<Task> allTasks = taskService.getAllTasks();
+		TaskSearchIndex.Result filter = filterResult;
+		List<Task> allTasks = filter == null ? boardData.getTasks()
+				: boardData.getTasks().stream().filter(t -> filter.matches(t.getId())).collect(Collectors.toList());
 		// Create task lists
 		List<Task> personalTasks = allTasks.stream()
 				.filter(t -> t.getAssignedToUserId() == currentUser.getId() && !t.isComplete())
@@ -181,54 +461,55 @@ public class TaskManagementApp {
 		List<Task> incompleteTasks = allTasks.stream().filter(t -> !t.isComplete()).collect(Collectors.toList());
 		List<Task> completedTasks = allTasks.stream().filter(Task::isComplete).collect(Collectors.toList());
 		// Create columns
-		mainContentPanel.add(
-				createTaskColumn("My Tasks (" + personalTasks.size() + ")", personalTasks, new Color(255, 230, 230)));
-		mainContentPanel.add(createTaskColumn("All Active Tasks (" + incompleteTasks.size() + ")", incompleteTasks,
-				new Color(230, 240, 255)));
-		mainContentPanel.add(createTaskColumn("Completed Tasks (" + completedTasks.size() + ")", completedTasks,
-				new Color(230, 255, 230)));
+		// Header counts come from the loaded board, so they match the cards
+		// When filtering, show how many of each column's tasks are visible
+		mainContentPanel.add(createTaskColumn(
+				"My Tasks (" + shownOf(filter, personalTasks, boardData.getActiveCount(currentUser.getId())) + ")",
+				personalTasks, MY_TASKS));
+		mainContentPanel.add(createTaskColumn(
+				"All Active Tasks (" + shownOf(filter, incompleteTasks, boardData.getActiveCount()) + ")",
+				incompleteTasks, ACTIVE_TASKS));
+		mainContentPanel.add(createTaskColumn(
+				"Completed Tasks (" + shownOf(filter, completedTasks, boardData.getCompletedCount()) + ")",
+				completedTasks, COMPLETED_TASKS));
 
 		mainContentPanel.revalidate();
 		mainContentPanel.repaint();
 	}
 
-	private JComponent createTaskColumn(String title, List<Task> tasks, Color bgColor) {
+	private static String shownOf(TaskSearchIndex.Result filter, List<Task> shown, int total) {
+		return filter == null ? String.valueOf(total) : shown.size() + " of " + total;
+	}
+
+	private JComponent createTaskColumn(String title, List<Task> tasks, int slot) {
 		JPanel column = new JPanel();
 		column.setLayout(new BoxLayout(column, BoxLayout.Y_AXIS));
 		List<Task> sortedTasks = taskService.sortTasksByPriority(tasks);
 		column.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createTitledBorder(title),
 				BorderFactory.createEmptyBorder(5, 5, 5, 5)));
-		column.setBackground(bgColor);
+		column.setBackground(COLUMN_COLORS[slot]);
 
 		JScrollPane scrollPane = new JScrollPane(column);
 		scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
-		sortedTasks.forEach(task -> column.add(createTaskCard(task)));
+		long now = System.currentTimeMillis();
+		sortedTasks.forEach(task -> column.add(cardCache.card(task, slot, now, view -> createTaskCard(task, view, now))));
 		column.add(Box.createVerticalGlue());
 
 		return scrollPane;
 	}
 
-	private JPanel createTaskCard(Task task) {
+	// Built only when the card cache has no card for this task version; styling comes from the cache
+	private JPanel createTaskCard(Task task, TaskCardCache.Snapshot view, long now) {
 		JPanel card = new JPanel(new BorderLayout(5, 5));
-		// Border color based on task state
-		Color borderColor = task.isComplete() ? new Color(0, 150, 0)
-				: task.getPriority().equals("High") ? new Color(200, 0, 0)
-						: task.getPriority().equals("Medium") ? new Color(255, 200, 0) : new Color(100, 100, 100);
-		card.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createLineBorder(borderColor, 2),
-				BorderFactory.createEmptyBorder(8, 8, 8, 8)));
+		card.setBorder(view.getBorder());
 		card.setBackground(Color.WHITE);
 		// Header
 		JPanel headerPanel = new JPanel(new BorderLayout());
 		headerPanel.setOpaque(false);
-		headerPanel.add(label(task.getTitle(), new Font("Arial", Font.BOLD, 14), null), BorderLayout.WEST);
-		String statusText = task.isComplete() ? "DONE" : task.getProgress() + "%";
-		Color statusColor = task.isComplete() ? Color.GREEN.darker()
-				: task.getProgress() < 100 ? Color.BLUE.darker() : Color.GRAY;
-		headerPanel.add(label(statusText, new Font("Arial", Font.BOLD, 12), statusColor), BorderLayout.EAST);
+		headerPanel.add(label(view.getTitle(), TaskCardCache.TITLE_FONT, null), BorderLayout.WEST);
+		headerPanel.add(label(view.getStatusText(), TaskCardCache.STATUS_FONT, view.getStatusColor()), BorderLayout.EAST);
 		// Details
-		JTextArea descriptionPreview = new JTextArea(
-				task.getDescription().length() > 50 ? task.getDescription().substring(0, 47) + "..."
-						: task.getDescription());
+		JTextArea descriptionPreview = new JTextArea(view.getDescriptionPreview());
 		descriptionPreview.setWrapStyleWord(true);
 		descriptionPreview.setLineWrap(true);
 		descriptionPreview.setEditable(false);
@@ -238,11 +519,19 @@ public class TaskManagementApp {
 		JPanel detailPanel = new JPanel(new BorderLayout(0, 3));
 		detailPanel.setOpaque(false);
 		detailPanel.add(descriptionPreview, BorderLayout.CENTER);
-		detailPanel.add(label("Assigned: " + task.getAssignedToUsername(), new Font("Arial", Font.ITALIC, 11), null),
-				BorderLayout.SOUTH);
+		JPanel infoPanel = new JPanel(new GridLayout(0, 1));
+		infoPanel.setOpaque(false);
+		infoPanel.add(label(view.getAssignedText(), TaskCardCache.INFO_FONT, null));
+		if (view.getDueAt() != null) {
+			boolean overdue = view.isOverdue(now);
+			infoPanel.add(label("Due: " + formatDateTime(view.getDueAt()) + (overdue ? " (overdue)" : ""),
+					TaskCardCache.INFO_FONT, overdue ? Color.RED : null));
+		}
+		detailPanel.add(infoPanel, BorderLayout.SOUTH);
 		// Buttons
 		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
 		buttonPanel.add(button("Edit", e -> showTaskDialog(task)));
+		buttonPanel.add(button("History", e -> showTaskHistory(task.getId())));
 		buttonPanel.add(button("Delete", e -> attemptDelete(task.getId())));
 		card.add(headerPanel, BorderLayout.NORTH);
 		card.add(detailPanel, BorderLayout.CENTER);
@@ -257,7 +546,7 @@ public class TaskManagementApp {
 	private void showTaskDialog(Task task) {
 		JDialog dialog = new JDialog(frame, task == null ? "Create New Task" : "Edit Task ID " + task.getId(), true);
 		dialog.setLayout(new BorderLayout());
-		dialog.setSize(450, 500);
+		dialog.setSize(450, 540);
 		dialog.setLocationRelativeTo(frame);
 		JPanel formPanel = new JPanel(new GridBagLayout());
 		formPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
@@ -265,6 +554,16 @@ public class TaskManagementApp {
 		gbc.fill = GridBagConstraints.HORIZONTAL;
 		gbc.insets = new Insets(5, 5, 5, 5);
 
+		// Board tasks only carry a preview; load the full description now
+		if (task != null && !task.isDescriptionLoaded()) {
+			Optional<String> description = taskService.getTaskDescription(task.getId());
+			if (description.isEmpty()) {
+				JOptionPane.showMessageDialog(frame, "Failed to load task details.", "Error", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			task.setDescription(description.get());
+		}
+
 		// Form components
 		JTextField titleField = new JTextField(task != null ? task.getTitle() : "");
 		JTextArea descriptionArea = new JTextArea(task != null ? task.getDescription() : "", 4, 20);
@@ -277,13 +576,27 @@ public class TaskManagementApp {
 			priorityBox.setSelectedItem(task.getPriority());
 
 		// Assignment Dropdown
-		List<UserAuth> users = taskService.getAllUsers();
-		String[] userOptions = users.stream().map(u -> u.getId() + " - " + u.getUsername()).toArray(String[]::new);
+		String[] userOptions = UserDirectory.getAssigneeOptions();
 		JComboBox<String> assignedToBox = new JComboBox<>(userOptions);
 		if (task != null) {
-			String currentAssignment = task.getAssignedToUserId() + " - " + task.getAssignedToUsername();
+			// Match the assignee by ID; one the directory cannot resolve gets its own entry, so saving
+			// keeps the assignment instead of silently moving the task to the first listed user
+			String currentAssignment = null;
+			for (String option : userOptions) {
+				if (Integer.parseInt(option.split(" - ")[0]) == task.getAssignedToUserId()) {
+					currentAssignment = option;
+				}
+			}
+			if (currentAssignment == null) {
+				currentAssignment = UserDirectory.formatAssignee(task.getAssignedToUserId(),
+						task.getAssignedToUsername());
+				assignedToBox.addItem(currentAssignment);
+			}
 			assignedToBox.setSelectedItem(currentAssignment);
 		}
+		// Due Date Field (blank = no due date)
+		JTextField dueField = new JTextField(task != null ? formatDateTime(task.getDueAt()) : "");
+		dueField.setToolTipText("yyyy-MM-dd HH:mm, leave blank for no due date");
 		// Progress Field
 		JSlider progressSlider = new JSlider(0, 100, task != null ? task.getProgress() : 0);
 		progressSlider.setMajorTickSpacing(25);
@@ -334,6 +647,15 @@ public class TaskManagementApp {
 		gbc.gridy = row++;
 		gbc.weightx = 1.0;
 		formPanel.add(assignedToBox, gbc);
+
+		gbc.gridx = 0;
+		gbc.gridy = row;
+		gbc.weightx = 0.0;
+		formPanel.add(label("Due (yyyy-MM-dd HH:mm):", null, null), gbc);
+		gbc.gridx = 1;
+		gbc.gridy = row++;
+		gbc.weightx = 1.0;
+		formPanel.add(dueField, gbc);
 		gbc.gridx = 0;
 		gbc.gridy = row;
 		gbc.weightx = 0.0;
@@ -367,6 +689,15 @@ public class TaskManagementApp {
 				return;
 			}
 
+			Long dueAt;
+			try {
+				dueAt = parseDueDate(dueField.getText().trim());
+			} catch (DateTimeParseException ex) {
+				JOptionPane.showMessageDialog(frame, "Due date must look like 2025-01-31 17:00.", "Validation Error",
+						JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+
 			int assignedUserId;
 			try {
 				assignedUserId = Integer.parseInt(assignedUserString.split(" - ")[0]);
@@ -378,10 +709,21 @@ public class TaskManagementApp {
 
 			boolean success;
 			if (task == null) {
-				success = taskService.createTask(title, description, priority, assignedUserId);
+				success = taskService.createTask(title, description, priority, assignedUserId, dueAt);
 			} else {
-				success = taskService.editTask(task.getId(), title, description, priority, assignedUserId, isComplete,
-						progress);
+				TaskService.EditResult result = taskService.editTask(task.getId(), task.getVersion(), title,
+						description, priority, assignedUserId, isComplete, progress, dueAt);
+				if (result == TaskService.EditResult.CONFLICT || result == TaskService.EditResult.NOT_FOUND) {
+					JOptionPane.showMessageDialog(frame,
+							result == TaskService.EditResult.CONFLICT
+									? "This task was changed by someone else. The board has been reloaded; please reopen it and try again."
+									: "This task has been deleted by someone else.",
+							"Edit Conflict", JOptionPane.WARNING_MESSAGE);
+					refreshTaskBoard();
+					dialog.dispose();
+					return;
+				}
+				success = result == TaskService.EditResult.UPDATED;
 			}
 
 			if (success) {
@@ -397,11 +739,30 @@ public class TaskManagementApp {
 		dialog.setVisible(true);
 	}
 
+	private void showTaskHistory(int taskId) {
+		List<TaskChange> changes = taskService.getTaskHistory(taskId);
+		StringBuilder text = new StringBuilder();
+		for (TaskChange change : changes) {
+			String who = change.getChangedBy() == 0 ? "unknown"
+					: UserDirectory.getUsername(change.getChangedBy()).orElse("user " + change.getChangedBy());
+			text.append(formatDateTime(change.getChangedAt())).append("  ").append(change.getKind()).append(" by ")
+					.append(who);
+			if (change.getKind() == TaskChange.Kind.EDITED)
+				text.append(": ").append(String.join(", ", change.getChangedFields()));
+			text.append('\n');
+		}
+		JTextArea area = new JTextArea(changes.isEmpty() ? "No recorded changes." : text.toString(), 12, 40);
+		area.setEditable(false);
+		JOptionPane.showMessageDialog(frame, new JScrollPane(area), "History of Task ID " + taskId,
+				JOptionPane.INFORMATION_MESSAGE);
+	}
+
 	private void attemptDelete(int taskId) {
 		int dialogResult = JOptionPane.showConfirmDialog(frame,
 				"Are you sure you want to delete Task ID " + taskId + "?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
 		if (dialogResult == JOptionPane.YES_OPTION) {
 			if (taskService.deleteTask(taskId)) {
+				cardCache.remove(taskId);
 				refreshTaskBoard();
 			} else {
 				JOptionPane.showMessageDialog(frame, "Failed to delete task.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -0,0 +1,292 @@
+package taskapp;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Flow.Publisher that streams tasks from a Cursor (e.g. pages of a query) as the subscriber
+ * requests them, so a consumer sees the first rows without waiting for the whole table and never
+ * holds more than it asked for.
+ *
+ * Each subscription opens its own cursor on its first request and reads it on the executor,
+ * one batch per request and never on two threads at once; between requests nothing is read
+ * and no thread is held. The cursor is closed after the last row, on error, or on cancel.
+ * Query failures, checked or not, reach the subscriber through onError.
+ */
+public final class TaskPublisher implements Flow.Publisher<Task> {
+
+    /**
+     * Rows of one subscription. Only used by one thread at a time.
+     */
+    public interface Cursor extends AutoCloseable {
+        /**
+         * The next task, or null after the last one.
+         */
+        Task next() throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface CursorFactory {
+        Cursor open() throws SQLException;
+    }
+
+    /**
+     * Rows requested at a time by forEach.
+     */
+    public static final int BATCH_SIZE = 256;
+
+    private static final ExecutorService STREAM_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "taskapp-task-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CursorFactory source;
+    private final Executor executor;
+
+    public TaskPublisher(CursorFactory source) {
+        this(source, STREAM_EXECUTOR);
+    }
+
+    public TaskPublisher(CursorFactory source, Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    /**
+     * Publishes an already loaded list (which must not change while it is streamed).
+     */
+    public static TaskPublisher fromList(List<Task> tasks) {
+        return new TaskPublisher(() -> {
+            Iterator<Task> it = tasks.iterator();
+            return new Cursor() {
+                @Override
+                public Task next() { return it.hasNext() ? it.next() : null; }
+
+                @Override
+                public void close() {}
+            };
+        });
+    }
+
+    /**
+     * Reads the sources one after another, opening each only when the previous one is exhausted.
+     */
+    public static CursorFactory concat(List<CursorFactory> sources) {
+        return () -> new Cursor() {
+            private int index = 0;
+            private Cursor current = null;
+
+            @Override
+            public Task next() throws SQLException {
+                while (index < sources.size()) {
+                    if (current == null) {
+                        current = sources.get(index).open();
+                    }
+                    Task task = current.next();
+                    if (task != null) {
+                        return task;
+                    }
+                    close();
+                    index++;
+                }
+                return null;
+            }
+
+            @Override
+            public void close() throws SQLException {
+                if (current != null) {
+                    Cursor closing = current;
+                    current = null;
+                    closing.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Task> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new StreamSubscription(subscriber, source, executor));
+    }
+
+    /**
+     * Passes every task of a publisher to action, requesting BATCH_SIZE at a time. The future completes
+     * after the last task, or exceptionally if the query or the action fails (which cancels the stream).
+     */
+    public static CompletableFuture<Void> forEach(Flow.Publisher<? extends Task> publisher, Consumer<? super Task> action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Task>() {
+            private Flow.Subscription subscription;
+            private int leftInBatch;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription = s;
+                done.whenComplete((v, e) -> s.cancel()); // cancelling the future cancels the stream
+                leftInBatch = BATCH_SIZE;
+                s.request(BATCH_SIZE);
+            }
+
+            @Override
+            public void onNext(Task task) {
+                try {
+                    action.accept(task);
+                } catch (RuntimeException e) {
+                    done.completeExceptionally(e);
+                    return;
+                }
+                if (--leftInBatch == 0) {
+                    leftInBatch = BATCH_SIZE;
+                    subscription.request(BATCH_SIZE);
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) { done.completeExceptionally(error); }
+
+            @Override
+            public void onComplete() { done.complete(null); }
+        });
+        return done;
+    }
+
+    /**
+     * Demand counter plus a drain loop that runs on the executor whenever demand, cancellation or
+     * an error needs handling; the work-in-progress counter keeps the loop on one thread at a time.
+     */
+    private static final class StreamSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Task> subscriber;
+        private final CursorFactory source;
+        private final Executor executor;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable badRequest = null;
+
+        // Only touched by the drain loop
+        private Cursor cursor;
+        private boolean done = false;
+
+        StreamSubscription(Flow.Subscriber<? super Task> subscriber, CursorFactory source, Executor executor) {
+            this.subscriber = subscriber;
+            this.source = source;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Requested " + n + " tasks; must be positive");
+            } else {
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (workInProgress.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    cancelled = true;
+                    closeCursor();
+                    done = true;
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    drain();
+                }
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (cancelled || badRequest != null) {
+                done = true;
+                closeCursor();
+                if (badRequest != null && !cancelled) {
+                    subscriber.onError(badRequest);
+                }
+                return;
+            }
+            long requested = demand.get();
+            long emitted = 0;
+            try {
+                while (emitted < requested && !cancelled) {
+                    Task task;
+                    try {
+                        if (cursor == null) {
+                            cursor = source.open();
+                        }
+                        task = cursor.next();
+                    } catch (SQLException | RuntimeException e) {
+                        // Any failure of the query itself ends the stream through onError
+                        done = true;
+                        closeCursor();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (task == null) {
+                        done = true;
+                        closeCursor();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(task);
+                    emitted++;
+                }
+            } catch (RuntimeException e) {
+                // A subscriber must not throw; treat it as cancelled
+                done = true;
+                closeCursor();
+                TaskLog.error("Task stream subscriber failed", e);
+                return;
+            }
+            if (cancelled) {
+                done = true;
+                closeCursor();
+            } else if (requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+        }
+
+        private void closeCursor() {
+            if (cursor != null) {
+                try {
+                    cursor.close();
+                } catch (SQLException e) {
+                    TaskLog.error("Error closing task stream", e);
+                }
+                cursor = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package taskapp;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+
+/**
+ * Storage backend for tasks. TaskService delegates all persistence to an implementation of this interface.
+ * Implementations return fully populated Task objects (including the assigned username).
+ */
+public interface TaskRepository {
+
+    /**
+     * Prepares the backend for use (e.g. creates tables). Safe to call more than once.
+     */
+    void initialize();
+
+    /**
+     * Stores a new task with progress 0 and an optional due date (epoch millis, or null).
+     * Returns the new task ID, or -1 on failure.
+     */
+    int createTask(String title, String description, String priority, int assignedToUserId, Long dueAt);
+
+    /**
+     * Stores a new task with progress 0 and no due date.
+     */
+    default int createTask(String title, String description, String priority, int assignedToUserId) {
+        return createTask(title, description, priority, assignedToUserId, null);
+    }
+
+    /**
+     * Sets or clears (null) a task's due date. Bumps the version like any other edit.
+     */
+    boolean setDueAt(int taskId, Long dueAt);
+
+    /**
+     * Overwrites a task unconditionally. Returns false if the task does not exist or the write failed.
+     */
+    boolean editTask(int taskId, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress);
+
+    /**
+     * Overwrites a task only if its version still equals expectedVersion.
+     */
+    TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress);
+
+    /**
+     * Same, also setting the due date (epoch millis, or null to clear it) in the same versioned update.
+     */
+    TaskService.EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress, Long dueAt);
+
+    boolean deleteTask(int taskId);
+
+    // --- Bulk Operations (each is one statement in one transaction; history is still recorded per task) ---
+
+    /**
+     * Moves every task assigned to fromUserId over to toUserId. Returns the moved task IDs in ascending order,
+     * or null if the change failed (like the other bulk operations).
+     */
+    List<Integer> reassignAll(int fromUserId, int toUserId);
+
+    /**
+     * Marks every active task matching the filter complete. Returns the completed task IDs in ascending order,
+     * or null if the change failed.
+     */
+    List<Integer> completeWhere(TaskFilter filter);
+
+    /**
+     * Deletes completed tasks whose last recorded change is before cutoff (epoch millis).
+     * Tasks with no recorded history are kept. Returns the deleted task IDs in ascending order,
+     * or null if the change failed.
+     */
+    List<Integer> deleteCompletedOlderThan(long cutoff);
+
+    /**
+     * All tasks ordered by ID.
+     */
+    List<Task> getAllTasks();
+
+    List<Task> getTasksByAssignee(int userId);
+
+    List<Task> getTasksByStatus(boolean isComplete);
+
+    /**
+     * All tasks ordered by ID, delivered as the subscriber requests them.
+     * The default publishes getAllTasks(); SQL backends read the table a page at a time.
+     */
+    default Flow.Publisher<Task> streamAllTasks() {
+        return TaskPublisher.fromList(getAllTasks());
+    }
+
+    /**
+     * All tasks ordered by ID, carrying only a description preview.
+     */
+    List<Task> getBoardTasks();
+
+    Optional<String> getTaskDescription(int taskId);
+
+    TaskStatistics getTaskStatistics();
+
+    /**
+     * Column-per-field copy of all tasks for reporting scans.
+     * The default builds it from getAllTasks; SQL backends stream the columns instead.
+     */
+    default ColumnarTaskSnapshot getColumnarSnapshot() {
+        return ColumnarTaskSnapshot.fromTasks(getAllTasks());
+    }
+
+    /**
+     * A counter that moves whenever the backend reads or writes its database, so background jobs
+     * (DatabaseMaintenance) can tell when it has been idle. Backends without a database return 0.
+     */
+    default long getActivityCount() {
+        return 0;
+    }
+
+    // --- Task History (creates, edits and deletes are recorded as TaskDelta entries) ---
+
+    /**
+     * Sets the user recorded as the author of subsequent changes (0 = unknown).
+     */
+    void setAuditUser(int userId);
+
+    /**
+     * Recorded changes of a task, oldest first. Still available after the task is deleted.
+     */
+    List<TaskChange> getTaskHistory(int taskId);
+
+    /**
+     * The task as it was at the given time (epoch millis), or empty if it did not exist then.
+     */
+    Optional<Task> getTaskAsOf(int taskId, long timestamp);
+
+    // --- Task Relations (TaskService checks IDs and cycles against TaskGraph before these are called) ---
+
+    /**
+     * Makes childId a subtask of parentId, replacing any previous parent. Returns false if the
+     * child does not exist; TaskService checks the parent, which may be stored elsewhere (sharding).
+     */
+    boolean setParent(int childId, int parentId);
+
+    boolean clearParent(int childId);
+
+    /**
+     * Records that blockerId must be finished before blockedId. Returns false if blockedId does not
+     * exist; TaskService checks blockerId.
+     */
+    boolean addBlocker(int blockerId, int blockedId);
+
+    boolean removeBlocker(int blockerId, int blockedId);
+
+    /**
+     * All subtask links as {parentId, childId}.
+     */
+    List<int[]> getSubtaskLinks();
+
+    /**
+     * All blocker links as {blockerId, blockedId}.
+     */
+    List<int[]> getBlockerLinks();
+
+    /**
+     * Creates the backend named by the "taskapp.repository" system property:
+     * "memory" for InMemoryTaskRepository, "sharded" for a ShardedTaskRepository with
+     * "taskapp.shards" shards (default 4), anything else (the default) for SqliteTaskRepository
+     * with writes going through the shared WriteScheduler.
+     * Either way usernames come from the UserDirectory cache.
+     */
+    static TaskRepository fromSystemProperty() {
+        String backend = System.getProperty("taskapp.repository", "sqlite");
+        if (backend.equalsIgnoreCase("memory")) {
+            return new InMemoryTaskRepository(UserDirectory::getUsername);
+        }
+        if (backend.equalsIgnoreCase("sharded")) {
+            return new ShardedTaskRepository(Integer.getInteger("taskapp.shards", 4), ShardRouter.hashed());
+        }
+        return new SqliteTaskRepository(null, WriteScheduler.shared());
+    }
+}
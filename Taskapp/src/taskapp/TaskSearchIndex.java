@@ -0,0 +1,287 @@
+package taskapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable token index over task titles, descriptions and assignee names for the board filter.
+ *
+ * Text is split into lower-case words. The distinct words are kept sorted with, for each one,
+ * the sorted rows of the tasks containing it, so every word of a query is matched as a prefix
+ * with two binary searches plus a walk over the matching rows. A task matches when every
+ * query word is a prefix of one of its words ("des rep" finds "Design report").
+ * Each row also records the task version it was indexed at, so update() can re-index only the
+ * tasks that changed since. Build it off the UI thread; search is thread-safe.
+ */
+public final class TaskSearchIndex {
+
+    /**
+     * Tasks matching a query.
+     */
+    public static final class Result {
+        private final TaskSearchIndex index;
+        private final BitSet rows; // null = every task
+
+        private Result(TaskSearchIndex index, BitSet rows) {
+            this.index = index;
+            this.rows = rows;
+        }
+
+        public boolean isEverything() { return rows == null; }
+
+        public int size() {
+            return rows == null ? index.taskIds.length : rows.cardinality();
+        }
+
+        /**
+         * True if the task matched. Tasks created after the index was built only match an empty query.
+         */
+        public boolean matches(int taskId) {
+            if (rows == null) {
+                return true;
+            }
+            int row = Arrays.binarySearch(index.taskIds, taskId);
+            return row >= 0 && rows.get(row);
+        }
+    }
+
+    private static final TaskSearchIndex EMPTY = build(new ArrayList<>());
+
+    private final int[] taskIds;    // row -> task ID, ascending
+    private final int[] versions;   // row -> task version that was indexed
+    private final String[] words;   // distinct words, sorted
+    private final int[][] postings; // word -> ascending rows containing it
+
+    private TaskSearchIndex(int[] taskIds, int[] versions, String[] words, int[][] postings) {
+        this.taskIds = taskIds;
+        this.versions = versions;
+        this.words = words;
+        this.postings = postings;
+    }
+
+    public static TaskSearchIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Indexes the title, description (or its preview) and assignee name of each task.
+     */
+    public static TaskSearchIndex build(List<Task> tasks) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        Builder builder = new Builder();
+        sorted.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * A new index for the given tasks (e.g. the board's), reusing this index's words for every task
+     * whose ID and version are unchanged. Only new or changed tasks are tokenized again, with the full
+     * description from descriptionOf (by task ID; null = use the task's own description or preview).
+     * Tasks missing from the list are dropped.
+     */
+    public TaskSearchIndex update(List<Task> tasks, IntFunction<String> descriptionOf) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        int[][] wordsByRow = null; // inverted postings, built on first reuse
+        Builder builder = new Builder();
+        builder.reusedWords = words;
+        for (Task task : sorted) {
+            int version = task.getVersion(); // read before the fields, so a concurrent change is caught next time
+            int row = Arrays.binarySearch(taskIds, task.getId());
+            if (row >= 0 && versions[row] == version) {
+                if (wordsByRow == null) {
+                    wordsByRow = wordsByRow();
+                }
+                builder.addWords(task.getId(), version, wordsByRow[row]);
+            } else {
+                String description = descriptionOf.apply(task.getId());
+                builder.add(task.getId(), version, task.getTitle(), description != null ? description : descriptionOf(task),
+                    task.getAssignedToUsername());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * row -> indexes into words of the words in that row.
+     */
+    private int[][] wordsByRow() {
+        int[] counts = new int[taskIds.length];
+        for (int[] rows : postings) {
+            for (int row : rows) {
+                counts[row]++;
+            }
+        }
+        int[][] result = new int[taskIds.length][];
+        for (int row = 0; row < result.length; row++) {
+            result[row] = new int[counts[row]];
+            counts[row] = 0;
+        }
+        for (int w = 0; w < postings.length; w++) {
+            for (int row : postings[w]) {
+                result[row][counts[row]++] = w;
+            }
+        }
+        return result;
+    }
+
+    private static String descriptionOf(Task task) {
+        return task.isDescriptionLoaded() ? task.getDescription() : task.getDescriptionPreview();
+    }
+
+    /**
+     * Collects tasks in ascending ID order (e.g. from TaskService.streamAllTasks) without keeping them.
+     */
+    public static final class Builder {
+        private int[] taskIds = new int[64];
+        private int[] versions = new int[64];
+        private int size;
+        private final Map<String, int[]> rowsByWord = new HashMap<>(); // {count, row, row, ...} growable
+        private String[] reusedWords; // words of the index update() is reading from
+
+        /**
+         * Indexes the title, description (or its preview) and assignee name of a task.
+         * Throws IllegalArgumentException if the ID is not above the previous one.
+         */
+        public Builder add(Task task) {
+            return add(task.getId(), task.getVersion(), task.getTitle(), descriptionOf(task), task.getAssignedToUsername());
+        }
+
+        private Builder add(int taskId, int version, String... texts) {
+            int row = nextRow(taskId, version);
+            for (String text : texts) {
+                for (String word : tokenize(text)) {
+                    addWord(word, row);
+                }
+            }
+            return this;
+        }
+
+        private void addWords(int taskId, int version, int[] wordIndexes) {
+            int row = nextRow(taskId, version);
+            for (int w : wordIndexes) {
+                addWord(reusedWords[w], row);
+            }
+        }
+
+        private int nextRow(int taskId, int version) {
+            if (size > 0 && taskIds[size - 1] >= taskId) {
+                throw new IllegalArgumentException("Tasks must be added in ascending ID order: " + taskId);
+            }
+            if (size == taskIds.length) {
+                taskIds = Arrays.copyOf(taskIds, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+            }
+            taskIds[size] = taskId;
+            versions[size] = version;
+            return size++;
+        }
+
+        private void addWord(String word, int row) {
+            int[] list = rowsByWord.get(word);
+            if (list == null) {
+                list = new int[4];
+            } else if (list[0] > 0 && list[list[0]] == row) {
+                return; // word already seen in this task
+            } else if (list[0] + 1 == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+            }
+            list[++list[0]] = row;
+            rowsByWord.put(word, list);
+        }
+
+        public TaskSearchIndex build() {
+            String[] words = rowsByWord.keySet().toArray(new String[0]);
+            Arrays.sort(words);
+            int[][] postings = new int[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                int[] list = rowsByWord.get(words[i]);
+                postings[i] = Arrays.copyOfRange(list, 1, list[0] + 1);
+            }
+            return new TaskSearchIndex(Arrays.copyOf(taskIds, size), Arrays.copyOf(versions, size), words, postings);
+        }
+    }
+
+    /**
+     * Lower-case words of letters and digits.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public int size() { return taskIds.length; }
+
+    /**
+     * Tasks containing a word starting with every word of the query. A blank query matches everything.
+     */
+    public Result search(String query) {
+        List<String> queryWords = tokenize(query);
+        if (queryWords.isEmpty()) {
+            return new Result(this, null);
+        }
+        // Longest words first: they usually match the fewest tasks
+        queryWords.sort((a, b) -> Integer.compare(b.length(), a.length()));
+        BitSet result = null;
+        for (String prefix : queryWords) {
+            BitSet rows = rowsWithPrefix(prefix, result);
+            result = rows;
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return new Result(this, result);
+    }
+
+    /**
+     * Rows with a word starting with prefix, restricted to within (if not null).
+     */
+    private BitSet rowsWithPrefix(String prefix, BitSet within) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        BitSet rows = new BitSet(taskIds.length);
+        for (int w = from; w < to; w++) {
+            for (int row : postings[w]) {
+                rows.set(row);
+            }
+        }
+        if (within != null) {
+            rows.and(within);
+        }
+        return rows;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = words.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (words[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
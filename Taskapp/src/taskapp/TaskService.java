@@ -1,190 +1,519 @@
 package taskapp;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 /**
- * Handles all task-related database operations (CRUD) and task sorting logic.
- * This class also manages the database setup for tasks.
+ * Handles all task-related operations (CRUD) and task sorting logic.
+ * Persistence is delegated to a TaskRepository (SQLite by default).
  * NOTE: Updated all methods to handle the new 'progress' field (0-100).
  */
 public class TaskService {
 
+    /**
+     * Outcome of a version-checked edit.
+     */
+    public enum EditResult {
+        UPDATED,   // Row matched the expected version and was written
+        CONFLICT,  // Row exists but was changed by someone else since it was read
+        NOT_FOUND, // Row no longer exists
+        FAILED     // Database error
+    }
+
+    /**
+     * Outcome of a bulk operation: the affected task IDs plus the change that was made, so caches and
+     * the board can be patched instead of reloaded. A failed operation has no IDs; reload the board
+     * after it, since with shards part of the change may have been committed.
+     */
+    public static final class BulkResult {
+        private final List<Integer> taskIds; // ascending
+        private final Consumer<Task> change; // null = the tasks were deleted
+        private final boolean failed;
+
+        BulkResult(List<Integer> taskIds, Consumer<Task> change) {
+            this(taskIds, change, false);
+        }
+
+        private BulkResult(List<Integer> taskIds, Consumer<Task> change, boolean failed) {
+            this.taskIds = taskIds;
+            this.change = change;
+            this.failed = failed;
+        }
+
+        static BulkResult failed() {
+            return new BulkResult(new ArrayList<>(), null, true);
+        }
+
+        public boolean isFailed() { return failed; }
+        public int getCount() { return taskIds.size(); }
+        public List<Integer> getTaskIds() { return Collections.unmodifiableList(taskIds); }
+
+        /**
+         * Applies the change to a list of already loaded tasks (e.g. the board's), returning the new list.
+         * Affected tasks are updated in place (with their version bumped like the stored rows) or dropped.
+         */
+        public List<Task> applyTo(List<Task> tasks) {
+            List<Task> result = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                if (Collections.binarySearch(taskIds, task.getId()) < 0) {
+                    result.add(task);
+                } else if (change != null) {
+                    change.accept(task);
+                    task.setVersion(task.getVersion() + 1);
+                    result.add(task);
+                }
+            }
+            return result;
+        }
+    }
+
+    private final TaskRepository repository;
+    private volatile TaskGraph graph; // built on first use, then kept in step with writes
+    private final Object relationLock = new Object(); // writes that patch the graph or deadline index, and their builds
+    private volatile DeadlineIndex deadlines; // same, for due dates
+
+    /**
+     * Uses the backend selected by the "taskapp.repository" system property (SQLite by default).
+     */
+    public TaskService() {
+        this(TaskRepository.fromSystemProperty());
+    }
+
+    /**
+     * Creates a service whose read methods (getAllTasks, getBoardTasks, getTaskDescription,
+     * getTaskStatistics) query the given snapshot. Writes still go to the main database.
+     */
+    public TaskService(DatabaseSnapshot readSnapshot) {
+        this(new SqliteTaskRepository(readSnapshot));
+    }
+
+    public TaskService(TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    public TaskRepository getRepository() { return repository; }
+
     // --- Database Setup ---
 
     /**
      * Creates the tasks table if it does not exist.
-     * ADDED 'progress' column.
      */
     public void createTasksTable() {
-        String createTasksTable = "CREATE TABLE IF NOT EXISTS tasks ("
-                                + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
-                                + "title TEXT NOT NULL,"
-                                + "description TEXT,"
-                                + "priority TEXT CHECK(priority IN ('High', 'Medium', 'Low')) NOT NULL,"
-                                + "assigned_to_user_id INTEGER NOT NULL,"
-                                + "is_complete BOOLEAN NOT NULL DEFAULT 0,"
-                                + "progress INTEGER NOT NULL DEFAULT 0," // <-- ADDED: Default progress is 0
-                                + "FOREIGN KEY (assigned_to_user_id) REFERENCES users(id)"
-                                + ");";
-
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(createTasksTable)) {
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error creating tasks table: " + e.getMessage());
-        }
+        repository.initialize();
     }
 
     // --- Utility Methods (Fetching Users for Assignment/Display) ---
     
     /**
      * Fetches all registered users (for task assignment).
+     * Served from the process-wide UserDirectory cache.
      */
     public List<UserAuth> getAllUsers() {
-        List<UserAuth> users = new ArrayList<>();
-        String sql = "SELECT id, username FROM users";
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            while (rs.next()) {
-                // Assuming UserAuth constructor takes (id, username)
-                // This is a common pattern when the password hash is not needed outside authentication.
-                // If the UserAuth class has been updated, this may need adjustment. Using ID and Username here.
-                users.add(new UserAuth(rs.getInt("id"), rs.getString("username")));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error fetching all users: " + e.getMessage());
-        }
-        return users;
-    }
-
-    private Optional<String> getUsernameById(int userId) {
-        String sql = "SELECT username FROM users WHERE id = ?";
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(rs.getString("username"));
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error fetching username: " + e.getMessage());
-        }
-        return Optional.empty();
+        return UserDirectory.getUsers();
     }
-    
+
     // --- Task CRUD Methods ---
 
     /**
-     * Creates a new task in the database.
+     * Creates a new task.
      * INCLUDES progress (defaults to 0).
      */
     public boolean createTask(String title, String description, String priority, int assignedToUserId) {
-        // ADDED 'progress' to the column list
-        String sql = "INSERT INTO tasks (title, description, priority, assigned_to_user_id, progress) VALUES (?, ?, ?, ?, 0)";
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, title);
-            pstmt.setString(2, description);
-            pstmt.setString(3, priority);
-            pstmt.setInt(4, assignedToUserId);
-            // progress is implicitly 0 as defined in the SQL string
-            
-            pstmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error creating task: " + e.getMessage());
-            return false;
+        return createTask(title, description, priority, assignedToUserId, null);
+    }
+
+    /**
+     * Creates a new task with an optional due date (epoch milliseconds, or null for none).
+     */
+    public boolean createTask(String title, String description, String priority, int assignedToUserId, Long dueAt) {
+        int taskId;
+        synchronized (relationLock) {
+            taskId = repository.createTask(title, description, priority, assignedToUserId, dueAt);
+            TaskGraph g = graph;
+            if (taskId > 0 && g != null) {
+                g.putTask(taskId, false, 0);
+            }
+            DeadlineIndex d = deadlines;
+            if (taskId > 0 && d != null) {
+                d.putTask(taskId, dueAt, false);
+            }
         }
+        return taskId > 0;
+    }
+
+    /**
+     * Sets or clears (null) a task's due date.
+     */
+    public boolean setDueDate(int taskId, Long dueAt) {
+        boolean success;
+        synchronized (relationLock) {
+            success = repository.setDueAt(taskId, dueAt);
+            DeadlineIndex d = deadlines;
+            if (success && d != null) {
+                d.setDueAt(taskId, dueAt);
+            }
+        }
+        return success;
     }
 
     /**
      * Updates an existing task's details.
-     * ADDED 'progress' parameter and SQL update.
+     * ADDED 'progress' parameter.
      */
     public boolean editTask(int taskId, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
-        // ADDED progress = ? to the SET clause
-        String sql = "UPDATE tasks SET title = ?, description = ?, priority = ?, assigned_to_user_id = ?, is_complete = ?, progress = ? WHERE id = ?";
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, title);
-            pstmt.setString(2, description);
-            pstmt.setString(3, priority);
-            pstmt.setInt(4, assignedToUserId);
-            pstmt.setBoolean(5, isComplete);
-            pstmt.setInt(6, progress); // <-- NEW: progress value
-            pstmt.setInt(7, taskId);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("Error editing task: " + e.getMessage());
-            return false;
+        boolean success;
+        synchronized (relationLock) {
+            success = repository.editTask(taskId, title, description, priority, assignedToUserId, isComplete, progress);
+            TaskGraph g = graph;
+            if (success && g != null) {
+                g.putTask(taskId, isComplete, progress);
+            }
+            DeadlineIndex d = deadlines;
+            if (success && d != null) {
+                d.setComplete(taskId, isComplete);
+            }
         }
+        return success;
     }
-    
+
+    /**
+     * Updates a task only if it still has the version the caller read.
+     * Returns CONFLICT instead of overwriting a concurrent edit.
+     */
+    public EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+        EditResult result;
+        synchronized (relationLock) {
+            result = repository.editTask(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress);
+            TaskGraph g = graph;
+            if (result == EditResult.UPDATED && g != null) {
+                g.putTask(taskId, isComplete, progress);
+            }
+            DeadlineIndex d = deadlines;
+            if (result == EditResult.UPDATED && d != null) {
+                d.setComplete(taskId, isComplete);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same, also setting the due date (null clears it); all fields change together or not at all.
+     */
+    public EditResult editTask(int taskId, int expectedVersion, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress, Long dueAt) {
+        EditResult result;
+        synchronized (relationLock) {
+            result = repository.editTask(taskId, expectedVersion, title, description, priority, assignedToUserId, isComplete, progress, dueAt);
+            TaskGraph g = graph;
+            if (result == EditResult.UPDATED && g != null) {
+                g.putTask(taskId, isComplete, progress);
+            }
+            DeadlineIndex d = deadlines;
+            if (result == EditResult.UPDATED && d != null) {
+                d.putTask(taskId, dueAt, isComplete);
+            }
+        }
+        return result;
+    }
+
     /**
      * Deletes a task by ID.
      */
     public boolean deleteTask(int taskId) {
-        String sql = "DELETE FROM tasks WHERE id = ?";
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, taskId);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("Error deleting task: " + e.getMessage());
-            return false;
+        boolean success;
+        synchronized (relationLock) { // a relation checked against the graph must not outlive its task
+            success = repository.deleteTask(taskId);
+            if (success && graph != null) {
+                graph.removeTask(taskId);
+            }
+            DeadlineIndex d = deadlines;
+            if (success && d != null) {
+                d.removeTask(taskId);
+            }
+        }
+        return success;
+    }
+
+    // --- Bulk Operations (one SQL statement each; the graph and deadline index are patched, not rebuilt) ---
+
+    /**
+     * Moves every task of a user (e.g. one who is leaving) to another user.
+     */
+    public BulkResult reassignAll(int fromUserId, int toUserId) {
+        List<Integer> ids = repository.reassignAll(fromUserId, toUserId);
+        if (ids == null) {
+            return BulkResult.failed();
+        }
+        // Assignees are in neither the graph nor the deadline index
+        return new BulkResult(ids, task -> {
+            task.setAssignedToUserId(toUserId);
+            task.setAssignedToUsername(UserDirectory.getUsername(toUserId).orElse("Unknown"));
+        });
+    }
+
+    /**
+     * Marks every active task matching the filter complete, e.g. TaskFilter.fullyProgressed().
+     */
+    public BulkResult completeWhere(TaskFilter filter) {
+        List<Integer> ids;
+        synchronized (relationLock) {
+            ids = repository.completeWhere(filter);
+            if (ids == null) {
+                reloadAfterFailedBulk();
+                return BulkResult.failed();
+            }
+            TaskGraph g = graph;
+            if (g != null) {
+                ids.forEach(id -> g.putTask(id, true, 100));
+            }
+            DeadlineIndex d = deadlines;
+            if (d != null) {
+                ids.forEach(id -> d.setComplete(id, true));
+            }
+        }
+        return new BulkResult(ids, task -> task.setComplete(true));
+    }
+
+    /**
+     * Deletes completed tasks that have not changed since cutoff (epoch milliseconds).
+     */
+    public BulkResult deleteCompletedOlderThan(long cutoff) {
+        List<Integer> ids;
+        synchronized (relationLock) {
+            ids = repository.deleteCompletedOlderThan(cutoff);
+            if (ids == null) {
+                reloadAfterFailedBulk();
+                return BulkResult.failed();
+            }
+            TaskGraph g = graph;
+            if (g != null) {
+                ids.forEach(g::removeTask);
+            }
+            DeadlineIndex d = deadlines;
+            if (d != null) {
+                ids.forEach(d::removeTask);
+            }
+        }
+        return new BulkResult(ids, null);
+    }
+
+    /**
+     * After a failed bulk write some shards may have committed: the graph is rebuilt on next use,
+     * and the deadline index is reloaded in place because DeadlineScheduler holds on to it.
+     * Called with relationLock held.
+     */
+    private void reloadAfterFailedBulk() {
+        reloadTaskGraph();
+        DeadlineIndex d = deadlines;
+        if (d != null) {
+            d.reload(repository.getAllTasks());
         }
     }
 
     /**
      * Fetches all tasks.
-     * Fetches the 'progress' column and passes it to the Task constructor.
      */
     public List<Task> getAllTasks() {
-        List<Task> tasks = new ArrayList<>();
-        // ADDED 'progress' to the SELECT statement
-        String sql = "SELECT id, title, description, priority, assigned_to_user_id, is_complete, progress FROM tasks ORDER BY id ASC";
-        
-        try (Connection conn = UserAuth.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            
-            while (rs.next()) {
-                int assignedToUserId = rs.getInt("assigned_to_user_id");
-                Optional<String> username = getUsernameById(assignedToUserId);
-                
-                tasks.add(new Task(
-                    rs.getInt("id"),
-                    rs.getString("title"),
-                    rs.getString("description"),
-                    rs.getString("priority"),
-                    assignedToUserId,
-                    username.orElse("Unknown"),
-                    rs.getBoolean("is_complete"),
-                    rs.getInt("progress") // <-- NEW: getting progress from DB
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error fetching tasks: " + e.getMessage());
-        }
-        return tasks;
+        return repository.getAllTasks();
+    }
+
+    /**
+     * Streams all tasks ordered by ID with backpressure: rows are read only as the subscriber
+     * requests them, so large tables can be processed in constant memory.
+     */
+    public Flow.Publisher<Task> streamAllTasks() {
+        return repository.streamAllTasks();
+    }
+
+    /**
+     * Fetches the tasks assigned to one user.
+     */
+    public List<Task> getTasksByAssignee(int userId) {
+        return repository.getTasksByAssignee(userId);
+    }
+
+    /**
+     * Fetches completed (true) or active (false) tasks.
+     */
+    public List<Task> getTasksByStatus(boolean isComplete) {
+        return repository.getTasksByStatus(isComplete);
+    }
+
+    /**
+     * Fetches all tasks as a lightweight board projection carrying only a description preview.
+     * Use getTaskDescription to load the full text when a task is opened.
+     */
+    public List<Task> getBoardTasks() {
+        return repository.getBoardTasks();
+    }
+
+    /**
+     * Fetches the full description of a single task.
+     */
+    public Optional<String> getTaskDescription(int taskId) {
+        return repository.getTaskDescription(taskId);
+    }
+
+    // --- Task Statistics ---
+
+    /**
+     * Returns task counts and average progress by status, priority and assignee.
+     */
+    public TaskStatistics getTaskStatistics() {
+        return repository.getTaskStatistics();
+    }
+
+    /**
+     * Off-heap column copy of all tasks for reports that filter and aggregate many rows.
+     * With TaskService(DatabaseSnapshot) it is built from the snapshot file.
+     */
+    public ColumnarTaskSnapshot getColumnarSnapshot() {
+        return repository.getColumnarSnapshot();
+    }
+
+    // --- Task History ---
+
+    /**
+     * Sets the user recorded as the author of subsequent changes (e.g. after login; 0 = unknown).
+     */
+    public void setAuditUser(int userId) {
+        repository.setAuditUser(userId);
+    }
+
+    /**
+     * Who changed what and when for one task, oldest first.
+     */
+    public List<TaskChange> getTaskHistory(int taskId) {
+        return repository.getTaskHistory(taskId);
+    }
+
+    /**
+     * The task as it was at the given time (epoch millis), or empty if it did not exist then.
+     */
+    public Optional<Task> getTaskAsOf(int taskId, long timestamp) {
+        return repository.getTaskAsOf(taskId, timestamp);
+    }
+
+    // --- Subtasks and Blockers ---
+
+    /**
+     * The subtask/blocker graph, built from the repository on first use. Task writes hold relationLock
+     * from the repository call to the graph patch, so none can fall between reading the tasks and
+     * publishing the graph, and an edit cannot re-add a node after a concurrent delete removed it.
+     */
+    public TaskGraph getTaskGraph() {
+        TaskGraph g = graph;
+        if (g == null) {
+            synchronized (relationLock) { // no relation changes between reading tasks and links
+                g = graph;
+                if (g == null) {
+                    g = TaskGraph.build(repository.getAllTasks(), repository.getSubtaskLinks(), repository.getBlockerLinks());
+                    graph = g;
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Rebuilds the graph from storage (e.g. after another process changed relations).
+     */
+    public void reloadTaskGraph() {
+        graph = null;
+    }
+
+    // Relation changes hold relationLock from the check to the graph update, so two concurrent
+    // links cannot both pass the cycle check, and the graph changes only after the row is stored.
+
+    /**
+     * Makes childId a subtask of parentId. Returns false if either task is unknown or the link would create a cycle.
+     */
+    public boolean addSubtask(int parentId, int childId) {
+        synchronized (relationLock) {
+            TaskGraph g = getTaskGraph();
+            if (!g.contains(parentId) || !g.contains(childId) || g.wouldCreateSubtaskCycle(parentId, childId)) {
+                return false;
+            }
+            return repository.setParent(childId, parentId) && g.setParent(childId, parentId);
+        }
+    }
+
+    public boolean removeSubtask(int childId) {
+        synchronized (relationLock) {
+            boolean success = repository.clearParent(childId);
+            if (success) {
+                getTaskGraph().clearParent(childId);
+            }
+            return success;
+        }
+    }
+
+    /**
+     * Records that blockerId must finish before blockedId. Returns false if either task is unknown or that would create a cycle.
+     */
+    public boolean addBlocker(int blockerId, int blockedId) {
+        synchronized (relationLock) {
+            TaskGraph g = getTaskGraph();
+            if (!g.contains(blockerId) || !g.contains(blockedId) || g.wouldCreateBlockerCycle(blockerId, blockedId)) {
+                return false;
+            }
+            return repository.addBlocker(blockerId, blockedId) && g.addBlocker(blockerId, blockedId);
+        }
+    }
+
+    public boolean removeBlocker(int blockerId, int blockedId) {
+        synchronized (relationLock) {
+            boolean success = repository.removeBlocker(blockerId, blockedId);
+            if (success) {
+                getTaskGraph().removeBlocker(blockerId, blockedId);
+            }
+            return success;
+        }
+    }
+
+    /**
+     * Progress rolled up from a task's subtasks (its own progress if it has none), or -1 if unknown.
+     */
+    public double getRolledUpProgress(int taskId) {
+        return getTaskGraph().getRolledUpProgress(taskId);
+    }
+
+    // --- Due Dates ---
+
+    /**
+     * The due-date index of incomplete tasks, built from the repository on first use. Built under
+     * relationLock like the graph, so a task written during the build is not lost from the index.
+     */
+    public DeadlineIndex getDeadlineIndex() {
+        DeadlineIndex d = deadlines;
+        if (d == null) {
+            synchronized (relationLock) {
+                d = deadlines;
+                if (d == null) {
+                    d = DeadlineIndex.build(repository.getAllTasks());
+                    deadlines = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    /**
+     * IDs of incomplete tasks whose due date has passed, earliest first.
+     */
+    public List<Integer> getOverdueTaskIds(long now) {
+        return getDeadlineIndex().getOverdue(now);
+    }
+
+    /**
+     * IDs of incomplete tasks due within the next windowMillis, earliest first.
+     */
+    public List<Integer> getUpcomingTaskIds(long now, long windowMillis) {
+        return getDeadlineIndex().getDueBetween(now, now + windowMillis);
     }
 
     // --- Task Sorting Logic ---
@@ -0,0 +1,77 @@
+package taskapp;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregated task counts and average progress, grouped by status, priority and assignee.
+ * Built from the task_stats summary table by TaskService.getTaskStatistics().
+ */
+public class TaskStatistics {
+
+    /**
+     * Count and progress total for one group of tasks.
+     */
+    public static final class Bucket {
+        private int count;
+        private long progressSum;
+
+        public int getCount() { return count; }
+
+        /**
+         * Average progress (0-100) of the tasks in this bucket, or 0 if it is empty.
+         */
+        public double getAverageProgress() {
+            return count == 0 ? 0.0 : (double) progressSum / count;
+        }
+
+        private void add(int count, long progressSum) {
+            this.count += count;
+            this.progressSum += progressSum;
+        }
+    }
+
+    private static final Bucket EMPTY = new Bucket();
+
+    private final Bucket total = new Bucket();
+    private final Bucket active = new Bucket();
+    private final Bucket completed = new Bucket();
+    private final Map<String, Bucket> byPriority = new HashMap<>();
+    private final Map<Integer, Bucket> byAssignee = new HashMap<>();
+    private final Map<Integer, Bucket> activeByAssignee = new HashMap<>();
+
+    /**
+     * Adds one row of the summary table.
+     */
+    void addGroup(boolean isComplete, String priority, int assignedToUserId, int count, long progressSum) {
+        total.add(count, progressSum);
+        (isComplete ? completed : active).add(count, progressSum);
+        byPriority.computeIfAbsent(priority, p -> new Bucket()).add(count, progressSum);
+        byAssignee.computeIfAbsent(assignedToUserId, id -> new Bucket()).add(count, progressSum);
+        if (!isComplete) {
+            activeByAssignee.computeIfAbsent(assignedToUserId, id -> new Bucket()).add(count, progressSum);
+        }
+    }
+
+    /**
+     * Adds another set of statistics to this one (used to gather per-shard results).
+     */
+    void merge(TaskStatistics other) {
+        total.add(other.total.count, other.total.progressSum);
+        active.add(other.active.count, other.active.progressSum);
+        completed.add(other.completed.count, other.completed.progressSum);
+        other.byPriority.forEach((priority, b) -> byPriority.computeIfAbsent(priority, p -> new Bucket()).add(b.count, b.progressSum));
+        other.byAssignee.forEach((userId, b) -> byAssignee.computeIfAbsent(userId, id -> new Bucket()).add(b.count, b.progressSum));
+        other.activeByAssignee.forEach((userId, b) -> activeByAssignee.computeIfAbsent(userId, id -> new Bucket()).add(b.count, b.progressSum));
+    }
+
+    public Bucket getTotal() { return total; }
+    public Bucket getByStatus(boolean isComplete) { return isComplete ? completed : active; }
+    public Bucket getByPriority(String priority) { return byPriority.getOrDefault(priority, EMPTY); }
+    public Bucket getByAssignee(int userId) { return byAssignee.getOrDefault(userId, EMPTY); }
+    public Bucket getActiveByAssignee(int userId) { return activeByAssignee.getOrDefault(userId, EMPTY); }
+
+    public Map<String, Bucket> getPriorityBuckets() { return Collections.unmodifiableMap(byPriority); }
+    public Map<Integer, Bucket> getAssigneeBuckets() { return Collections.unmodifiableMap(byAssignee); }
+}
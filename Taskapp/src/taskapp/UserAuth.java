@@ -11,7 +11,9 @@ import java.util.Optional;
  */
 public class UserAuth {
     
-    private static final String JDBC_URL = "jdbc:sqlite:task_manager.db";
+    public static final String DEFAULT_JDBC_URL = "jdbc:sqlite:task_manager.db";
+
+    private static volatile String jdbcUrl = DEFAULT_JDBC_URL;
 
     private final int id;
     private final String username;
@@ -32,12 +34,33 @@ public class UserAuth {
     public String getUsername() { return username; }
 
     /**
-     * Gets a connection to the SQLite database.
+     * Gets a connection to the SQLite database. Statements on it are recorded by QueryTrace.
      */
     public static Connection getConnection() throws SQLException {
         // Register the JDBC driver if not already registered (optional for modern Java)
         // try { Class.forName("org.sqlite.JDBC"); } catch (ClassNotFoundException e) { e.printStackTrace(); }
-        return DriverManager.getConnection(JDBC_URL);
+        return getConnection(jdbcUrl);
+    }
+
+    /**
+     * Gets a connection to another database file, e.g. a task shard (null = the main database).
+     */
+    public static Connection getConnection(String url) throws SQLException {
+        long start = System.nanoTime();
+        Connection conn = DriverManager.getConnection(url == null ? jdbcUrl : url);
+        return QueryTrace.wrap(conn, System.nanoTime() - start);
+    }
+
+    public static String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    /**
+     * Points all connections at another database (e.g. a temporary file in tests).
+     */
+    public static void setJdbcUrl(String url) {
+        jdbcUrl = url;
+        UserDirectory.invalidate();
     }
 
     /**
@@ -54,7 +77,7 @@ public class UserAuth {
              PreparedStatement stmt = conn.prepareStatement(createUsersTable)) {
             stmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Error creating users table: " + e.getMessage());
+            TaskLog.error("Error creating users table", e);
         }
     }
 
@@ -63,7 +86,7 @@ public class UserAuth {
      */
     public static Optional<UserAuth> registerUser(String username, String password) {
         if (username.trim().isEmpty() || password.trim().isEmpty()) {
-            System.err.println("Username and password cannot be empty.");
+            TaskLog.warn("Registration failed: username and password cannot be empty");
             return Optional.empty();
         }
 
@@ -76,7 +99,7 @@ public class UserAuth {
                 checkStmt.setString(1, username);
                 ResultSet rs = checkStmt.executeQuery();
                 if (rs.next() && rs.getInt(1) > 0) {
-                    System.err.println("Registration failed: Username already exists.");
+                    TaskLog.warn("Registration failed: username already exists", "username", username);
                     return Optional.empty();
                 }
             }
@@ -86,6 +109,7 @@ public class UserAuth {
                 insertStmt.setString(1, username);
                 insertStmt.setString(2, password); // In a real app, hash this!
                 insertStmt.executeUpdate();
+                UserDirectory.invalidate();
                 
                 // 3. Retrieve generated ID
                 try (ResultSet keys = insertStmt.getGeneratedKeys()) {
@@ -95,7 +119,7 @@ public class UserAuth {
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Registration failed: " + e.getMessage());
+            TaskLog.error("Registration failed", e, "username", username);
         }
         return Optional.empty();
     }
@@ -115,11 +139,11 @@ public class UserAuth {
                 if (rs.next()) {
                     return Optional.of(new UserAuth(rs.getInt("id"), rs.getString("username")));
                 } else {
-                    System.err.println("Login failed: Invalid username or password.");
+                    TaskLog.warn("Login failed: invalid username or password", "username", username);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Login error: " + e.getMessage());
+            TaskLog.error("Login error", e, "username", username);
         }
         return Optional.empty();
     }
@@ -0,0 +1,186 @@
+package taskapp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of registered users (id -> username).
+ * The users table is read once on first use and again after invalidate(), which
+ * UserAuth.registerUser calls whenever a new account is created, or when a username
+ * lookup misses (at most once per MISS_RELOAD_MILLIS), which picks up users registered
+ * by another instance sharing the database. A failed
+ * read is not cached (lookups see no users and retry after a short pause, or
+ * at once after invalidate()), and each snapshot is stamped with the invalidation count it
+ * was loaded under, so a load that races with invalidate() is never kept.
+ */
+public final class UserDirectory {
+
+    private static volatile Snapshot snapshot = null;
+    private static final AtomicLong version = new AtomicLong(); // bumped by invalidate()
+
+    // After a failed load, lookups get an empty directory and retry the table after this long
+    private static final long RETRY_MILLIS = 500;
+    private static Snapshot failed = null;
+    private static long retryAt = 0;
+
+    // A lookup of an unknown ID reloads the table at most this often, so unknown IDs stay cheap
+    private static final long MISS_RELOAD_MILLIS = 1000;
+    private static final AtomicLong nextMissReload = new AtomicLong();
+
+    private UserDirectory() {}
+
+    /**
+     * Looks up a username by user ID without touching the database (after the first load),
+     * except that a miss reloads the directory once if it was not reloaded for a miss recently.
+     */
+    public static Optional<String> getUsername(int userId) {
+        String username = current().lookup(userId);
+        if (username == null && reloadAfterMiss()) {
+            username = current().lookup(userId);
+        }
+        return Optional.ofNullable(username);
+    }
+
+    /**
+     * All registered users, ordered by ID.
+     */
+    public static List<UserAuth> getUsers() {
+        return current().users;
+    }
+
+    /**
+     * Pre-built "id - username" strings for the assignment dropdown, ordered by ID.
+     */
+    public static String[] getAssigneeOptions() {
+        return current().assigneeOptions.clone();
+    }
+
+    /**
+     * Formats a user the same way as the assignment dropdown entries.
+     */
+    public static String formatAssignee(int userId, String username) {
+        return userId + " - " + username;
+    }
+
+    /**
+     * Drops the cached directory; the next lookup reloads it from the users table. A load already in
+     * flight still returns its result to its caller, but is no longer used by later lookups.
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Invalidates the directory unless a miss already did within MISS_RELOAD_MILLIS.
+     */
+    private static boolean reloadAfterMiss() {
+        long now = System.currentTimeMillis();
+        long next = nextMissReload.get();
+        if (now < next || !nextMissReload.compareAndSet(next, now + MISS_RELOAD_MILLIS)) {
+            return false;
+        }
+        invalidate();
+        return true;
+    }
+
+    private static Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null || s.version != version.get()) {
+            synchronized (UserDirectory.class) {
+                s = snapshot;
+                long stamp = version.get();
+                if (s == null || s.version != stamp) {
+                    if (failed != null && failed.version == stamp && System.currentTimeMillis() < retryAt) {
+                        return failed;
+                    }
+                    s = load(stamp);
+                    if (s == null) {
+                        failed = new Snapshot(new ArrayList<>(), stamp); // not cached as the directory
+                        retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+                        return failed;
+                    }
+                    failed = null;
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * The users table as of now, or null if it could not be read (e.g. before the schema exists).
+     */
+    private static Snapshot load(long stamp) {
+        List<UserAuth> users = new ArrayList<>();
+        String sql = "SELECT id, username FROM users ORDER BY id ASC";
+        try (Connection conn = UserAuth.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                users.add(new UserAuth(rs.getInt("id"), rs.getString("username")));
+            }
+        } catch (SQLException e) {
+            TaskLog.error("Error loading user directory", e);
+            return null;
+        }
+        return new Snapshot(users, stamp);
+    }
+
+    /**
+     * Immutable view of the users table. IDs are kept in an open-addressing
+     * int -> String table so lookups never box the key.
+     */
+    private static final class Snapshot {
+        private final int[] keys;
+        private final String[] values;
+        private final int mask;
+        private final List<UserAuth> users;
+        private final String[] assigneeOptions;
+        private final long version; // value of UserDirectory.version when loading started
+
+        Snapshot(List<UserAuth> users, long version) {
+            this.version = version;
+            int capacity = Integer.highestOneBit(Math.max(4, users.size() * 2 - 1)) << 1;
+            this.keys = new int[capacity];
+            this.values = new String[capacity];
+            this.mask = capacity - 1;
+            this.users = Collections.unmodifiableList(users);
+            this.assigneeOptions = new String[users.size()];
+
+            for (int i = 0; i < users.size(); i++) {
+                UserAuth u = users.get(i);
+                int slot = slot(u.getId());
+                while (values[slot] != null && keys[slot] != u.getId()) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = u.getId();
+                values[slot] = u.getUsername();
+                assigneeOptions[i] = formatAssignee(u.getId(), u.getUsername());
+            }
+        }
+
+        String lookup(int userId) {
+            int slot = slot(userId);
+            while (values[slot] != null) {
+                if (keys[slot] == userId) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(int key) {
+            int h = key * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package taskapp;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Funnels database writes through one writer thread and one connection, so callers
+ * never compete for SQLite's write lock among themselves.
+ *
+ * Requests wait in a bounded queue. The writer takes as many as are waiting (up to
+ * maxBatchSize) and commits them in one transaction ("group commit"); each request
+ * runs inside its own savepoint, so a failing request does not undo the others.
+ * If the whole transaction hits SQLITE_BUSY (another process holds the lock) it is
+ * rolled back and retried according to the RetryPolicy. Any other failure of the batch
+ * itself rolls it back and fails all of its requests; the writer thread keeps running.
+ *
+ * When the queue is full, submit() waits up to enqueueTimeoutMillis and then fails the
+ * returned future with RejectedExecutionException; callers can also check isBackpressured().
+ */
+public class WriteScheduler implements AutoCloseable {
+
+    /**
+     * A unit of write work run on the writer connection.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Request<T> {
+        final SqlWork<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long queuedAt = System.nanoTime();
+        T result;
+        Exception error; // SQLException, or a RuntimeException thrown by the work
+
+        Request(SqlWork<T> work) {
+            this.work = work;
+        }
+
+        void run(Connection conn) throws SQLException {
+            QueryTrace.setConnectionWait(System.nanoTime() - queuedAt); // reported with the first statement
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = work.apply(conn);
+                error = null;
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                if (RetryPolicy.isBusy(e)) {
+                    throw e; // the whole batch is retried
+                }
+                conn.rollback(savepoint);
+                error = e;
+            } catch (RuntimeException e) {
+                conn.rollback(savepoint); // a bug in the work fails this request only
+                error = e;
+            }
+        }
+
+        void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private static volatile WriteScheduler shared;
+
+    private final BlockingQueue<Request<?>> queue;
+    private final int maxBatchSize;
+    private final long enqueueTimeoutMillis;
+    private final RetryPolicy retryPolicy;
+    private final String jdbcUrl; // null = follow UserAuth.getJdbcUrl()
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private Connection conn;
+    private String connUrl;
+
+    private final AtomicLong committedBatches = new AtomicLong();
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong busyRetries = new AtomicLong();
+    private final AtomicLong rejectedWrites = new AtomicLong();
+
+    public WriteScheduler(int queueCapacity, int maxBatchSize, long enqueueTimeoutMillis, RetryPolicy retryPolicy) {
+        this(queueCapacity, maxBatchSize, enqueueTimeoutMillis, retryPolicy, null);
+    }
+
+    /**
+     * Creates a scheduler that writes to the given database (e.g. one task shard) instead of the main one.
+     */
+    public WriteScheduler(int queueCapacity, int maxBatchSize, long enqueueTimeoutMillis, RetryPolicy retryPolicy, String jdbcUrl) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.retryPolicy = retryPolicy;
+        this.jdbcUrl = jdbcUrl;
+        this.writer = new Thread(this::runWriter, "taskapp-db-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Process-wide scheduler used by the default SQLite repository
+     * (queue of 1024, batches of up to 64, 2 s enqueue timeout, default retry policy).
+     */
+    public static WriteScheduler shared() {
+        WriteScheduler s = shared;
+        if (s == null) {
+            synchronized (WriteScheduler.class) {
+                s = shared;
+                if (s == null) {
+                    s = new WriteScheduler(1024, 64, 2000, RetryPolicy.defaultPolicy());
+                    shared = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Queues a write. The future completes after the batch containing it commits,
+     * or fails with the request's SQLException, or with RejectedExecutionException
+     * if the queue stayed full for enqueueTimeoutMillis.
+     */
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        Request<T> request = new Request<>(work);
+        if (!running) {
+            request.future.completeExceptionally(new RejectedExecutionException("Write scheduler is closed"));
+            return request.future;
+        }
+        try {
+            if (!queue.offer(request, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejectedWrites.incrementAndGet();
+                request.future.completeExceptionally(new RejectedExecutionException("Write queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.future.completeExceptionally(e);
+        }
+        return request.future;
+    }
+
+    /**
+     * Runs a write through the scheduler and waits for it; failures surface as SQLException.
+     */
+    public <T> T execute(SqlWork<T> work) throws SQLException {
+        try {
+            return submit(work).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException(cause.getMessage(), cause);
+        }
+    }
+
+    // --- Backpressure and metrics ---
+
+    public int getPendingWrites() { return queue.size(); }
+
+    /**
+     * True when the queue is at least 90% full; callers should slow down.
+     */
+    public boolean isBackpressured() {
+        return queue.remainingCapacity() * 10 < queue.size() + queue.remainingCapacity();
+    }
+
+    public long getCommittedBatches() { return committedBatches.get(); }
+    public long getCommittedWrites() { return committedWrites.get(); }
+    public long getBusyRetries() { return busyRetries.get(); }
+    public long getRejectedWrites() { return rejectedWrites.get(); }
+
+    // --- Writer thread ---
+
+    private void runWriter() {
+        List<Request<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Request<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commitBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+        closeConnection();
+    }
+
+    private void commitBatch(List<Request<?>> batch) {
+        SQLException lastError = null;
+        for (int attempt = 1; attempt <= retryPolicy.getMaxAttempts(); attempt++) {
+            if (attempt > 1) {
+                busyRetries.incrementAndGet();
+                sleep(retryPolicy.delayMillis(attempt - 1));
+            }
+            try {
+                Connection c = connection();
+                c.setAutoCommit(false);
+                try {
+                    for (Request<?> request : batch) {
+                        request.run(c);
+                    }
+                    c.commit();
+                } catch (SQLException | RuntimeException e) {
+                    c.rollback(); // before setAutoCommit(true), which would commit the partial batch
+                    throw e;
+                } finally {
+                    c.setAutoCommit(true);
+                }
+                committedBatches.incrementAndGet();
+                committedWrites.addAndGet(batch.size());
+                batch.forEach(Request::complete);
+                return;
+            } catch (SQLException e) {
+                lastError = e;
+                if (!RetryPolicy.isBusy(e)) {
+                    closeConnection(); // connection may be unusable; reopen for the next batch
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // Last resort: never let the writer thread die with callers waiting on this batch
+                TaskLog.error("Unexpected error committing write batch", e, "writes", batch.size());
+                closeConnection();
+                failAll(batch, e);
+                return;
+            }
+        }
+        failAll(batch, lastError);
+    }
+
+    private static void failAll(Iterable<Request<?>> requests, Throwable error) {
+        for (Request<?> request : requests) {
+            request.future.completeExceptionally(error);
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        String url = jdbcUrl != null ? jdbcUrl : UserAuth.getJdbcUrl();
+        if (conn == null || conn.isClosed() || !url.equals(connUrl)) {
+            closeConnection();
+            conn = UserAuth.getConnection(url);
+            connUrl = url;
+        }
+        return conn;
+    }
+
+    private void closeConnection() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                TaskLog.error("Error closing writer connection", e, "url", connUrl);
+            }
+            conn = null;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting writes, lets the writer drain the queue, then closes its connection.
+     * Requests still queued when the writer does not finish within 10 s are failed.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Request<?>> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        failAll(abandoned, new RejectedExecutionException("Write scheduler closed before the write ran"));
+    }
+}
@@ -0,0 +1,146 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.ColumnarTaskSnapshot;
+import taskapp.ColumnarTaskSnapshot.Aggregate;
+import taskapp.ColumnarTaskSnapshot.Query;
+import taskapp.SqliteTaskRepository;
+import taskapp.Task;
+import taskapp.UserAuth;
+
+class ColumnarTaskSnapshotTest {
+
+	@TempDir
+	Path tempDir;
+
+	private static final String[] PRIORITIES = { "High", "Medium", "Low" };
+
+	// RANDOM TASKS; 1000 ROWS SO THE LAST 64-ROW BLOCK IS PARTIAL
+	private List<Task> randomTasks(int count) {
+		Random random = new Random(42);
+		List<Task> tasks = new ArrayList<>();
+		for (int id = 1; id <= count; id++) {
+			tasks.add(new Task(id, "Title " + random.nextInt(20), null, PRIORITIES[random.nextInt(3)],
+					random.nextInt(5) + 1, "User", random.nextBoolean(), random.nextInt(101)));
+		}
+		return tasks;
+	}
+
+	// TEST THAT SCANS MATCH A PLAIN LOOP OVER TASK OBJECTS
+	@Test
+	void testScansMatchTaskList() {
+		List<Task> tasks = randomTasks(1000);
+		ColumnarTaskSnapshot snapshot = ColumnarTaskSnapshot.fromTasks(tasks);
+		Query query = new Query().priorities("High", "Low").status(Query.ACTIVE).progressBetween(20, 80).assignee(3);
+
+		List<Integer> expected = new ArrayList<>();
+		long progressSum = 0;
+		for (Task t : tasks) {
+			if (!t.getPriority().equals("Medium") && !t.isComplete() && t.getProgress() >= 20 && t.getProgress() <= 80
+					&& t.getAssignedToUserId() == 3) {
+				expected.add(t.getId());
+				progressSum += t.getProgress();
+			}
+		}
+
+		assertEquals(expected.size(), snapshot.count(query), "Count should match.");
+		Aggregate aggregate = snapshot.aggregate(query, new Aggregate());
+		assertEquals(progressSum, aggregate.getProgressSum(), "Progress sum should match.");
+		int[] ids = new int[1000];
+		int found = snapshot.selectIds(query, ids);
+		assertEquals(expected.size(), found, "Selected ID count should match.");
+		for (int i = 0; i < found; i++) {
+			assertEquals(expected.get(i).intValue(), ids[i], "Selected IDs should be in ID order.");
+		}
+		assertEquals(1000, snapshot.count(query.reset()), "Empty query should match every row.");
+		assertEquals(20, snapshot.getDistinctTitleCount(), "Titles should be dictionary-encoded.");
+	}
+
+	// TEST FOR TITLE AND PRIORITY GROUPING
+	@Test
+	void testTitleFilterAndGroupByPriority() {
+		List<Task> tasks = randomTasks(300);
+		ColumnarTaskSnapshot snapshot = ColumnarTaskSnapshot.fromTasks(tasks);
+		long expected = tasks.stream().filter(t -> t.getTitle().equals("Title 7")).count();
+
+		assertEquals(expected, snapshot.count(new Query().title("Title 7")), "Title filter should match.");
+		assertEquals(0, snapshot.count(new Query().title("Missing")), "Unknown title should match nothing.");
+		long[] counts = snapshot.countByPriority(new Query(), new long[3]);
+		assertEquals(tasks.stream().filter(t -> t.getPriority().equals("Low")).count(), counts[2], "Low count should match.");
+	}
+
+	// TEST THAT A BUILT SNAPSHOT CANNOT BE CHANGED THROUGH ITS BUILDER AND UNKNOWN PRIORITIES ARE REJECTED
+	@Test
+	void testBuilderUsedOnce() {
+		ColumnarTaskSnapshot.Builder builder = new ColumnarTaskSnapshot.Builder(4);
+		builder.add(1, "Title", "Low", 1, false, 10);
+		ColumnarTaskSnapshot snapshot = builder.build();
+
+		assertThrows(IllegalStateException.class, () -> builder.add(2, "Title", "High", 1, true, 100), "Adding after build should fail.");
+		assertThrows(IllegalStateException.class, builder::build, "Building twice should fail.");
+		assertEquals(1, snapshot.size(), "Snapshot should keep its rows.");
+		assertFalse(snapshot.isComplete(0), "Snapshot columns should be unchanged.");
+
+		ColumnarTaskSnapshot.Builder other = new ColumnarTaskSnapshot.Builder(4);
+		assertThrows(IllegalArgumentException.class, () -> other.add(1, "Title", "Urgent", 1, false, 0), "Unknown priority should be rejected.");
+	}
+
+	// TEST THAT SCANS DO NOT ALLOCATE ON THE HEAP
+	@Test
+	void testScansDoNotAllocate() {
+		ColumnarTaskSnapshot snapshot = ColumnarTaskSnapshot.fromTasks(randomTasks(10_000));
+		Query query = new Query().priorities("High").status(Query.COMPLETE).progressBetween(10, 90).title("Title 3");
+		Aggregate aggregate = new Aggregate();
+		long[] counts = new long[3];
+		int[] ids = new int[10_000];
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int i = 0; i < 200; i++) { // warm up
+			snapshot.aggregate(query, aggregate);
+			snapshot.countByPriority(query, counts);
+			snapshot.selectIds(query, ids);
+		}
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < 200; i++) {
+			snapshot.aggregate(query, aggregate);
+			snapshot.countByPriority(query, counts);
+			snapshot.selectIds(query, ids);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+		assertTrue(allocated < 10_000, "Scans should not allocate per row (allocated " + allocated + " bytes).");
+	}
+
+	// TEST THAT THE SQLITE REPOSITORY STREAMS COLUMNS FROM THE TABLE
+	@Test
+	void testBuildFromDatabase() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("tasks.db"));
+		try {
+			SqliteTaskRepository repository = new SqliteTaskRepository();
+			repository.initialize();
+			repository.createTask("Report", "Description", "Medium", 2);
+			int done = repository.createTask("Report", "Description", "High", 1);
+			repository.editTask(done, "Report", "Description", "High", 1, true, 100);
+
+			ColumnarTaskSnapshot snapshot = repository.getColumnarSnapshot();
+			assertEquals(2, snapshot.size(), "Every task should be loaded.");
+			assertEquals(1, snapshot.getDistinctTitleCount(), "Repeated title should be stored once.");
+			assertTrue(snapshot.isComplete(1), "Completion bit should be set.");
+			assertEquals("Medium", snapshot.getPriority(0), "Priority should be decoded.");
+			assertEquals(100, snapshot.aggregate(new Query().status(Query.COMPLETE), new Aggregate()).getMaxProgress(),
+					"Aggregate should read progress.");
+		} finally {
+			UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+		}
+	}
+
+}
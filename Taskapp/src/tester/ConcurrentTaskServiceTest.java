@@ -0,0 +1,485 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.RetryPolicy;
+import taskapp.SqliteTaskRepository;
+import taskapp.Task;
+import taskapp.TaskLog;
+import taskapp.TaskService;
+import taskapp.TaskStatistics;
+import taskapp.UserAuth;
+import taskapp.WriteScheduler;
+
+/**
+ * Many users on one task database at once. Worker threads, spread over several app instances that
+ * each have their own WriteScheduler (like separate processes sharing task_manager.db), run random
+ * creates, edits, deletes and reads through TaskService. Every call is recorded with the times it
+ * was invoked and returned, and each task's history is checked for linearizability against a
+ * sequential model, ending with a read of the final state. Runs also log throughput, latency and
+ * SQLITE_BUSY counts.
+ *
+ * The seed is logged with each run; repeat a failing run with -Dtaskapp.stress.seed=SEED.
+ */
+class ConcurrentTaskServiceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private static final long SEED = Long.getLong("taskapp.stress.seed", System.nanoTime());
+	// Timing depends on the machine, so the throughput bound is only asserted with -Dtaskapp.stress.checkThroughput=true
+	private static final boolean CHECK_THROUGHPUT = Boolean.getBoolean("taskapp.stress.checkThroughput");
+	private static final String[] PRIORITIES = { "High", "Medium", "Low" };
+
+	// ERRORS LOGGED BY THE CURRENT THREAD (A FAILED CALL'S OUTCOME IS UNKNOWN)
+	private static final ThreadLocal<int[]> ERRORS = ThreadLocal.withInitial(() -> new int[1]);
+
+	private final AtomicLong busyErrors = new AtomicLong();
+	private final Handler errorCounter = new Handler() {
+		@Override
+		public void publish(LogRecord record) {
+			if (record.getLevel() == Level.SEVERE) {
+				ERRORS.get()[0]++;
+				if (isBusy(record.getThrown())) {
+					busyErrors.incrementAndGet();
+				}
+			}
+		}
+
+		@Override
+		public void flush() {}
+
+		@Override
+		public void close() {}
+	};
+
+	private int[] userIds;
+
+	@BeforeEach
+	void setup() {
+		TaskLog.getLogger().addHandler(errorCounter);
+	}
+
+	@AfterEach
+	void teardown() {
+		TaskLog.getLogger().removeHandler(errorCounter);
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// --- Model ---
+
+	private record TaskState(boolean present, int version, String description, String priority, int assignee,
+			boolean complete, int progress) {
+
+		// NOT CREATED YET, AND DELETED (WHICH CANNOT BE CREATED AGAIN, AS IDS ARE NOT REUSED)
+		static final TaskState ABSENT = new TaskState(false, -1, null, null, 0, false, 0);
+		static final TaskState DELETED = new TaskState(false, Integer.MAX_VALUE, null, null, 0, false, 0);
+
+		static TaskState of(Task task) {
+			return new TaskState(true, task.getVersion(), task.getDescription(), task.getPriority(),
+					task.getAssignedToUserId(), task.isComplete(), task.getProgress());
+		}
+
+		TaskState withVersion(int newVersion) {
+			return new TaskState(true, newVersion, description, priority, assignee, complete, progress);
+		}
+	}
+
+	private enum Kind { CREATE, EDIT, OVERWRITE, DELETE, READ, READ_DESCRIPTION }
+
+	private static final class TaskOp extends LinearizabilityChecker.Op<TaskState> {
+		final Kind kind;
+		final TaskState value; // written, or observed by a read
+		final int expectedVersion;
+		final Object result;
+
+		TaskOp(Kind kind, TaskState value, int expectedVersion, Object result, long call, long ret) {
+			super(call, ret);
+			this.kind = kind;
+			this.value = value;
+			this.expectedVersion = expectedVersion;
+			this.result = result;
+		}
+
+		@Override
+		public String toString() {
+			return kind + "(" + value + ", expected=" + expectedVersion + ") -> " + result + " [" + call + ", "
+					+ (isDetermined() ? ret : "?") + "]";
+		}
+	}
+
+	// SEQUENTIAL SPECIFICATION OF ONE TASK; OPERATIONS WITH AN UNKNOWN OUTCOME ARE MODELLED AS SUCCEEDING
+	private static TaskState step(TaskState state, LinearizabilityChecker.Op<TaskState> op) {
+		TaskOp task = (TaskOp) op;
+		boolean present = state.present();
+		switch (task.kind) {
+		case CREATE:
+			return present || state.version() >= 0 ? null : task.value;
+		case EDIT:
+			if (task.result == TaskService.EditResult.CONFLICT) {
+				return present && state.version() != task.expectedVersion ? state : null;
+			}
+			if (task.result == TaskService.EditResult.NOT_FOUND) {
+				return present ? null : state;
+			}
+			return present && state.version() == task.expectedVersion ? task.value.withVersion(state.version() + 1) : null;
+		case OVERWRITE:
+			if (Boolean.FALSE.equals(task.result)) {
+				return present ? null : state;
+			}
+			return present ? task.value.withVersion(state.version() + 1) : null;
+		case DELETE:
+			if (Boolean.FALSE.equals(task.result)) {
+				return present ? null : state;
+			}
+			return present ? TaskState.DELETED : null;
+		case READ:
+			return task.value.present() ? (task.value.equals(state) ? state : null) : (present ? null : state);
+		case READ_DESCRIPTION:
+			return task.value.present() ? (present && task.value.description().equals(state.description()) ? state : null)
+					: (present ? null : state);
+		default:
+			throw new IllegalStateException(task.kind.name());
+		}
+	}
+
+	// --- Harness ---
+
+	private record Snapshot(Map<String, TaskState> byTitle, long call, long ret) {}
+
+	private static final class Run {
+		final Map<String, List<TaskOp>> opsByTitle = new HashMap<>();
+		final List<Snapshot> snapshots = new ArrayList<>();
+		final List<Long> latencies = new ArrayList<>();
+		long unknownOutcomes;
+		long failedReads;
+		long busyRetries;
+		long busyErrors;
+		long committedBatches;
+		long committedWrites;
+		long elapsedNanos;
+		Snapshot finalState;
+		List<Task> finalTasks;
+
+		synchronized void add(String title, TaskOp op) {
+			opsByTitle.computeIfAbsent(title, t -> new ArrayList<>()).add(op);
+			latencies.add(op.ret == Long.MAX_VALUE ? 0 : op.ret - op.call);
+			if (!op.isDetermined()) {
+				unknownOutcomes++;
+			}
+		}
+
+		synchronized void add(Snapshot snapshot) {
+			snapshots.add(snapshot);
+			latencies.add(snapshot.ret - snapshot.call);
+		}
+
+		synchronized void readFailed(long call, long ret) {
+			failedReads++;
+			latencies.add(ret - call);
+		}
+
+		int operations() { return latencies.size(); }
+
+		double opsPerSecond() { return operations() * 1e9 / elapsedNanos; }
+
+		long latencyMicros(double percentile) {
+			long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+			return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)] / 1000;
+		}
+	}
+
+	// FRESH DATABASE WITH TWO USERS
+	private TaskService prepareDatabase(String name) {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve(name));
+		UserAuth.createUsersTable();
+		userIds = new int[] {
+			UserAuth.registerUser("alice", "alice-pass").orElseThrow().getId(),
+			UserAuth.registerUser("bob", "bob-pass").orElseThrow().getId()
+		};
+		TaskService admin = new TaskService(new SqliteTaskRepository());
+		admin.createTasksTable();
+		return admin;
+	}
+
+	// RUNS THREADS WORKERS OVER INSTANCES APP INSTANCES, OPERATIONS CALLS EACH
+	private Run run(String database, int threads, int instances, int operations) throws Exception {
+		TaskService admin = prepareDatabase(database);
+		List<WriteScheduler> schedulers = new ArrayList<>();
+		List<TaskService> services = new ArrayList<>();
+		for (int i = 0; i < instances; i++) {
+			WriteScheduler scheduler = new WriteScheduler(1024, 64, 2000, RetryPolicy.defaultPolicy());
+			schedulers.add(scheduler);
+			services.add(new TaskService(new SqliteTaskRepository(null, scheduler)));
+		}
+		busyErrors.set(0);
+
+		Run run = new Run();
+		CyclicBarrier start = new CyclicBarrier(threads + 1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int w = 0; w < threads; w++) {
+			int worker = w;
+			TaskService service = services.get(w % instances);
+			workers.add(pool.submit(() -> {
+				start.await();
+				work(service, worker, operations, new Random(SEED + worker), run);
+				return null;
+			}));
+		}
+		start.await();
+		long begin = System.nanoTime();
+		for (Future<?> worker : workers) {
+			worker.get(2, TimeUnit.MINUTES);
+		}
+		run.elapsedNanos = System.nanoTime() - begin;
+		pool.shutdown();
+		for (WriteScheduler scheduler : schedulers) {
+			scheduler.close();
+			run.busyRetries += scheduler.getBusyRetries();
+			run.committedBatches += scheduler.getCommittedBatches();
+			run.committedWrites += scheduler.getCommittedWrites();
+		}
+		run.busyErrors = busyErrors.get();
+
+		// FINAL STATE, READ AFTER EVERY WORKER HAS RETURNED
+		long call = System.nanoTime();
+		run.finalTasks = admin.getAllTasks();
+		run.finalState = new Snapshot(byTitle(run.finalTasks), call, System.nanoTime());
+
+		TaskLog.info("Concurrent task service run", "seed", SEED, "threads", threads, "instances", instances,
+				"operations", run.operations(), "opsPerSecond", Math.round(run.opsPerSecond()),
+				"p50Micros", run.latencyMicros(0.5), "p99Micros", run.latencyMicros(0.99),
+				"batches", run.committedBatches, "writes", run.committedWrites, "busyRetries", run.busyRetries,
+				"busyErrors", run.busyErrors, "unknownOutcomes", run.unknownOutcomes, "failedReads", run.failedReads);
+		return run;
+	}
+
+	// ONE USER: RANDOM OPERATIONS ON THE TASKS IT LAST SAW
+	private void work(TaskService service, int worker, int operations, Random random, Run run) {
+		Map<Integer, Task> seen = new LinkedHashMap<>();
+		for (int n = 0; n < operations; n++) {
+			int roll = random.nextInt(100);
+			Task target = seen.isEmpty() ? null : new ArrayList<>(seen.values()).get(random.nextInt(seen.size()));
+			String priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+			int assignee = userIds[random.nextInt(userIds.length)];
+			String description = "w" + worker + "-" + n;
+			int[] errors = ERRORS.get();
+			int errorsBefore = errors[0];
+			long call = System.nanoTime();
+
+			if (roll >= 75) {
+				List<Task> tasks = service.getAllTasks();
+				long ret = System.nanoTime();
+				if (errors[0] > errorsBefore) {
+					run.readFailed(call, ret);
+				} else {
+					run.add(new Snapshot(byTitle(tasks), call, ret));
+					seen.clear();
+					tasks.forEach(task -> seen.put(task.getId(), task));
+				}
+			} else if (target == null || roll < 15) {
+				String title = "Task " + description;
+				boolean created = service.createTask(title, description, priority, assignee);
+				long ret = created ? System.nanoTime() : Long.MAX_VALUE;
+				run.add(title, new TaskOp(Kind.CREATE, new TaskState(true, 0, description, priority, assignee, false, 0),
+						-1, created, call, ret));
+			} else if (roll < 45) {
+				boolean complete = random.nextInt(4) == 0;
+				int progress = random.nextInt(101);
+				TaskService.EditResult result = service.editTask(target.getId(), target.getVersion(), target.getTitle(),
+						description, priority, assignee, complete, progress);
+				long ret = result == TaskService.EditResult.FAILED ? Long.MAX_VALUE : System.nanoTime();
+				run.add(target.getTitle(), new TaskOp(Kind.EDIT,
+						new TaskState(true, 0, description, priority, assignee, complete, progress), target.getVersion(), result, call, ret));
+				if (result == TaskService.EditResult.UPDATED) {
+					target.setVersion(target.getVersion() + 1);
+				} else if (result == TaskService.EditResult.NOT_FOUND) {
+					seen.remove(target.getId());
+				}
+			} else if (roll < 55) {
+				int progress = random.nextInt(101);
+				boolean edited = service.editTask(target.getId(), target.getTitle(), description, priority, assignee, false, progress);
+				boolean known = errors[0] == errorsBefore;
+				run.add(target.getTitle(), new TaskOp(Kind.OVERWRITE, new TaskState(true, 0, description, priority, assignee, false, progress),
+						-1, edited || !known, call, known ? System.nanoTime() : Long.MAX_VALUE));
+			} else if (roll < 65) {
+				boolean deleted = service.deleteTask(target.getId());
+				boolean known = errors[0] == errorsBefore;
+				run.add(target.getTitle(), new TaskOp(Kind.DELETE, null, -1, deleted || !known, call, known ? System.nanoTime() : Long.MAX_VALUE));
+				seen.remove(target.getId());
+			} else if (roll < 75) {
+				Optional<String> text = service.getTaskDescription(target.getId());
+				long ret = System.nanoTime();
+				if (errors[0] > errorsBefore) {
+					run.readFailed(call, ret); // an empty result would be a guess
+				} else {
+					TaskState observed = text.map(d -> new TaskState(true, 0, d, null, 0, false, 0)).orElse(TaskState.ABSENT);
+					run.add(target.getTitle(), new TaskOp(Kind.READ_DESCRIPTION, observed, -1, text.isPresent(), call, ret));
+				}
+			}
+		}
+	}
+
+	// STATE OF EACH TASK AS READ (THE WORKER UPDATES ITS OWN COPIES AFTERWARDS)
+	private static Map<String, TaskState> byTitle(List<Task> tasks) {
+		Map<String, TaskState> byTitle = new HashMap<>();
+		for (Task task : tasks) {
+			assertNull(byTitle.put(task.getTitle(), TaskState.of(task)), "Each created title should appear once: " + task.getTitle());
+		}
+		return byTitle;
+	}
+
+	// ADDS EVERY BOARD READ TO THE HISTORY OF EACH TASK IT SAYS SOMETHING ABOUT, THEN CHECKS EACH TASK
+	private List<String> nonLinearizableTasks(Run run) {
+		List<Snapshot> reads = new ArrayList<>(run.snapshots);
+		reads.add(run.finalState);
+		List<String> failures = new ArrayList<>();
+		LinearizabilityChecker<TaskState> checker = new LinearizabilityChecker<>(ConcurrentTaskServiceTest::step, TaskState.ABSENT);
+
+		for (Map.Entry<String, List<TaskOp>> entry : run.opsByTitle.entrySet()) {
+			String title = entry.getKey();
+			List<TaskOp> history = new ArrayList<>(entry.getValue());
+			long created = history.stream().filter(op -> op.kind == Kind.CREATE).mapToLong(op -> op.call).min().orElse(Long.MAX_VALUE);
+			long lastWrite = history.stream().filter(op -> op.kind != Kind.READ_DESCRIPTION).mapToLong(op -> op.ret).max().orElse(0);
+			for (Snapshot read : reads) {
+				TaskState observed = read.byTitle().get(title);
+				boolean relevant = observed != null || read == run.finalState || (read.ret() > created && read.call() < lastWrite);
+				if (relevant) {
+					history.add(new TaskOp(Kind.READ, observed == null ? TaskState.ABSENT : observed, -1, null, read.call(), read.ret()));
+				}
+			}
+			if (!checker.isLinearizable(history)) {
+				history.sort((a, b) -> Long.compare(a.call, b.call));
+				failures.add(title + ": " + history);
+			}
+		}
+		// ANY TASK IN THE FINAL STATE MUST COME FROM A RECORDED CREATE
+		for (String title : run.finalState.byTitle().keySet()) {
+			if (!run.opsByTitle.containsKey(title)) {
+				failures.add(title + ": never created");
+			}
+		}
+		return failures;
+	}
+
+	// STATISTICS AND HISTORY MUST AGREE WITH THE FINAL ROWS (THEY ARE WRITTEN IN THE SAME TRANSACTIONS)
+	private void assertDerivedDataConsistent(Run run) {
+		TaskService service = new TaskService(new SqliteTaskRepository());
+		List<Task> tasks = run.finalTasks;
+		TaskStatistics stats = service.getTaskStatistics();
+		assertEquals(tasks.size(), stats.getTotal().getCount(), "Statistics should count every task.");
+		for (String priority : PRIORITIES) {
+			long expected = tasks.stream().filter(t -> t.getPriority().equals(priority)).count();
+			assertEquals(expected, stats.getByPriority(priority).getCount(), "Statistics should match for priority " + priority + ".");
+		}
+		for (Task task : tasks) {
+			Task replayed = service.getTaskAsOf(task.getId(), Long.MAX_VALUE).orElse(null);
+			assertNotNull(replayed, "History should rebuild task " + task.getId() + ".");
+			assertEquals(Arrays.asList(task.getTitle(), task.getDescription(), task.getPriority(), task.getAssignedToUserId(), task.isComplete(), task.getProgress()),
+					Arrays.asList(replayed.getTitle(), replayed.getDescription(), replayed.getPriority(), replayed.getAssignedToUserId(), replayed.isComplete(), replayed.getProgress()),
+					"History should end at the stored row for task " + task.getId() + ".");
+		}
+	}
+
+	private static String describe(List<String> failures) {
+		return failures.size() + " task(s), first " + (failures.isEmpty() ? "none" : failures.get(0));
+	}
+
+	private static boolean isBusy(Throwable error) {
+		for (Throwable e = error; e != null; e = e.getCause()) {
+			if (e instanceof SQLException && RetryPolicy.isBusy((SQLException) e)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// --- Tests ---
+
+	// TEST THAT THE CHECKER ACCEPTS OVERLAPPING OPERATIONS IN EITHER ORDER AND REJECTS A STALE READ
+	@Test
+	void testCheckerFindsStaleRead() {
+		LinearizabilityChecker<TaskState> checker = new LinearizabilityChecker<>(ConcurrentTaskServiceTest::step, TaskState.ABSENT);
+		TaskState created = new TaskState(true, 0, "a", "Low", 1, false, 0);
+		TaskState edited = new TaskState(true, 0, "b", "Low", 1, false, 0);
+		TaskOp create = new TaskOp(Kind.CREATE, created, -1, true, 0, 10);
+		TaskOp edit = new TaskOp(Kind.EDIT, edited, 0, TaskService.EditResult.UPDATED, 20, 40);
+		TaskOp readOld = new TaskOp(Kind.READ, created, -1, null, 30, 50);
+		TaskOp readNew = new TaskOp(Kind.READ, edited.withVersion(1), -1, null, 30, 50);
+		TaskOp staleRead = new TaskOp(Kind.READ, created, -1, null, 45, 60);
+		TaskOp lostDelete = new TaskOp(Kind.DELETE, null, -1, Boolean.TRUE, 70, Long.MAX_VALUE);
+		TaskOp readAfterDelete = new TaskOp(Kind.READ, TaskState.ABSENT, -1, null, 80, 90);
+
+		assertTrue(checker.isLinearizable(List.of(create, edit, readOld)), "A read overlapping the edit may see the old value.");
+		assertTrue(checker.isLinearizable(List.of(create, edit, readNew)), "A read overlapping the edit may see the new value.");
+		assertFalse(checker.isLinearizable(List.of(create, edit, staleRead)), "A read after the edit returned must see it.");
+		assertTrue(checker.isLinearizable(List.of(create, edit, lostDelete, readAfterDelete)), "A failed delete may have taken effect.");
+		assertTrue(checker.isLinearizable(List.of(create, edit, lostDelete, new TaskOp(Kind.READ, edited.withVersion(1), -1, null, 80, 90))),
+				"A failed delete may also not have taken effect.");
+		assertFalse(checker.isLinearizable(List.of(create, new TaskOp(Kind.CREATE, created, -1, true, 5, 15))),
+				"A task cannot be created twice.");
+	}
+
+	// TEST THAT CONCURRENT USERS ON TWO APP INSTANCES SEE A LINEARIZABLE HISTORY AND CONSISTENT DERIVED DATA
+	@Test
+	void testLinearizableUnderContention() throws Exception {
+		Run run = run("contention.db", 24, 2, 60);
+
+		List<String> failures = nonLinearizableTasks(run);
+		assertTrue(failures.isEmpty(), "History should be linearizable (seed " + SEED + "): " + describe(failures));
+		assertFalse(run.finalState.byTitle().isEmpty(), "Some tasks should survive the run.");
+		assertDerivedDataConsistent(run);
+	}
+
+	// TEST THAT HISTORIES STAY LINEARIZABLE AS USERS ARE ADDED AND THAT BUSY DATABASES ARE RETRIED, NOT SURFACED AS LOST WRITES;
+	// THROUGHPUT IS LOGGED AND ONLY ASSERTED ON REQUEST
+	@Test
+	void testThroughputUnderIncreasingConcurrency() throws Exception {
+		int totalOperations = 960;
+		Map<Integer, Run> runs = new LinkedHashMap<>();
+		for (int threads : new int[] { 1, 4, 16, 32 }) {
+			Run run = run("scaling-" + threads + ".db", threads, 1, totalOperations / threads);
+			runs.put(threads, run);
+			List<String> failures = nonLinearizableTasks(run);
+			assertTrue(failures.isEmpty(), "History with " + threads + " threads should be linearizable (seed " + SEED + "): " + describe(failures));
+		}
+		double single = runs.get(1).opsPerSecond();
+		double most = runs.get(32).opsPerSecond();
+		TaskLog.info("Concurrent task service scaling", "seed", SEED, "opsPerSecond1", Math.round(single),
+				"opsPerSecond32", Math.round(most), "ratio", Math.round(most / single * 100) / 100.0);
+		if (most <= single * 0.5) {
+			TaskLog.warn("Throughput with 32 users collapsed", "opsPerSecond1", Math.round(single), "opsPerSecond32", Math.round(most));
+		}
+		if (CHECK_THROUGHPUT)
+			assertTrue(most > single * 0.5, "Throughput with 32 users should not collapse: " + Math.round(single) + " -> " + Math.round(most) + " ops/s.");
+		for (Run run : runs.values()) {
+			assertEquals(0, run.unknownOutcomes, "One app instance should never lose a write to SQLITE_BUSY.");
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.DatabaseMaintenance;
+import taskapp.DatabaseMaintenance.Job;
+import taskapp.DatabaseMaintenance.Outcome;
+import taskapp.DatabaseMaintenance.Run;
+import taskapp.InMemoryTaskRepository;
+import taskapp.ShardRouter;
+import taskapp.ShardedTaskRepository;
+import taskapp.SqliteTaskRepository;
+import taskapp.UserAuth;
+
+class DatabaseMaintenanceTest {
+
+	@TempDir
+	Path tempDir;
+
+	private Path dbFile;
+	private final AtomicLong clock = new AtomicLong(1_000_000L);
+	private final AtomicLong activity = new AtomicLong();
+
+	// TEMPORARY DATABASE WITH THE TASK SCHEMA
+	@BeforeEach
+	void setup() {
+		dbFile = tempDir.resolve("tasks.db");
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + dbFile);
+		new SqliteTaskRepository().initialize();
+	}
+
+	@AfterEach
+	void teardown() {
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	private DatabaseMaintenance maintenance(DatabaseMaintenance.Policy policy) {
+		return new DatabaseMaintenance(null, policy, activity::get, clock::get);
+	}
+
+	private static DatabaseMaintenance.Policy policy() {
+		return DatabaseMaintenance.Policy.defaultPolicy().withIdle(30_000).withFreePages(100, 50);
+	}
+
+	// FILLS AND DROPS A SCRATCH TABLE, LEAVING ABOUT 2 MB OF FREE PAGES
+	private static void churn(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE scratch (data BLOB)");
+		}
+		try (PreparedStatement insert = conn.prepareStatement("INSERT INTO scratch VALUES (?)")) {
+			for (int i = 0; i < 500; i++) {
+				insert.setBytes(1, new byte[4000]);
+				insert.executeUpdate();
+			}
+		}
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("DROP TABLE scratch");
+		}
+	}
+
+	private static Run find(List<Run> runs, Job job) {
+		return runs.stream().filter(run -> run.getJob() == job).findFirst().orElse(null);
+	}
+
+	// TEST THAT NOTHING RUNS UNTIL THE DATABASE HAS BEEN IDLE LONG ENOUGH
+	@Test
+	void testRunsOnlyWhenIdle() {
+		DatabaseMaintenance maintenance = maintenance(policy());
+		clock.addAndGet(10_000);
+		assertTrue(maintenance.runIfIdle().isEmpty(), "Should wait for the idle period.");
+
+		clock.addAndGet(25_000);
+		activity.incrementAndGet();
+		assertTrue(maintenance.runIfIdle().isEmpty(), "A write should restart the idle period.");
+		clock.addAndGet(20_000);
+		assertTrue(maintenance.runIfIdle().isEmpty(), "Should still wait after the write.");
+
+		clock.addAndGet(10_000);
+		List<Run> runs = maintenance.runIfIdle();
+		assertNotNull(find(runs, Job.OPTIMIZE), "Statistics should be refreshed once idle.");
+		assertNotNull(find(runs, Job.INTEGRITY_CHECK), "Integrity should be checked once idle.");
+		assertEquals("ok", find(runs, Job.INTEGRITY_CHECK).getDetail(), "Fresh database should pass the check.");
+		assertNull(find(runs, Job.VACUUM), "Nothing to vacuum in a fresh database.");
+		assertNull(find(runs, Job.CHECKPOINT), "No WAL to checkpoint in rollback journal mode.");
+
+		clock.addAndGet(60_000);
+		assertTrue(maintenance.runIfIdle().isEmpty(), "Jobs should not repeat before their interval.");
+		assertEquals(1, maintenance.getRunCount(Job.OPTIMIZE), "Optimize should have run once.");
+	}
+
+	// TEST THAT A RUN STOPS AS SOON AS THE DATABASE IS USED AGAIN
+	@Test
+	void testStopsWhenUsedDuringRun() {
+		AtomicInteger checks = new AtomicInteger();
+		// unchanged for the constructor, the idle check and the first job; moved from then on
+		DatabaseMaintenance maintenance = new DatabaseMaintenance(null, policy(), () -> checks.incrementAndGet() > 3 ? 1 : 0, clock::get);
+		clock.addAndGet(60_000);
+		List<Run> runs = maintenance.runIfIdle();
+		assertNotNull(find(runs, Job.OPTIMIZE), "First job should run while idle.");
+		assertNull(find(runs, Job.INTEGRITY_CHECK), "Later jobs should wait for the next idle period.");
+	}
+
+	// TEST THAT EVERY DATABASE FILE OF THE REPOSITORY IS MAINTAINED AND READS COUNT AS ACTIVITY
+	@Test
+	void testForRepository() {
+		SqliteTaskRepository single = new SqliteTaskRepository();
+		long before = single.getActivityCount();
+		single.getAllTasks();
+		assertTrue(single.getActivityCount() > before, "A read should count as activity.");
+		assertEquals(1, DatabaseMaintenance.forRepository(single, policy()).size(), "One database should get one maintenance.");
+		assertTrue(DatabaseMaintenance.forRepository(new InMemoryTaskRepository(), policy()).isEmpty(), "In-memory tasks need no maintenance.");
+
+		try (ShardedTaskRepository sharded = new ShardedTaskRepository(3, ShardRouter.hashed())) {
+			assertEquals(3, DatabaseMaintenance.forRepository(sharded, policy()).size(), "Every shard should be maintained.");
+		}
+	}
+
+	// TEST THAT FREE PAGES ARE RETURNED: ONE FULL VACUUM, THEN INCREMENTAL STEPS
+	@Test
+	void testFreePagesAreReclaimed() throws Exception {
+		DatabaseMaintenance maintenance = maintenance(policy());
+		try (Connection conn = UserAuth.getConnection()) {
+			churn(conn);
+		}
+		long sizeBefore = Files.size(dbFile);
+		Run vacuum = find(maintenance.runDue(), Job.VACUUM);
+		assertNotNull(vacuum, "Free pages over the threshold should trigger a vacuum.");
+		assertEquals(Outcome.DONE, vacuum.getOutcome(), "Vacuum should succeed: " + vacuum);
+		assertTrue(Files.size(dbFile) < sizeBefore / 4, "File should shrink after the vacuum.");
+		assertTrue(vacuum.getDurationMillis() >= 0, "Duration should be recorded.");
+
+		try (Connection conn = UserAuth.getConnection()) {
+			churn(conn);
+		}
+		Run step = find(maintenance.runDue(), Job.INCREMENTAL_VACUUM);
+		assertNotNull(step, "Converted database should be vacuumed incrementally.");
+		assertEquals(Outcome.DONE, step.getOutcome(), "Incremental vacuum should succeed: " + step);
+		assertTrue(step.getDetail().startsWith("freed 50 "), "Each run should free at most the configured pages: " + step);
+		assertTrue(maintenance.getLastStatus().isIncrementalVacuum(), "Database should now use incremental auto_vacuum.");
+
+		while (find(maintenance.runDue(), Job.INCREMENTAL_VACUUM) != null) {
+			// keep stepping until under the threshold
+		}
+		assertTrue(maintenance.getLastStatus().getFreePages() < 100, "Free pages should end under the threshold.");
+		assertTrue(maintenance.getRunCount(Job.INCREMENTAL_VACUUM) > 1, "Reclaiming should take several runs.");
+		assertEquals(maintenance.getRecentRuns().size(), maintenance.getRecentRuns().stream().filter(run -> run.getOutcome() == Outcome.DONE).count(), "All runs should succeed.");
+	}
+
+	// TEST THAT A LARGE WAL IS CHECKPOINTED AND TRUNCATED
+	@Test
+	void testWalCheckpoint() throws Exception {
+		Path wal = Path.of(dbFile + "-wal");
+		try (Connection holder = UserAuth.getConnection()) { // keeps the WAL from being removed on close
+			try (Statement stmt = holder.createStatement()) {
+				stmt.execute("PRAGMA journal_mode = WAL");
+			}
+			churn(holder);
+			assertTrue(Files.size(wal) > 64 * 1024, "Writes should grow the WAL.");
+
+			DatabaseMaintenance maintenance = maintenance(policy().withWalBytes(64 * 1024));
+			Run checkpoint = find(maintenance.runDue(), Job.CHECKPOINT);
+			assertNotNull(checkpoint, "WAL over the threshold should be checkpointed.");
+			assertEquals(Outcome.DONE, checkpoint.getOutcome(), "Checkpoint should succeed: " + checkpoint);
+			assertTrue(Files.size(wal) < 64 * 1024, "WAL should be truncated.");
+			assertTrue(maintenance.getLastStatus().isWal(), "Status should report WAL mode.");
+		}
+	}
+}
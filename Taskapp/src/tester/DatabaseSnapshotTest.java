@@ -0,0 +1,84 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.DatabaseSnapshot;
+import taskapp.SqliteTaskRepository;
+import taskapp.TaskService;
+import taskapp.UserAuth;
+
+class DatabaseSnapshotTest {
+
+	@TempDir
+	Path tempDir;
+
+	private TaskService taskService;
+
+	// POINT THE APP AT A TEMPORARY DATABASE FOR EACH TEST
+	@BeforeEach
+	void setup() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("tasks.db"));
+		taskService = new TaskService(new SqliteTaskRepository());
+		taskService.createTasksTable();
+	}
+
+	@AfterEach
+	void teardown() {
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// TEST THAT SNAPSHOT READS ARE ISOLATED FROM LATER WRITES
+	@Test
+	void testSnapshotIsPointInTime() {
+		taskService.createTask("Before Snapshot", "Description", "High", 1);
+
+		try (DatabaseSnapshot snapshot = new DatabaseSnapshot(tempDir.resolve("snapshot.db"))) {
+			assertTrue(snapshot.refresh(), "Snapshot should be taken.");
+			TaskService reportService = new TaskService(snapshot);
+			int before = reportService.getAllTasks().size();
+
+			// WRITE TO MAIN DATABASE AFTER SNAPSHOT
+			taskService.createTask("After Snapshot", "Description", "High", 1);
+
+			assertEquals(before, reportService.getAllTasks().size(), "Snapshot should not see later writes.");
+			assertEquals(before + 1, taskService.getAllTasks().size(), "Main database should see later writes.");
+
+			// REFRESH PICKS UP NEW WRITES
+			assertTrue(snapshot.refresh(), "Snapshot should be refreshed.");
+			assertEquals(before + 1, reportService.getAllTasks().size(), "Refreshed snapshot should see writes.");
+		}
+	}
+
+	// TEST THAT A REFRESH KEEPS THE VERSION OPEN READERS USE AND DELETES IT ONCE THEY CLOSE
+	@Test
+	void testOldVersionDeletedAfterReadersClose() throws Exception {
+		taskService.createTask("Task", "Description", "High", 1);
+
+		try (DatabaseSnapshot snapshot = new DatabaseSnapshot(tempDir.resolve("snapshot.db"))) {
+			assertTrue(snapshot.refresh(), "Snapshot should be taken.");
+			Path first = snapshot.getSnapshotFile();
+			try (Connection reader = snapshot.getConnection()) {
+				assertTrue(snapshot.refresh(), "Refresh should succeed while the old version is read.");
+				assertNotEquals(first, snapshot.getSnapshotFile(), "Refresh should write a new version file.");
+				assertTrue(Files.exists(first), "Old version should stay while a reader has it open.");
+				try (Statement stmt = reader.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM tasks")) {
+					assertTrue(rs.next() && rs.getInt(1) == 1, "Reader should still see its version.");
+				}
+			}
+			assertFalse(Files.exists(first), "Old version should be deleted once its reader closes.");
+			assertTrue(Files.exists(snapshot.getSnapshotFile()), "Current version should remain.");
+		}
+	}
+
+}
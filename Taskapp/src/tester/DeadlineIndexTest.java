@@ -0,0 +1,86 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import taskapp.DeadlineIndex;
+import taskapp.DeadlineScheduler;
+import taskapp.Task;
+
+class DeadlineIndexTest {
+
+	// TEST FOR OVERDUE AND UPCOMING RANGES
+	@Test
+	void testRangeQueries() {
+		DeadlineIndex index = new DeadlineIndex();
+		index.putTask(1, 100L, false);
+		index.putTask(2, 200L, false);
+		index.putTask(3, 300L, true);
+		index.putTask(4, null, false);
+
+		assertEquals(List.of(1), index.getOverdue(150), "Only task 1 should be overdue.");
+		assertEquals(List.of(1, 2), index.getDueBetween(0, 250), "Tasks should be ordered by due date.");
+		assertEquals(Long.valueOf(100), index.getNextDeadline(), "Earliest deadline should be first.");
+		assertEquals(Long.valueOf(200), index.getNextDeadlineAfter(100), "Next deadline should skip reported ones.");
+		assertEquals(2, index.size(), "Completed and undated tasks should not be indexed.");
+	}
+
+	// TEST THAT COMPLETION AND MOVES UPDATE THE INDEX
+	@Test
+	void testCompleteAndMove() {
+		DeadlineIndex index = new DeadlineIndex();
+		index.putTask(1, 100L, false);
+		index.setComplete(1, true);
+		assertTrue(index.getOverdue(1000).isEmpty(), "Completed task should leave the index.");
+
+		index.setComplete(1, false);
+		index.setDueAt(1, 500L);
+		assertEquals(List.of(1), index.getDueBetween(400, 600), "Reopened task should be at its new due date.");
+
+		index.removeTask(1);
+		assertNull(index.getNextDeadline(), "Deleted task should leave the index.");
+	}
+
+	// TEST THAT RELOAD REPLACES THE CONTENTS IN PLACE AND NOTIFIES LISTENERS
+	@Test
+	void testReload() {
+		DeadlineIndex index = new DeadlineIndex();
+		index.putTask(1, 100L, false);
+		index.putTask(2, 200L, false);
+		AtomicInteger changes = new AtomicInteger();
+		index.addChangeListener(changes::incrementAndGet);
+
+		Task kept = new Task(2, "Kept", "Description", "High", 1, "User 1", false, 0);
+		kept.setDueAt(250L);
+		Task added = new Task(3, "Added", "Description", "High", 1, "User 1", false, 0);
+		added.setDueAt(300L);
+		index.reload(List.of(kept, added));
+
+		assertEquals(List.of(2, 3), index.getDueBetween(0, 1000), "Index should hold only the reloaded tasks.");
+		assertEquals(Long.valueOf(250), index.getDueAt(2), "Reloaded due date should replace the old one.");
+		assertEquals(1, changes.get(), "Listeners should be told once about the reload.");
+	}
+
+	// TEST THAT THE SCHEDULER FIRES ONCE FOR A DEADLINE ADDED AFTER IT STARTS
+	@Test
+	void testSchedulerFiresOnDeadline() throws InterruptedException {
+		DeadlineIndex index = new DeadlineIndex();
+		CountDownLatch fired = new CountDownLatch(1);
+		try (DeadlineScheduler scheduler = new DeadlineScheduler(index)) {
+			scheduler.addListener((taskId, dueAt) -> {
+				if (taskId == 7) {
+					fired.countDown();
+				}
+			});
+			index.putTask(7, System.currentTimeMillis() + 50, false);
+			assertTrue(fired.await(5, TimeUnit.SECONDS), "Reminder should fire when the task falls due.");
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package tester;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks whether a concurrent history of operations on one object is linearizable against a
+ * sequential model (Wing and Gong's search with Lowe's memoization of (linearized set, state)).
+ *
+ * Each operation has the time it was invoked and the time it returned. An operation whose outcome
+ * is unknown (it failed, so it may or may not have taken effect) returns at Long.MAX_VALUE and may
+ * be left out. Operations that leave the state unchanged are linearized greedily, which is safe
+ * and keeps read-heavy histories cheap to check.
+ *
+ * Histories of independent objects (e.g. one per task) should be checked separately.
+ */
+final class LinearizabilityChecker<S> {
+
+	/**
+	 * Sequential specification: the state after applying op, or null if op cannot return
+	 * what it returned in that state.
+	 */
+	interface Model<S> {
+		S step(S state, Op<S> op);
+	}
+
+	/**
+	 * One invocation and its response.
+	 */
+	abstract static class Op<S> {
+		final long call;
+		final long ret; // Long.MAX_VALUE = outcome unknown
+
+		Op(long call, long ret) {
+			this.call = call;
+			this.ret = ret;
+		}
+
+		boolean isDetermined() { return ret != Long.MAX_VALUE; }
+	}
+
+	private static final class Frame<S> {
+		final int op;
+		final S before;
+		final boolean forced;
+
+		Frame(int op, S before, boolean forced) {
+			this.op = op;
+			this.before = before;
+			this.forced = forced;
+		}
+	}
+
+	private record Visited(BitSet linearized, Object state) {}
+
+	private final Model<S> model;
+	private final S initial;
+
+	LinearizabilityChecker(Model<S> model, S initial) {
+		this.model = model;
+		this.initial = initial;
+	}
+
+	/**
+	 * True if some order of the operations, consistent with real time, is legal for the model.
+	 */
+	boolean isLinearizable(List<? extends Op<S>> history) {
+		List<Op<S>> ops = new ArrayList<>(history);
+		ops.sort(Comparator.comparingLong(op -> op.call));
+		int n = ops.size();
+		int remaining = (int) ops.stream().filter(Op::isDetermined).count();
+
+		BitSet linearized = new BitSet(n);
+		Set<Visited> visited = new HashSet<>();
+		Deque<Frame<S>> stack = new ArrayDeque<>();
+		S state = initial;
+		int start = 0;
+
+		while (remaining > 0) {
+			// Only an operation invoked before every pending one returned can go next
+			long limit = Long.MAX_VALUE;
+			for (int i = linearized.nextClearBit(0); i < n; i = linearized.nextClearBit(i + 1)) {
+				limit = Math.min(limit, ops.get(i).ret);
+			}
+			boolean advanced = false;
+			for (int i = linearized.nextClearBit(start); i < n && ops.get(i).call < limit; i = linearized.nextClearBit(i + 1)) {
+				S next = model.step(state, ops.get(i));
+				if (next == null) {
+					continue;
+				}
+				linearized.set(i);
+				if (!visited.add(new Visited((BitSet) linearized.clone(), next))) {
+					linearized.clear(i);
+					continue;
+				}
+				stack.push(new Frame<>(i, state, next.equals(state)));
+				if (ops.get(i).isDetermined()) {
+					remaining--;
+				}
+				state = next;
+				start = 0;
+				advanced = true;
+				break;
+			}
+			if (!advanced) {
+				// Backtrack; a forced (state-preserving) choice fails together with its parent
+				Frame<S> frame;
+				do {
+					if (stack.isEmpty()) {
+						return false;
+					}
+					frame = stack.pop();
+					linearized.clear(frame.op);
+					if (ops.get(frame.op).isDetermined()) {
+						remaining++;
+					}
+					state = frame.before;
+				} while (frame.forced);
+				start = frame.op + 1;
+			}
+		}
+		return true;
+	}
+}
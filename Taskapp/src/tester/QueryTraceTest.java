@@ -0,0 +1,151 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.QueryTrace;
+import taskapp.SqliteTaskRepository;
+import taskapp.TaskRepository;
+import taskapp.UserAuth;
+
+class QueryTraceTest {
+
+	@TempDir
+	Path tempDir;
+
+	// START EACH TEST WITH AN EMPTY TRACE AND A TEMPORARY DATABASE
+	@BeforeEach
+	void setUp() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("trace.db"));
+		UserAuth.createUsersTable();
+		QueryTrace.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		QueryTrace.setSlowThresholdMillis(100);
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	private static QueryTrace.Entry lastMatching(String sqlPart) {
+		QueryTrace.flush();
+		List<QueryTrace.Entry> recent = QueryTrace.getRecent();
+		for (int i = recent.size() - 1; i >= 0; i--) {
+			if (recent.get(i).getSql().contains(sqlPart)) {
+				return recent.get(i);
+			}
+		}
+		return null;
+	}
+
+	// TEST THAT STATEMENTS ARE RECORDED WITH PARAMETERS AND ROW COUNTS
+	@Test
+	void testStatementsAreRecorded() {
+		TaskRepository repository = new SqliteTaskRepository();
+		repository.initialize();
+		int id = repository.createTask("Traced task", "Body", "High", 1, null);
+		repository.getTasksByAssignee(1);
+
+		QueryTrace.Entry insert = lastMatching("INSERT INTO tasks");
+		assertNotNull(insert, "Insert should be traced.");
+		assertEquals(1, insert.getRows(), "Insert should report one updated row.");
+		assertTrue(insert.getParameters().contains("'Traced task'"), "Parameters should be recorded.");
+
+		QueryTrace.Entry select = lastMatching("WHERE assigned_to_user_id = ?");
+		assertNotNull(select, "Query should be traced.");
+		assertEquals(1, select.getRows(), "Query should report the rows read.");
+		assertEquals("[1]", select.getParameters(), "Query parameter should be recorded.");
+		assertTrue(select.getDurationNanos() > 0, "Duration should be measured.");
+		assertTrue(id > 0, "Task should have been created.");
+	}
+
+	// TEST THAT PASSWORDS NEVER REACH THE TRACE
+	@Test
+	void testPasswordsAreRedacted() {
+		UserAuth.registerUser("alice", "s3cret-pass");
+		UserAuth.loginUser("alice", "s3cret-pass");
+
+		QueryTrace.Entry login = lastMatching("AND password = ?");
+		assertNotNull(login, "Login query should be traced.");
+		assertEquals("[***, ***]", login.getParameters(), "Login parameters should be redacted.");
+		for (QueryTrace.Entry entry : QueryTrace.getRecent()) {
+			assertFalse(entry.getParameters().contains("s3cret"), "No entry should contain the password.");
+		}
+	}
+
+	// TEST THAT SLOW QUERIES ARE FLAGGED AND REPORTED
+	@Test
+	void testSlowQueriesAreFlagged() throws SQLException {
+		List<QueryTrace.Entry> reported = new CopyOnWriteArrayList<>();
+		Consumer<QueryTrace.Entry> listener = reported::add;
+		QueryTrace.addSlowQueryListener(listener);
+		try {
+			QueryTrace.setSlowThresholdMillis(0);
+			UserAuth.loginUser("nobody", "x");
+			QueryTrace.flush();
+			assertFalse(QueryTrace.getSlowQueries().isEmpty(), "Every query should be slow with a zero threshold.");
+			assertFalse(reported.isEmpty(), "Slow queries should be reported to listeners.");
+
+			QueryTrace.clear();
+			QueryTrace.setSlowThresholdMillis(60_000);
+			UserAuth.loginUser("nobody", "x");
+			QueryTrace.flush();
+			assertTrue(QueryTrace.getSlowQueries().isEmpty(), "No query should exceed a one-minute threshold.");
+		} finally {
+			QueryTrace.removeSlowQueryListener(listener);
+		}
+	}
+
+	// TEST THAT A FAILING LISTENER DOES NOT STOP THE TRACE OR OTHER LISTENERS
+	@Test
+	void testFailingListenerIsIsolated() {
+		List<QueryTrace.Entry> reported = new CopyOnWriteArrayList<>();
+		Consumer<QueryTrace.Entry> failing = entry -> {
+			throw new IllegalStateException("listener failure");
+		};
+		Consumer<QueryTrace.Entry> listener = reported::add;
+		QueryTrace.addSlowQueryListener(failing);
+		QueryTrace.addSlowQueryListener(listener);
+		try {
+			QueryTrace.setSlowThresholdMillis(0);
+			UserAuth.loginUser("nobody", "x");
+			QueryTrace.flush();
+			int first = reported.size();
+			assertTrue(first > 0, "Later listeners should still be called.");
+
+			UserAuth.loginUser("nobody", "x");
+			assertNotNull(lastMatching("AND password = ?"), "Entries should still be drained after a listener failed.");
+			assertTrue(reported.size() > first, "Listeners should keep receiving slow queries.");
+		} finally {
+			QueryTrace.removeSlowQueryListener(failing);
+			QueryTrace.removeSlowQueryListener(listener);
+		}
+	}
+
+	// TEST THAT FAILED STATEMENTS ARE RECORDED WITH THEIR ERROR
+	@Test
+	void testFailuresAreRecorded() throws SQLException {
+		try (Connection conn = UserAuth.getConnection();
+			 PreparedStatement pstmt = conn.prepareStatement("INSERT INTO users (username, password) VALUES (?, ?)")) {
+			pstmt.setString(1, "bob");
+			pstmt.setString(2, "pw");
+			pstmt.executeUpdate();
+			assertThrows(SQLException.class, pstmt::executeUpdate, "Duplicate username should fail.");
+		}
+		QueryTrace.Entry failed = lastMatching("INSERT INTO users");
+		assertNotNull(failed.getError(), "Failure should carry the error message.");
+		assertEquals(-1, failed.getRows(), "Failed statement should have no row count.");
+	}
+}
@@ -0,0 +1,127 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.ShardRouter;
+import taskapp.ShardedTaskRepository;
+import taskapp.Task;
+import taskapp.TaskService;
+import taskapp.TaskStatistics;
+import taskapp.UserAuth;
+
+class ShardedTaskRepositoryTest {
+
+	@TempDir
+	Path tempDir;
+
+	private ShardedTaskRepository repository;
+
+	// THREE SHARDS NEXT TO A TEMPORARY MAIN DATABASE; USERS 1 AND 4 SHARE A TEAM SHARD
+	@BeforeEach
+	void setup() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("tasks.db"));
+		UserAuth.createUsersTable();
+		repository = new ShardedTaskRepository(3, ShardRouter.byTeam(Map.of(1, 2, 4, 2)));
+		repository.initialize();
+	}
+
+	@AfterEach
+	void teardown() {
+		repository.close();
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// TEST THAT TASKS ARE ROUTED TO SHARD FILES AND FOUND AGAIN BY ID
+	@Test
+	void testRoutingAndIdRanges() {
+		int teamTask = repository.createTask("Team", "Description", "High", 4);
+		int hashedTask = repository.createTask("Hashed", "Description", "Low", 3);
+
+		assertEquals(2, repository.shardOf(teamTask), "Team task should be in the team shard.");
+		assertEquals(0, repository.shardOf(hashedTask), "User 3 should hash to shard 0.");
+		assertTrue(Files.exists(tempDir.resolve("tasks-shard2.db")), "Shard file should be created.");
+
+		assertTrue(repository.editTask(teamTask, "Team", "Updated", "High", 4, true, 100), "Edit should reach the shard.");
+		assertEquals("Updated", repository.getTaskDescription(teamTask).orElse(""), "Description should be read from the shard.");
+		assertTrue(repository.deleteTask(hashedTask), "Delete should reach the shard.");
+		assertFalse(repository.deleteTask(ShardedTaskRepository.ID_RANGE * 5), "ID outside every shard should be rejected.");
+	}
+
+	// TEST THAT A SHARD WHOSE ID RANGE IS USED UP REJECTS NEW TASKS
+	@Test
+	void testFullShardRejectsTasks() throws Exception {
+		repository.createTask("First", "Description", "High", 4);
+		try (Connection conn = UserAuth.getConnection("jdbc:sqlite:" + tempDir.resolve("tasks-shard2.db"));
+				Statement stmt = conn.createStatement()) {
+			stmt.execute("UPDATE sqlite_sequence SET seq = " + (3 * ShardedTaskRepository.ID_RANGE - 1) + " WHERE name = 'tasks'");
+		}
+
+		int last = repository.createTask("Last", "Description", "High", 4);
+		assertEquals(3 * ShardedTaskRepository.ID_RANGE, last, "The last ID of the range should still be used.");
+		assertEquals(2, repository.shardOf(last), "The last ID should map back to its shard.");
+		assertEquals(-1, repository.createTask("Overflow", "Description", "High", 4), "An ID past the range should be rejected.");
+		assertEquals(2, repository.getTasksByAssignee(4).size(), "The rejected task should not be stored.");
+	}
+
+	// TEST THAT A SHARD COUNTER BELOW ITS RANGE IS REJECTED INSTEAD OF REUSING ANOTHER SHARD'S IDS
+	@Test
+	void testCounterBelowRangeRejected() throws Exception {
+		int mainTask = repository.createTask("Main", "Description", "High", 3);
+		try (Connection conn = UserAuth.getConnection("jdbc:sqlite:" + tempDir.resolve("tasks-shard2.db"));
+				Statement stmt = conn.createStatement()) {
+			stmt.execute("UPDATE sqlite_sequence SET seq = 0 WHERE name = 'tasks'"); // as if the range was never reserved
+		}
+
+		assertEquals(-1, repository.createTask("Stray", "Description", "High", 4), "An ID below the shard's range should be rejected.");
+		assertEquals("Description", repository.getTaskDescription(mainTask).orElse(""), "Shard 0's task should be untouched.");
+		assertThrows(IllegalStateException.class, repository::initialize, "Initialize should fail for a counter below the range.");
+	}
+
+	// TEST THAT FAN-OUT QUERIES GATHER EVERY SHARD IN ID ORDER
+	@Test
+	void testScatterGather() {
+		for (int userId = 1; userId <= 6; userId++) {
+			repository.createTask("Task " + userId, "Description", "Medium", userId);
+		}
+		List<Task> all = repository.getAllTasks();
+		assertEquals(6, all.size(), "Tasks from all shards should be returned.");
+		for (int i = 1; i < all.size(); i++) {
+			assertTrue(all.get(i - 1).getId() < all.get(i).getId(), "Tasks should be ordered by ID.");
+		}
+		assertEquals(1, repository.getTasksByAssignee(5).size(), "Assignee query should search every shard.");
+
+		repository.editTask(all.get(0).getId(), "Task", "Description", "Medium", all.get(0).getAssignedToUserId(), true, 100);
+		TaskStatistics stats = repository.getTaskStatistics();
+		assertEquals(6, stats.getTotal().getCount(), "Statistics should be merged.");
+		assertEquals(1, stats.getByStatus(true).getCount(), "Completed count should be merged.");
+	}
+
+	// TEST THAT THE SERVICE WORKS UNCHANGED ON TOP OF SHARDS
+	@Test
+	void testServiceOnShards() {
+		TaskService service = new TaskService(repository);
+		service.createTask("Parent", "Description", "High", 1);
+		service.createTask("Child", "Description", "High", 2);
+		List<Task> tasks = service.getAllTasks();
+		int parent = tasks.get(tasks.get(0).getTitle().equals("Parent") ? 0 : 1).getId();
+		int child = tasks.get(tasks.get(0).getTitle().equals("Parent") ? 1 : 0).getId();
+
+		assertTrue(service.addSubtask(parent, child), "Cross-shard subtask should be linked.");
+		service.editTask(child, "Child", "Description", "High", 2, false, 50);
+		service.reloadTaskGraph();
+		assertEquals(50.0, service.getRolledUpProgress(parent), 0.001, "Roll-up should span shards.");
+	}
+
+}
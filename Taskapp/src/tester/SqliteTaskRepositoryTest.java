@@ -0,0 +1,239 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.SqliteTaskRepository;
+import taskapp.Task;
+import taskapp.TaskChange;
+import taskapp.TaskFilter;
+import taskapp.TaskService;
+import taskapp.TaskStatistics;
+import taskapp.UserAuth;
+
+class SqliteTaskRepositoryTest {
+
+	@TempDir
+	Path tempDir;
+
+	private SqliteTaskRepository repository;
+
+	// POINT THE APP AT A TEMPORARY DATABASE FOR EACH TEST
+	@BeforeEach
+	void setup() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("tasks.db"));
+		UserAuth.createUsersTable();
+		repository = new SqliteTaskRepository();
+		repository.initialize();
+	}
+
+	@AfterEach
+	void teardown() {
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// TEST FOR CREATING TASKS TABLE
+	@Test
+	void testCreateTasksTable() {
+		// CHECK IF TABLE EXISTS
+		try (Connection conn = UserAuth.getConnection(); Statement state = conn.createStatement()) {
+			var rs = state.executeQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='tasks';");
+			assertTrue(rs.next(), "Table should exist.");
+		} catch (Exception e) {
+			fail("Table create failed." + e.getMessage());
+		}
+	}
+
+	// TEST FOR CREATE, EDIT AND DELETE
+	@Test
+	void testCrud() {
+		int taskId = repository.createTask("Task", "Description", "High", 1);
+		assertTrue(taskId > 0, "Task ID should be returned.");
+
+		assertTrue(repository.editTask(taskId, "Edited", "Description", "Low", 2, true, 100), "Task should be edited.");
+		Task task = repository.getAllTasks().get(0);
+		assertEquals("Edited", task.getTitle(), "Title should be updated.");
+		assertEquals(1, task.getVersion(), "Version should be bumped.");
+
+		assertTrue(repository.deleteTask(taskId), "Task should be deleted.");
+		assertTrue(repository.getAllTasks().isEmpty(), "No tasks should remain.");
+	}
+
+	// TEST FOR INVALID PRIORITY (CHECK CONSTRAINT)
+	@Test
+	void testInvalidPriority() {
+		assertEquals(-1, repository.createTask("Task", "Description", "Urgent", 1), "Invalid priority should fail.");
+	}
+
+	// TEST FOR VERSION-CHECKED EDIT CONFLICT
+	@Test
+	void testEditTaskVersionConflict() {
+		int taskId = repository.createTask("Task", "Description", "High", 1);
+
+		assertEquals(TaskService.EditResult.UPDATED,
+				repository.editTask(taskId, 0, "First", "Description", "High", 1, false, 10), "First edit should succeed.");
+		assertEquals(TaskService.EditResult.CONFLICT,
+				repository.editTask(taskId, 0, "Second", "Description", "High", 1, false, 20), "Stale edit should conflict.");
+		assertEquals(TaskService.EditResult.NOT_FOUND,
+				repository.editTask(-1, 0, "Missing", "Description", "High", 1, false, 0), "Missing task should be reported.");
+	}
+
+	// TEST FOR INDEXED QUERIES
+	@Test
+	void testQueriesByAssigneeAndStatus() {
+		repository.createTask("Task 1", "Description", "High", 1);
+		int done = repository.createTask("Task 2", "Description", "Low", 2);
+		repository.editTask(done, "Task 2", "Description", "Low", 2, true, 100);
+
+		List<Task> forUser = repository.getTasksByAssignee(2);
+		assertEquals(1, forUser.size(), "One task should be assigned to user 2.");
+		assertEquals(1, repository.getTasksByStatus(true).size(), "One task should be complete.");
+		assertEquals(1, repository.getTasksByStatus(false).size(), "One task should be active.");
+	}
+
+	// TEST THAT DUE DATES ARE STORED AND CLEARED
+	@Test
+	void testDueDates() {
+		int taskId = repository.createTask("Task 1", "Description", "High", 1, 1_700_000_000_000L);
+		assertEquals(Long.valueOf(1_700_000_000_000L), repository.getAllTasks().get(0).getDueAt(), "Due date should be stored.");
+		assertEquals(Long.valueOf(1_700_000_000_000L), repository.getBoardTasks().get(0).getDueAt(), "Board should carry the due date.");
+
+		assertTrue(repository.setDueAt(taskId, null), "Due date should be cleared.");
+		assertFalse(repository.getAllTasks().get(0).hasDueDate(), "Task should have no due date.");
+		assertFalse(repository.setDueAt(-1, 5L), "Missing task should be reported.");
+	}
+
+	// TEST THAT A VERSIONED EDIT CHANGES THE DUE DATE WITH THE OTHER FIELDS OR NOT AT ALL
+	@Test
+	void testVersionedEditWithDueDate() {
+		int taskId = repository.createTask("Task 1", "Description", "High", 1, 1_000L);
+		assertEquals(TaskService.EditResult.UPDATED,
+				repository.editTask(taskId, 0, "Edited", "Description", "High", 1, false, 10, 2_000L), "Edit should succeed.");
+		Task task = repository.getAllTasks().get(0);
+		assertEquals(Long.valueOf(2_000L), task.getDueAt(), "Due date should change with the edit.");
+		assertEquals(1, task.getVersion(), "One edit should bump the version once.");
+
+		assertEquals(TaskService.EditResult.CONFLICT,
+				repository.editTask(taskId, 0, "Stale", "Description", "High", 1, false, 10, null), "Stale edit should conflict.");
+		assertEquals(Long.valueOf(2_000L), repository.getAllTasks().get(0).getDueAt(), "Conflicting edit should not touch the due date.");
+
+		assertEquals(TaskService.EditResult.UPDATED,
+				repository.editTask(taskId, 1, "Edited", "Description", "High", 1, false, 20), "Edit without a due date should succeed.");
+		assertEquals(Long.valueOf(2_000L), repository.getAllTasks().get(0).getDueAt(), "Edit without a due date should keep it.");
+	}
+
+	// TEST THAT EDITS ARE RECORDED AS DELTAS AND TASKS CAN BE REBUILT AT ANY TIME
+	@Test
+	void testTaskHistory() throws InterruptedException {
+		repository.setAuditUser(1);
+		int taskId = repository.createTask("Task 1", "Description", "High", 1);
+		Thread.sleep(5);
+		long afterCreate = System.currentTimeMillis();
+		Thread.sleep(5);
+		repository.setAuditUser(2);
+		for (int progress = 1; progress <= 40; progress++) {
+			repository.editTask(taskId, "Task 1", "Description", "High", 1, false, progress);
+		}
+		Thread.sleep(5);
+		long afterEdits = System.currentTimeMillis();
+		Thread.sleep(5);
+		repository.deleteTask(taskId);
+
+		List<TaskChange> history = repository.getTaskHistory(taskId);
+		assertEquals(42, history.size(), "Create, 40 edits and delete should be listed.");
+		assertEquals(1, history.get(0).getChangedBy(), "Creator should be recorded.");
+		assertEquals(Set.of("progress"), history.get(1).getChangedFields(), "Only progress should be stored.");
+		assertEquals(2, history.get(1).getChangedBy(), "Editor should be recorded.");
+		assertEquals(TaskChange.Kind.DELETED, history.get(41).getKind(), "Delete should be recorded.");
+
+		assertEquals(0, repository.getTaskAsOf(taskId, afterCreate).get().getProgress(), "Progress after create should be 0.");
+		assertEquals(40, repository.getTaskAsOf(taskId, afterEdits).get().getProgress(), "Progress should be replayed from a checkpoint.");
+		assertTrue(repository.getTaskAsOf(taskId, System.currentTimeMillis()).isEmpty(), "Deleted task should not exist.");
+		assertTrue(repository.getTaskAsOf(taskId, afterCreate - 100).isEmpty(), "Task should not exist before it was created.");
+	}
+
+	// TEST THAT BULK OPERATIONS CHANGE MATCHING ROWS, STATISTICS AND HISTORY
+	@Test
+	void testBulkOperations() throws InterruptedException {
+		int first = repository.createTask("Task 1", "Description", "High", 1);
+		int second = repository.createTask("Task 2", "Description", "Low", 1);
+		int third = repository.createTask("Task 3", "Description", "Low", 2);
+		repository.editTask(second, "Task 2", "Description", "Low", 1, false, 100);
+		repository.editTask(third, "Task 3", "Description", "Low", 2, false, 100);
+
+		assertEquals(List.of(first, second), repository.reassignAll(1, 3), "Both of user 1's tasks should move.");
+		assertEquals(2, repository.getTasksByAssignee(3).size(), "User 3 should own the moved tasks.");
+		assertEquals(Set.of("assignedToUserId"), repository.getTaskHistory(first).get(1).getChangedFields(), "Reassignment should be recorded.");
+
+		assertEquals(List.of(third), repository.completeWhere(TaskFilter.fullyProgressed().assignee(2)), "Only the matching task should complete.");
+		assertEquals(List.of(second), repository.completeWhere(TaskFilter.fullyProgressed()), "Already completed tasks should not match again.");
+		TaskStatistics stats = repository.getTaskStatistics();
+		assertEquals(2, stats.getByStatus(true).getCount(), "Statistics should follow the bulk update.");
+
+		Thread.sleep(5);
+		long cutoff = System.currentTimeMillis();
+		assertEquals(List.of(second, third), repository.deleteCompletedOlderThan(cutoff), "Completed tasks should be deleted.");
+		assertEquals(List.of(first), repository.getAllTasks().stream().map(Task::getId).toList(), "Only the active task should remain.");
+		List<TaskChange> history = repository.getTaskHistory(third);
+		assertEquals(TaskChange.Kind.DELETED, history.get(history.size() - 1).getKind(), "Deletion should be recorded.");
+		assertTrue(repository.deleteCompletedOlderThan(cutoff).isEmpty(), "Nothing should be left to delete.");
+	}
+
+	// TEST THAT A FAILED BULK OPERATION IS REPORTED AS A FAILURE, NOT AS ZERO TASKS
+	@Test
+	void testBulkFailureReported() throws Exception {
+		int taskId = repository.createTask("Task 1", "Description", "High", 1);
+		try (Connection conn = UserAuth.getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.execute("DROP TABLE task_history");
+		}
+
+		assertNull(repository.reassignAll(1, 2), "Failed reassignment should return null.");
+		assertEquals(1, repository.getAllTasks().get(0).getAssignedToUserId(), "Failed reassignment should be rolled back.");
+		TaskService.BulkResult result = new TaskService(repository).reassignAll(1, 2);
+		assertTrue(result.isFailed(), "Service should report the failure.");
+		assertEquals(0, result.getCount(), "Failed result should carry no tasks.");
+		assertTrue(taskId > 0, "Task should have been created.");
+	}
+
+	// TEST THAT RELATIONS ARE STORED AND REMOVED WITH THEIR TASKS
+	@Test
+	void testTaskRelations() {
+		int parent = repository.createTask("Parent", "Description", "High", 1);
+		int child = repository.createTask("Child", "Description", "High", 1);
+		assertTrue(repository.setParent(child, parent), "Subtask should be stored.");
+		assertTrue(repository.addBlocker(child, parent), "Blocker should be stored.");
+
+		assertArrayEquals(new int[] { parent, child }, repository.getSubtaskLinks().get(0), "Subtask link should match.");
+		assertArrayEquals(new int[] { child, parent }, repository.getBlockerLinks().get(0), "Blocker link should match.");
+
+		repository.deleteTask(child);
+		assertTrue(repository.getSubtaskLinks().isEmpty(), "Subtask link should be removed with the task.");
+		assertTrue(repository.getBlockerLinks().isEmpty(), "Blocker link should be removed with the task.");
+	}
+
+	// TEST THAT TRIGGERS KEEP STATISTICS IN STEP
+	@Test
+	void testStatisticsTriggers() {
+		int taskId = repository.createTask("Task 1", "Description", "High", 1);
+		repository.createTask("Task 2", "Description", "High", 1);
+		repository.editTask(taskId, "Task 1", "Description", "High", 1, true, 100);
+		repository.deleteTask(repository.createTask("Task 3", "Description", "Low", 1));
+
+		TaskStatistics stats = repository.getTaskStatistics();
+		assertEquals(2, stats.getTotal().getCount(), "Total count should match.");
+		assertEquals(1, stats.getByStatus(true).getCount(), "Completed count should match.");
+		assertEquals(50.0, stats.getByPriority("High").getAverageProgress(), "Average progress should match.");
+		assertEquals(0, stats.getByPriority("Low").getCount(), "Deleted task should not be counted.");
+	}
+
+}
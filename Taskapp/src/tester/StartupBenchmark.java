@@ -0,0 +1,68 @@
+package tester;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import taskapp.BoardData;
+import taskapp.SqliteTaskRepository;
+import taskapp.StartupPipeline;
+import taskapp.TaskService;
+import taskapp.UserAuth;
+import taskapp.UserDirectory;
+
+/**
+ * Measures time-to-interactive for the login -> board path on a fresh JVM.
+ * Run it as a plain Java application (one run per JVM, since class loading and
+ * driver initialization are part of what is measured):
+ *
+ *   java -cp bin:sqlite-jdbc.jar tester.StartupBenchmark [tasks] [serial|pipeline]
+ *
+ * "serial" repeats the old constructor order (schema checks, then login, then board)
+ * on one thread; "pipeline" uses StartupPipeline.
+ */
+public class StartupBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+		String mode = args.length > 1 ? args[1] : "pipeline";
+
+		// SEED A TEMPORARY DATABASE
+		Path dir = Files.createTempDirectory("taskapp-startup");
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + dir.resolve("bench.db"));
+		seed(taskCount);
+		UserDirectory.invalidate(); // measure a cold user directory, as on a real start
+
+		long start = System.nanoTime();
+		TaskService taskService = new TaskService(new SqliteTaskRepository());
+		BoardData board;
+		if (mode.equals("serial")) {
+			UserAuth.createUsersTable();
+			taskService.createTasksTable();
+			Optional<UserAuth> user = UserAuth.loginUser("bench", "bench");
+			board = user.isPresent() ? BoardData.load(taskService) : null;
+		} else {
+			StartupPipeline pipeline = new StartupPipeline(taskService);
+			pipeline.start();
+			CompletableFuture<Optional<UserAuth>> login = pipeline.login("bench", "bench");
+			CompletableFuture<BoardData> preload = pipeline.preloadBoard(); // as the app does
+			Optional<UserAuth> user = login.join();
+			board = user.isPresent() ? preload.join() : null;
+		}
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		System.out.printf("mode=%s tasks=%d loaded=%d time-to-interactive=%d ms%n", mode, taskCount,
+				board == null ? 0 : board.getTasks().size(), elapsedMillis);
+	}
+
+	private static void seed(int taskCount) {
+		TaskService seeder = new TaskService(new SqliteTaskRepository());
+		UserAuth.createUsersTable();
+		seeder.createTasksTable();
+		int userId = UserAuth.registerUser("bench", "bench").orElseThrow().getId();
+		for (int i = 0; i < taskCount; i++) {
+			seeder.createTask("Task " + i, "Benchmark description for task " + i, i % 3 == 0 ? "High" : "Low", userId);
+		}
+	}
+}
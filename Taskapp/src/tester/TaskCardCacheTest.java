@@ -0,0 +1,84 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+
+import org.junit.jupiter.api.Test;
+
+import taskapp.Task;
+import taskapp.TaskCardCache;
+
+class TaskCardCacheTest {
+
+	private int built = 0;
+
+	private static Task task(int id, String priority, int progress, int version) {
+		return new Task(id, "Task " + id, "Description " + id, priority, 1, "User 1", false, progress, version);
+	}
+
+	// CARD FACTORY THAT COUNTS HOW OFTEN IT RUNS
+	private JComponent build(TaskCardCache.Snapshot view) {
+		built++;
+		return new JPanel();
+	}
+
+	// TEST THAT AN UNCHANGED TASK KEEPS ITS CARD AND A NEW VERSION GETS A NEW ONE
+	@Test
+	void testCardsReusedUntilVersionChanges() {
+		TaskCardCache cache = new TaskCardCache(3, 1 << 20);
+		JComponent first = cache.card(task(1, "High", 10, 0), 0, 0, this::build);
+		assertSame(first, cache.card(task(1, "High", 10, 0), 0, 0, this::build), "Same version should reuse the card.");
+		assertNotSame(first, cache.card(task(1, "High", 10, 0), 1, 0, this::build), "Each slot should have its own card.");
+		assertEquals(2, built, "Only two cards should be built.");
+		assertEquals(1, cache.getHits(), "One card should be reused.");
+
+		Task edited = task(1, "Low", 60, 1);
+		JComponent second = cache.card(edited, 0, 0, this::build);
+		assertNotSame(first, second, "A new version should rebuild the card.");
+		assertEquals("60%", cache.snapshot(edited).getStatusText(), "Snapshot should show the new progress.");
+		assertEquals(1, cache.size(), "Old versions should not be kept.");
+	}
+
+	// TEST THAT CARDS SHARE STYLING OBJECTS
+	@Test
+	void testSharedStyling() {
+		TaskCardCache cache = new TaskCardCache(1, 1 << 20);
+		TaskCardCache.Snapshot a = cache.snapshot(task(1, "High", 50, 0));
+		TaskCardCache.Snapshot b = cache.snapshot(task(2, "High", 50, 0));
+		assertSame(a.getBorder(), b.getBorder(), "Tasks of one priority should share a border.");
+		assertSame(a.getStatusText(), b.getStatusText(), "Progress labels should be shared.");
+		assertNotSame(a.getBorder(), cache.snapshot(task(3, "Low", 50, 0)).getBorder(), "Priorities should differ.");
+	}
+
+	// TEST THAT THE LEAST RECENTLY USED TASKS ARE EVICTED WHEN OVER THE MEMORY BOUND
+	@Test
+	void testLruEviction() {
+		TaskCardCache cache = new TaskCardCache(1, 3 * 13 * 1024);
+		for (int id = 1; id <= 3; id++) {
+			cache.card(task(id, "Medium", 0, 0), 0, 0, this::build);
+		}
+		cache.card(task(1, "Medium", 0, 0), 0, 0, this::build); // 1 is now the most recently used
+		cache.card(task(4, "Medium", 0, 0), 0, 0, this::build);
+
+		assertEquals(1, cache.getEvictions(), "One task should be evicted.");
+		assertTrue(cache.getEstimatedBytes() <= cache.getMaxBytes(), "Cache should stay under its bound.");
+		built = 0;
+		cache.card(task(1, "Medium", 0, 0), 0, 0, this::build);
+		assertEquals(0, built, "Recently used task should still be cached.");
+		cache.card(task(2, "Medium", 0, 0), 0, 0, this::build);
+		assertEquals(1, built, "Least recently used task should have been evicted.");
+	}
+
+	// TEST THAT A TASK BECOMING OVERDUE GETS A NEW CARD
+	@Test
+	void testOverdueRebuildsCard() {
+		TaskCardCache cache = new TaskCardCache(1, 1 << 20);
+		Task task = task(1, "High", 0, 0);
+		task.setDueAt(1_000L);
+		JComponent before = cache.card(task, 0, 500L, this::build);
+		assertSame(before, cache.card(task, 0, 900L, this::build), "Card should be reused before the due date.");
+		assertNotSame(before, cache.card(task, 0, 2_000L, this::build), "Card should be rebuilt once overdue.");
+	}
+}
@@ -0,0 +1,56 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import taskapp.Task;
+import taskapp.TaskDelta;
+
+class TaskDeltaTest {
+
+	private Task task(String title, String description, int progress, Long dueAt) {
+		Task task = new Task(1, title, description, "High", 1, "User 1", false, progress);
+		task.setDueAt(dueAt);
+		return task;
+	}
+
+	// TEST THAT A SMALL EDIT ENCODES ONLY THE CHANGED FIELD
+	@Test
+	void testDiffIsCompact() {
+		byte[] delta = TaskDelta.diff(task("Title", "A long description", 10, null), task("Title", "A long description", 60, null));
+
+		assertEquals(TaskDelta.PROGRESS, TaskDelta.fieldsOf(delta), "Only progress should be flagged.");
+		assertEquals(2, delta.length, "Mask byte plus one varint byte.");
+		assertEquals(Map.of("progress", 60), TaskDelta.decode(delta), "Decoded value should match.");
+	}
+
+	// TEST THAT A FULL STATE ROUND-TRIPS INCLUDING NULLS AND NON-ASCII TEXT
+	@Test
+	void testFullRoundTrip() {
+		Task original = task("\u00dcberpr\u00fcfen \u2713", null, 100, -5L);
+		original.setComplete(true);
+		Task copy = new Task(1, null, "stale", null, 0, null, false, 0);
+		copy.setDueAt(99L);
+
+		TaskDelta.apply(TaskDelta.full(original), copy);
+
+		assertEquals("\u00dcberpr\u00fcfen \u2713", copy.getTitle(), "Title should round-trip.");
+		assertNull(copy.getDescription(), "Null description should round-trip.");
+		assertEquals("High", copy.getPriority(), "Priority should round-trip.");
+		assertTrue(copy.isComplete(), "Completion should round-trip.");
+		assertEquals(100, copy.getProgress(), "Progress should round-trip.");
+		assertEquals(Long.valueOf(-5L), copy.getDueAt(), "Due date should round-trip.");
+	}
+
+	// TEST THAT CLEARING A DUE DATE IS RECORDED
+	@Test
+	void testClearDueDate() {
+		Task target = task("Title", "Description", 0, 1_700_000_000_000L);
+		TaskDelta.apply(TaskDelta.diff(target, task("Title", "Description", 0, null)), target);
+		assertNull(target.getDueAt(), "Due date should be cleared.");
+	}
+
+}
@@ -0,0 +1,75 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import taskapp.TaskGraph;
+
+class TaskGraphTest {
+
+	private TaskGraph graph;
+
+	// TASKS 1-5, ALL AT 0% PROGRESS
+	@BeforeEach
+	void setup() {
+		graph = new TaskGraph();
+		for (int id = 1; id <= 5; id++) {
+			graph.putTask(id, false, 0);
+		}
+	}
+
+	// TEST PROGRESS ROLL-UP THROUGH TWO LEVELS
+	@Test
+	void testRolledUpProgress() {
+		graph.setParent(2, 1);
+		graph.setParent(3, 1);
+		graph.setParent(4, 3);
+		graph.setParent(5, 3);
+
+		graph.putTask(2, false, 50);
+		graph.putTask(4, true, 0);
+
+		// TASK 3 = AVG(100, 0) = 50, TASK 1 = AVG(50, 50) = 50
+		assertEquals(50.0, graph.getRolledUpProgress(3), 0.001, "Task 3 should roll up its subtasks.");
+		assertEquals(50.0, graph.getRolledUpProgress(1), 0.001, "Task 1 should roll up through task 3.");
+
+		graph.putTask(5, false, 100);
+		assertEquals(75.0, graph.getRolledUpProgress(1), 0.001, "Change should propagate to the root.");
+
+		graph.removeTask(3);
+		assertEquals(50.0, graph.getRolledUpProgress(1), 0.001, "Removed subtask should no longer count.");
+		assertEquals(-1, graph.getParent(4), "Orphaned subtask should become top-level.");
+	}
+
+	// TEST SUBTASK CYCLE DETECTION
+	@Test
+	void testSubtaskCycleRejected() {
+		assertTrue(graph.setParent(2, 1), "Link should be accepted.");
+		assertTrue(graph.setParent(3, 2), "Link should be accepted.");
+		assertFalse(graph.setParent(1, 3), "Cycle should be rejected.");
+		assertFalse(graph.setParent(1, 1), "Self link should be rejected.");
+	}
+
+	// TEST BLOCKER CYCLES AND TOPOLOGICAL ORDER
+	@Test
+	void testBlockersAndTopologicalOrder() {
+		assertTrue(graph.addBlocker(3, 1), "Blocker should be accepted.");
+		assertTrue(graph.addBlocker(1, 2), "Blocker should be accepted.");
+		assertFalse(graph.addBlocker(2, 3), "Cycle should be rejected.");
+
+		List<Integer> order = graph.topologicalOrder();
+		assertEquals(5, order.size(), "Every task should be ordered.");
+		assertTrue(order.indexOf(3) < order.indexOf(1), "Blocker should come first.");
+		assertTrue(order.indexOf(1) < order.indexOf(2), "Blocker should come first.");
+
+		assertTrue(graph.isBlocked(2), "Task 2 should be blocked.");
+		graph.putTask(1, true, 100);
+		assertFalse(graph.isBlocked(2), "Completed blocker should unblock task 2.");
+		assertEquals(List.of(2, 3, 4, 5), graph.getReadyTasks(), "Ready tasks should match.");
+	}
+
+}
@@ -0,0 +1,203 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.QueryTrace;
+import taskapp.SqliteTaskRepository;
+import taskapp.Task;
+import taskapp.TaskPublisher;
+import taskapp.UserAuth;
+
+class TaskPublisherTest {
+
+	@TempDir
+	Path tempDir;
+
+	private final AtomicInteger rowsRead = new AtomicInteger();
+	private final AtomicInteger closes = new AtomicInteger();
+
+	// POINT THE APP AT A TEMPORARY DATABASE FOR EACH TEST
+	@BeforeEach
+	void setup() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("stream.db"));
+		UserAuth.createUsersTable();
+	}
+
+	@AfterEach
+	void teardown() {
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// CURSOR OVER TASKS 1..COUNT THAT COUNTS ROWS READ AND CLOSES
+	private TaskPublisher.CursorFactory counting(int count) {
+		return () -> new TaskPublisher.Cursor() {
+			private int next = 1;
+
+			@Override
+			public Task next() {
+				if (next > count) {
+					return null;
+				}
+				rowsRead.incrementAndGet();
+				return new Task(next++, "Task", null, "Low", 1, "User 1", false, 0);
+			}
+
+			@Override
+			public void close() {
+				closes.incrementAndGet();
+			}
+		};
+	}
+
+	// SUBSCRIBER THAT RECORDS SIGNALS AND LETS THE TEST DRIVE DEMAND
+	private static class Recorder implements Flow.Subscriber<Task> {
+		final List<Integer> ids = new ArrayList<>();
+		final CompletableFuture<Void> finished = new CompletableFuture<>();
+		volatile Flow.Subscription subscription;
+		volatile CountDownLatch received = new CountDownLatch(0);
+
+		@Override
+		public void onSubscribe(Flow.Subscription s) { subscription = s; }
+
+		@Override
+		public synchronized void onNext(Task task) {
+			ids.add(task.getId());
+			received.countDown();
+		}
+
+		@Override
+		public void onError(Throwable error) { finished.completeExceptionally(error); }
+
+		@Override
+		public void onComplete() { finished.complete(null); }
+
+		void requestAndWait(int n) throws InterruptedException {
+			received = new CountDownLatch(n);
+			subscription.request(n);
+			assertTrue(received.await(5, TimeUnit.SECONDS), "Requested tasks should arrive.");
+		}
+	}
+
+	// TEST THAT ROWS ARE ONLY READ AS THEY ARE REQUESTED
+	@Test
+	void testBackpressure() throws Exception {
+		Recorder recorder = new Recorder();
+		new TaskPublisher(counting(1000)).subscribe(recorder);
+		assertEquals(0, rowsRead.get(), "Nothing should be read before the first request.");
+
+		recorder.requestAndWait(3);
+		Thread.sleep(50);
+		assertEquals(3, rowsRead.get(), "Only the requested rows should be read.");
+		recorder.requestAndWait(2);
+		assertEquals(List.of(1, 2, 3, 4, 5), recorder.ids, "Tasks should arrive in order.");
+		assertFalse(recorder.finished.isDone(), "Stream should not complete early.");
+	}
+
+	// TEST THAT CANCEL STOPS READING AND CLOSES THE CURSOR
+	@Test
+	void testCancellation() throws Exception {
+		Recorder recorder = new Recorder();
+		new TaskPublisher(counting(1000)).subscribe(recorder);
+		recorder.requestAndWait(10);
+		recorder.subscription.cancel();
+		recorder.subscription.request(100);
+		Thread.sleep(50);
+		assertEquals(10, rowsRead.get(), "No rows should be read after cancel.");
+		assertEquals(1, closes.get(), "Cursor should be closed once.");
+		assertFalse(recorder.finished.isDone(), "Cancelled stream should not signal completion.");
+	}
+
+	// TEST THAT INVALID REQUESTS AND QUERY FAILURES REACH ONERROR
+	@Test
+	void testErrors() {
+		Recorder invalid = new Recorder();
+		new TaskPublisher(counting(10)).subscribe(invalid);
+		invalid.subscription.request(0);
+		Exception error = assertThrows(Exception.class, () -> invalid.finished.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, error.getCause(), "request(0) should be rejected.");
+
+		TaskPublisher failing = new TaskPublisher(() -> { throw new SQLException("no such table"); });
+		Exception failure = assertThrows(Exception.class, () -> TaskPublisher.forEach(failing, t -> {}).get(5, TimeUnit.SECONDS));
+		assertInstanceOf(SQLException.class, failure.getCause(), "Query failure should be delivered.");
+
+		TaskPublisher broken = new TaskPublisher(() -> new TaskPublisher.Cursor() {
+			@Override
+			public Task next() { throw new IllegalStateException("corrupt row"); }
+
+			@Override
+			public void close() { closes.incrementAndGet(); }
+		});
+		Exception unchecked = assertThrows(Exception.class, () -> TaskPublisher.forEach(broken, t -> {}).get(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, unchecked.getCause(), "Unchecked cursor failure should be delivered.");
+		assertEquals(1, closes.get(), "Failed cursor should be closed.");
+	}
+
+	// TEST THAT FOREACH STREAMS EVERY TASK FROM SQLITE IN PAGES
+	@Test
+	void testStreamFromSqlite() throws Exception {
+		SqliteTaskRepository repository = new SqliteTaskRepository();
+		repository.initialize();
+		for (int i = 0; i < 600; i++) {
+			repository.createTask("Task " + i, "Description", "Medium", 1);
+		}
+		QueryTrace.clear();
+
+		List<Integer> ids = new ArrayList<>();
+		TaskPublisher.forEach(repository.streamAllTasks(), task -> ids.add(task.getId())).get(10, TimeUnit.SECONDS);
+		assertEquals(600, ids.size(), "Every task should be streamed.");
+		for (int i = 1; i < ids.size(); i++) {
+			assertTrue(ids.get(i - 1) < ids.get(i), "Tasks should be streamed in ID order.");
+		}
+
+		QueryTrace.flush();
+		int pages = 0;
+		long rows = 0;
+		for (QueryTrace.Entry entry : QueryTrace.getRecent()) {
+			if (entry.getSql().contains("WHERE id > ?")) {
+				pages++;
+				rows += entry.getRows();
+				assertTrue(entry.getRows() <= TaskPublisher.BATCH_SIZE, "Each query should read at most one page.");
+			}
+		}
+		assertEquals(3, pages, "600 tasks should take three pages.");
+		assertEquals(600L, rows, "Pages should cover every task once.");
+	}
+
+	// TEST THAT A PAUSED STREAM DOES NOT BLOCK WRITERS
+	@Test
+	void testPausedStreamDoesNotBlockWriters() throws Exception {
+		SqliteTaskRepository repository = new SqliteTaskRepository();
+		repository.initialize();
+		for (int i = 0; i < 10; i++) {
+			repository.createTask("Task " + i, "Description", "Medium", 1);
+		}
+		Recorder recorder = new Recorder();
+		repository.streamAllTasks().subscribe(recorder);
+		recorder.requestAndWait(1);
+
+		try (Connection conn = UserAuth.getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.execute("PRAGMA busy_timeout = 100");
+			assertTrue(stmt.executeUpdate("UPDATE tasks SET progress = 50 WHERE id = 5") > 0, "Write should not wait for the stream.");
+		}
+		recorder.subscription.request(Long.MAX_VALUE);
+		recorder.finished.get(5, TimeUnit.SECONDS);
+		assertEquals(10, recorder.ids.size(), "Stream should still deliver every task.");
+	}
+}
@@ -0,0 +1,129 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import taskapp.Task;
+import taskapp.TaskSearchIndex;
+
+class TaskSearchIndexTest {
+
+	private static List<Task> sampleTasks() {
+		List<Task> tasks = new ArrayList<>();
+		tasks.add(new Task(3, "Design report", "Draft the Q3 layout", "High", 1, "alice", false, 0));
+		tasks.add(new Task(1, "Fix login bug", "Crash on empty password", "Medium", 2, "bob", false, 50));
+		tasks.add(new Task(2, "Report bug", null, "Low", 1, "alice", true, 100));
+		return tasks;
+	}
+
+	// TEST FOR TOKENIZING INTO LOWER-CASE WORDS
+	@Test
+	void testTokenize() {
+		assertEquals(List.of("fix", "q3", "login", "bug"), TaskSearchIndex.tokenize("Fix Q3-login  BUG!"),
+				"Text should split on non-alphanumerics and be lower-cased.");
+		assertTrue(TaskSearchIndex.tokenize(null).isEmpty(), "Null text should have no words.");
+	}
+
+	// TEST THAT EVERY QUERY WORD MUST MATCH AS A PREFIX
+	@Test
+	void testPrefixAndMatching() {
+		TaskSearchIndex index = TaskSearchIndex.build(sampleTasks());
+		TaskSearchIndex.Result result = index.search("rep BU");
+		assertTrue(result.matches(2), "Task 2 has words starting with both prefixes.");
+		assertFalse(result.matches(3), "Task 3 has no word starting with 'bu'.");
+		assertFalse(result.matches(1), "Task 1 has no word starting with 'rep'.");
+		assertEquals(1, result.size(), "Only one task should match.");
+
+		assertEquals(1, index.search("passw").size(), "Descriptions should be searchable.");
+		assertEquals(0, index.search("zebra").size(), "Unknown words should match nothing.");
+		assertFalse(index.search("bug").matches(99), "Tasks missing from the index should not match.");
+	}
+
+	// TEST THAT ASSIGNEE NAMES ARE SEARCHABLE
+	@Test
+	void testAssigneeMatching() {
+		TaskSearchIndex.Result result = TaskSearchIndex.build(sampleTasks()).search("ali");
+		assertTrue(result.matches(3) && result.matches(2), "Both of alice's tasks should match.");
+		assertFalse(result.matches(1), "Bob's task should not match.");
+	}
+
+	// TEST THAT A BLANK QUERY MATCHES EVERYTHING
+	@Test
+	void testBlankQuery() {
+		TaskSearchIndex index = TaskSearchIndex.build(sampleTasks());
+		TaskSearchIndex.Result result = index.search("  - ");
+		assertTrue(result.isEverything(), "A query without words should not filter.");
+		assertEquals(3, result.size(), "Every task should be counted.");
+		assertTrue(TaskSearchIndex.empty().search("").matches(42), "A blank query should match unindexed tasks too.");
+	}
+
+	// TEST THAT AN UPDATE RE-INDEXES ONLY CHANGED TASKS AND DROPS REMOVED ONES
+	@Test
+	void testIncrementalUpdate() {
+		TaskSearchIndex index = TaskSearchIndex.build(sampleTasks());
+		List<Task> board = new ArrayList<>();
+		board.add(new Task(1, "Fix login bug", "preview", "Medium", 2, "bob", false, 50));
+		board.add(new Task(3, "Design summary", "preview", "High", 1, "alice", false, 0, 1));
+		board.add(new Task(4, "New task", "preview", "Low", 2, "bob", false, 0));
+		List<Integer> loaded = new ArrayList<>();
+
+		TaskSearchIndex updated = index.update(board, taskId -> {
+			loaded.add(taskId);
+			return "Full text " + taskId;
+		});
+		assertEquals(List.of(3, 4), loaded, "Only changed and new tasks should load their descriptions.");
+		assertEquals(3, updated.size(), "Removed task should be dropped.");
+		assertTrue(updated.search("passw").matches(1), "Unchanged task should keep its indexed description.");
+		assertTrue(updated.search("summ full").matches(3), "Changed task should be re-indexed.");
+		assertFalse(updated.search("report").matches(3), "Old words of a changed task should be gone.");
+		assertTrue(updated.search("new").matches(4), "New task should be indexed.");
+		assertFalse(updated.search("bug").matches(2), "Removed task should not match.");
+	}
+
+	// TEST THAT THE BUILDER TAKES TASKS IN ID ORDER ONLY
+	@Test
+	void testBuilderOrder() {
+		TaskSearchIndex.Builder builder = new TaskSearchIndex.Builder();
+		builder.add(new Task(2, "Second", null, "Low", 1, "alice", false, 0));
+		assertThrows(IllegalArgumentException.class, () -> builder.add(new Task(1, "First", null, "Low", 1, "alice", false, 0)),
+				"Out of order task should be rejected.");
+		assertEquals(1, builder.build().search("sec").size(), "Added task should be indexed.");
+	}
+
+	// TEST THAT A KEYSTROKE'S SEARCH OVER 100K TASKS FITS IN A FRAME
+	@Test
+	void testSearchSpeedOnLargeBoard() {
+		Random random = new Random(7);
+		String[] vocabulary = new String[2000];
+		for (int i = 0; i < vocabulary.length; i++) {
+			vocabulary[i] = Integer.toString(i * 7919 + 100000, 36);
+		}
+		List<Task> tasks = new ArrayList<>();
+		for (int id = 1; id <= 100_000; id++) {
+			String title = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+			String description = vocabulary[random.nextInt(vocabulary.length)] + " " + vocabulary[random.nextInt(vocabulary.length)];
+			tasks.add(new Task(id, title, description, "Low", id % 50, "user" + (id % 50), false, 0));
+		}
+		TaskSearchIndex index = TaskSearchIndex.build(tasks);
+		String[] queries = { "a", "ab", "abc", "user1", "user12 a", vocabulary[5], vocabulary[5] + " " + vocabulary[6].substring(0, 2) };
+		for (int warm = 0; warm < 20; warm++) {
+			for (String query : queries) {
+				index.search(query);
+			}
+		}
+
+		long worst = 0;
+		for (String query : queries) {
+			long start = System.nanoTime();
+			index.search(query).size();
+			worst = Math.max(worst, System.nanoTime() - start);
+		}
+		// 16 ms is one frame; the bound is loose for slow CI machines
+		assertTrue(worst < 50_000_000L, "Search should take well under a frame, took " + worst / 1_000_000 + " ms.");
+	}
+}
@@ -2,51 +2,37 @@ package tester;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.sql.Connection;
-import java.sql.Statement;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import taskapp.DeadlineIndex;
+import taskapp.InMemoryTaskRepository;
 import taskapp.Task;
+import taskapp.TaskChange;
+import taskapp.TaskFilter;
 import taskapp.TaskService;
-import taskapp.UserAuth;
+import taskapp.TaskStatistics;
 
 class TaskServiceTest {
 
 	private TaskService taskService;
+	private InMemoryTaskRepository repository;
 
+	// FRESH IN-MEMORY REPOSITORY FOR EACH TEST (SQLITE IS COVERED BY SqliteTaskRepositoryTest)
 	@BeforeEach
 	void setup() {
-		taskService = new TaskService();
-	}
-
-	@AfterEach
-	void teardown() {
-		// DELETE TASKS AFTER EACH TEST
-		try (Connection conn = UserAuth.getConnection(); Statement state = conn.createStatement()) {
-			state.executeUpdate("DELETE FROM tasks;");
-		} catch (Exception e) {
-			fail("Teardown failed." + e.getMessage());
-		}
-	}
-
-	// TEST FOR CREATING TASKS TABLE
-	@Test
-	void testCreateTasksTable() {
-		// CALL METHOD TO CREATE TASKS TABLE
-		taskService.createTasksTable();
-
-		// CHECK IF TABLE EXISTS
-		try (Connection conn = UserAuth.getConnection(); Statement state = conn.createStatement()) {
-			var rs = state.executeQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='tasks';");
-			assertTrue(rs.next(), "Table should exist.");
-		} catch (Exception e) {
-			fail("Table create failed." + e.getMessage());
-		}
-
+		repository = new InMemoryTaskRepository();
+		repository.putUsername(1, "User 1");
+		repository.putUsername(2, "User 2");
+		taskService = new TaskService(repository);
 	}
 
 	// TEST FOR CREATING A TASK
@@ -91,6 +77,28 @@ class TaskServiceTest {
 		assertTrue(result, "Task should be edited.");
 	}
 
+	// TEST FOR VERSION-CHECKED EDIT CONFLICT
+	@Test
+	void testEditTaskVersionConflict() {
+		taskService.createTask("Versioned Task", "Description", "High", 1);
+		List<Task> tasks = taskService.getAllTasks();
+		Task task = tasks.get(tasks.size() - 1);
+
+		// FIRST WRITER WINS
+		TaskService.EditResult first = taskService.editTask(task.getId(), task.getVersion(), "First", "Description",
+				"High", 1, false, 10);
+		assertEquals(TaskService.EditResult.UPDATED, first, "First edit should succeed.");
+
+		// SECOND WRITER USES STALE VERSION
+		TaskService.EditResult second = taskService.editTask(task.getId(), task.getVersion(), "Second", "Description",
+				"High", 1, false, 20);
+		assertEquals(TaskService.EditResult.CONFLICT, second, "Stale edit should conflict.");
+
+		// EDIT OF MISSING TASK
+		TaskService.EditResult missing = taskService.editTask(-1, 0, "Missing", "Description", "High", 1, false, 0);
+		assertEquals(TaskService.EditResult.NOT_FOUND, missing, "Missing task should be reported.");
+	}
+
 	// TEST FOR DELETING A TASK
 	@Test
 	void testDeleteTask() {
@@ -121,6 +129,312 @@ class TaskServiceTest {
 		assertTrue(tasks.size() >= 2, "Should be at least 2 tasks.");
 	}
 
+	// TEST FOR BOARD PROJECTION AND ON-DEMAND DESCRIPTION
+	@Test
+	void testGetBoardTasksLoadsPreviewOnly() {
+		String description = "A long description that will not fit on a task card preview at all.";
+		taskService.createTask("Board Task", description, "High", 1);
+
+		List<Task> tasks = taskService.getBoardTasks();
+		Task task = tasks.get(tasks.size() - 1);
+
+		assertFalse(task.isDescriptionLoaded(), "Board task should not carry full description.");
+		assertEquals(Task.previewOf(description), task.getDescriptionPreview(), "Preview should match.");
+		assertEquals(description, taskService.getTaskDescription(task.getId()).orElse(null),
+				"Full description should load on demand.");
+	}
+
+	// TEST FOR STATISTICS SUMMARY
+	@Test
+	void testGetTaskStatistics() {
+		taskService.createTasksTable();
+		taskService.createTask("Stats Task 1", "Description", "High", 1);
+		taskService.createTask("Stats Task 2", "Description", "Low", 1);
+		List<Task> tasks = taskService.getAllTasks();
+		Task last = tasks.get(tasks.size() - 1);
+		taskService.editTask(last.getId(), last.getTitle(), "Description", "Low", 1, true, 100);
+
+		TaskStatistics stats = taskService.getTaskStatistics();
+
+		assertEquals(2, stats.getTotal().getCount(), "Total count should match.");
+		assertEquals(1, stats.getByStatus(true).getCount(), "Completed count should match.");
+		assertEquals(1, stats.getActiveByAssignee(1).getCount(), "Active count for user should match.");
+		assertEquals(100.0, stats.getByPriority("Low").getAverageProgress(), "Average progress should match.");
+	}
+
+	// TEST FOR QUERIES BY ASSIGNEE AND STATUS
+	@Test
+	void testGetTasksByAssigneeAndStatus() {
+		taskService.createTask("Task 1", "Description", "High", 1);
+		taskService.createTask("Task 2", "Description", "Low", 2);
+		Task task = taskService.getTasksByAssignee(2).get(0);
+		taskService.editTask(task.getId(), "Task 2", "Description", "Low", 2, true, 100);
+
+		assertEquals(1, taskService.getTasksByAssignee(1).size(), "One task should be assigned to user 1.");
+		assertEquals(1, taskService.getTasksByStatus(true).size(), "One task should be complete.");
+		assertEquals("Task 1", taskService.getTasksByStatus(false).get(0).getTitle(), "Active task should match.");
+	}
+
+	// TEST FOR SUBTASK ROLL-UP KEPT IN STEP WITH EDITS
+	@Test
+	void testSubtaskProgressRollUp() {
+		taskService.createTask("Parent", "Description", "High", 1);
+		taskService.createTask("Child 1", "Description", "High", 1);
+		taskService.createTask("Child 2", "Description", "High", 1);
+
+		assertTrue(taskService.addSubtask(1, 2), "Subtask should be linked.");
+		assertTrue(taskService.addSubtask(1, 3), "Subtask should be linked.");
+		assertFalse(taskService.addSubtask(2, 1), "Cycle should be rejected.");
+
+		taskService.editTask(2, "Child 1", "Description", "High", 1, false, 60);
+		assertEquals(30.0, taskService.getRolledUpProgress(1), 0.001, "Parent should average its subtasks.");
+
+		taskService.deleteTask(3);
+		assertEquals(60.0, taskService.getRolledUpProgress(1), 0.001, "Deleted subtask should no longer count.");
+	}
+
+	// TEST THAT LINKS TO UNKNOWN TASKS ARE REJECTED AND NOT STORED
+	@Test
+	void testRelationsToUnknownTasksRejected() {
+		taskService.createTask("Task", "Description", "High", 1);
+
+		assertFalse(taskService.addSubtask(1, 99), "Unknown subtask should be rejected.");
+		assertFalse(taskService.addSubtask(99, 1), "Unknown parent should be rejected.");
+		assertFalse(taskService.addBlocker(99, 1), "Unknown blocker should be rejected.");
+		assertTrue(repository.getSubtaskLinks().isEmpty(), "No subtask link should be stored.");
+		assertTrue(repository.getBlockerLinks().isEmpty(), "No blocker link should be stored.");
+	}
+
+	// TEST THAT OPPOSITE LINKS MADE AT THE SAME TIME NEVER STORE A CYCLE
+	@Test
+	void testConcurrentLinksCannotFormCycle() throws Exception {
+		// SLOW RELATION WRITES WIDEN THE WINDOW BETWEEN THE CYCLE CHECK AND THE GRAPH UPDATE
+		repository = new InMemoryTaskRepository() {
+			@Override
+			public boolean setParent(int childId, int parentId) {
+				pause();
+				return super.setParent(childId, parentId);
+			}
+
+			@Override
+			public boolean addBlocker(int blockerId, int blockedId) {
+				pause();
+				return super.addBlocker(blockerId, blockedId);
+			}
+		};
+		taskService = new TaskService(repository);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 200; round++) {
+				int a = 2 * round + 1;
+				int b = a + 1;
+				boolean subtasks = round % 2 == 0;
+				taskService.createTask("A" + round, "Description", "High", 1);
+				taskService.createTask("B" + round, "Description", "High", 1);
+				CyclicBarrier start = new CyclicBarrier(2);
+				Future<Boolean> forward = pool.submit(() -> {
+					start.await();
+					return subtasks ? taskService.addSubtask(a, b) : taskService.addBlocker(a, b);
+				});
+				Future<Boolean> backward = pool.submit(() -> {
+					start.await();
+					return subtasks ? taskService.addSubtask(b, a) : taskService.addBlocker(b, a);
+				});
+				assertTrue(forward.get() ^ backward.get(), "Exactly one of two opposite links should succeed.");
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(100, repository.getSubtaskLinks().size(), "One subtask link per even round should be stored.");
+		assertEquals(100, repository.getBlockerLinks().size(), "One blocker per odd round should be stored.");
+		Set<List<Integer>> stored = new HashSet<>();
+		repository.getSubtaskLinks().forEach(link -> stored.add(List.of(link[0], link[1])));
+		repository.getBlockerLinks().forEach(link -> stored.add(List.of(link[0], link[1])));
+		for (List<Integer> link : stored) {
+			assertFalse(stored.contains(List.of(link.get(1), link.get(0))), "Stored links should form no cycle: " + link);
+		}
+	}
+
+	// TEST THAT TASKS CREATED, EDITED OR DELETED WHILE THE GRAPH IS BUILT ARE NOT LOST OR REVIVED
+	@Test
+	void testWritesDuringGraphBuild() throws Exception {
+		// SLOW READS AND EDITS WIDEN THE WINDOWS BETWEEN THE REPOSITORY CALL AND THE GRAPH UPDATE
+		repository = new InMemoryTaskRepository() {
+			@Override
+			public List<Task> getAllTasks() {
+				List<Task> tasks = super.getAllTasks();
+				pause();
+				return tasks;
+			}
+
+			@Override
+			public boolean editTask(int taskId, String title, String description, String priority, int assignedToUserId, boolean isComplete, int progress) {
+				boolean success = super.editTask(taskId, title, description, priority, assignedToUserId, isComplete, progress);
+				pause();
+				return success;
+			}
+		};
+		taskService = new TaskService(repository);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 50; round++) {
+				int created = 2 * round + 1;
+				int deleted = created + 1;
+				taskService.reloadTaskGraph();
+				CyclicBarrier start = new CyclicBarrier(2);
+				Future<?> build = pool.submit(() -> {
+					start.await();
+					return taskService.getTaskGraph();
+				});
+				start.await();
+				taskService.createTask("Created " + round, "Description", "High", 1);
+				build.get();
+				assertTrue(taskService.getTaskGraph().contains(created), "Task created during the build should be in the graph.");
+
+				taskService.createTask("Deleted " + round, "Description", "High", 1);
+				CyclicBarrier race = new CyclicBarrier(2);
+				Future<?> edit = pool.submit(() -> {
+					race.await();
+					return taskService.editTask(deleted, "Deleted", "Description", "High", 1, false, 50);
+				});
+				Future<?> delete = pool.submit(() -> {
+					race.await();
+					return taskService.deleteTask(deleted);
+				});
+				edit.get();
+				delete.get();
+				assertFalse(taskService.getTaskGraph().contains(deleted), "An edit racing a delete should not revive the task.");
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void pause() {
+		try {
+			Thread.sleep(1);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// TEST FOR OVERDUE AND UPCOMING QUERIES KEPT IN STEP WITH EDITS
+	@Test
+	void testDueDateQueries() {
+		long now = 1_000_000L;
+		taskService.createTask("Overdue", "Description", "High", 1, now - 10);
+		taskService.createTask("Upcoming", "Description", "High", 1, now + 100);
+		taskService.createTask("Later", "Description", "High", 1, now + 10_000);
+		taskService.createTask("No Due Date", "Description", "High", 1);
+
+		assertEquals(List.of(1), taskService.getOverdueTaskIds(now), "Only the first task should be overdue.");
+		assertEquals(List.of(2), taskService.getUpcomingTaskIds(now, 1000), "Only the second task should be upcoming.");
+
+		taskService.editTask(1, "Overdue", "Description", "High", 1, true, 100);
+		assertTrue(taskService.getOverdueTaskIds(now).isEmpty(), "Completed task should not be overdue.");
+
+		assertTrue(taskService.setDueDate(3, now - 5), "Due date should be moved.");
+		assertEquals(List.of(3), taskService.getOverdueTaskIds(now), "Moved task should now be overdue.");
+		assertEquals(Long.valueOf(now - 5), taskService.getAllTasks().get(2).getDueAt(), "Due date should be stored.");
+	}
+
+	// TEST THAT BULK OPERATIONS PATCH THE GRAPH, DEADLINES AND BOARD
+	@Test
+	void testBulkOperations() {
+		long now = System.currentTimeMillis();
+		taskService.createTask("Parent", "Description", "High", 1, now - 10);
+		taskService.createTask("Child", "Description", "High", 1);
+		taskService.createTask("Other", "Description", "Low", 2);
+		taskService.addSubtask(1, 2);
+		taskService.editTask(2, "Child", "Description", "High", 1, false, 100);
+		taskService.editTask(1, "Parent", "Description", "High", 1, false, 100);
+		List<Task> board = taskService.getBoardTasks();
+		assertEquals(List.of(1), taskService.getOverdueTaskIds(now), "Parent should start overdue.");
+
+		TaskService.BulkResult completed = taskService.completeWhere(TaskFilter.fullyProgressed());
+		assertEquals(2, completed.getCount(), "Both fully progressed tasks should complete.");
+		assertTrue(taskService.getOverdueTaskIds(now).isEmpty(), "Completed task should leave the deadline index.");
+		board = completed.applyTo(board);
+		assertTrue(board.get(0).isComplete() && board.get(1).isComplete(), "Board should show the completed tasks.");
+		assertFalse(board.get(2).isComplete(), "Other tasks should be untouched.");
+
+		TaskService.BulkResult moved = taskService.reassignAll(2, 1);
+		assertEquals(List.of(3), moved.getTaskIds(), "User 2's task should move.");
+		assertEquals(3, taskService.getTasksByAssignee(1).size(), "User 1 should own every task.");
+
+		TaskService.BulkResult deleted = taskService.deleteCompletedOlderThan(now + 60_000);
+		assertEquals(List.of(1, 2), deleted.getTaskIds(), "Completed tasks should be deleted.");
+		assertEquals(-1, taskService.getRolledUpProgress(1), 0.0, "Deleted task should leave the graph.");
+		assertEquals(List.of(3), deleted.applyTo(board).stream().map(Task::getId).toList(), "Board should drop deleted tasks.");
+	}
+
+	// TEST THAT A BULK WRITE THAT FAILS AFTER PARTLY COMMITTING RELOADS THE DEADLINE INDEX IN PLACE
+	@Test
+	void testFailedBulkReloadsDeadlines() {
+		repository = new InMemoryTaskRepository() {
+			@Override
+			public List<Integer> completeWhere(TaskFilter filter) {
+				super.completeWhere(filter); // one shard committed, another failed
+				return null;
+			}
+		};
+		taskService = new TaskService(repository);
+		long now = System.currentTimeMillis();
+		taskService.createTask("Overdue", "Description", "High", 1, now - 10);
+		taskService.editTask(1, "Overdue", "Description", "High", 1, false, 100);
+		DeadlineIndex index = taskService.getDeadlineIndex();
+		assertEquals(List.of(1), index.getOverdue(now), "Task should start overdue.");
+
+		assertTrue(taskService.completeWhere(TaskFilter.fullyProgressed()).isFailed(), "Bulk write should report the failure.");
+		assertSame(index, taskService.getDeadlineIndex(), "Index should be reloaded in place, not replaced.");
+		assertTrue(index.getOverdue(now).isEmpty(), "Committed completion should reach the index.");
+	}
+
+	// TEST THAT A TASK CREATED WHILE THE DEADLINE INDEX IS BUILT IS NOT LOST
+	@Test
+	void testCreateDuringDeadlineIndexBuild() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			for (int round = 0; round < 50; round++) {
+				repository = new InMemoryTaskRepository() {
+					@Override
+					public List<Task> getAllTasks() {
+						List<Task> tasks = super.getAllTasks();
+						pause();
+						return tasks;
+					}
+				};
+				taskService = new TaskService(repository);
+				CyclicBarrier start = new CyclicBarrier(2);
+				Future<?> build = pool.submit(() -> {
+					start.await();
+					return taskService.getDeadlineIndex();
+				});
+				start.await();
+				taskService.createTask("Due", "Description", "High", 1, 100L);
+				build.get();
+				assertEquals(List.of(1), taskService.getOverdueTaskIds(1000), "Task created during the build should be indexed.");
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// TEST FOR THE AUDIT HISTORY OF A TASK
+	@Test
+	void testTaskHistory() {
+		taskService.setAuditUser(2);
+		taskService.createTask("Task 1", "Description", "High", 1);
+		taskService.editTask(1, "Renamed", "Description", "Low", 1, false, 0);
+		taskService.editTask(1, "Renamed", "Description", "Low", 1, false, 0);
+
+		List<TaskChange> history = taskService.getTaskHistory(1);
+		assertEquals(2, history.size(), "An edit that changes nothing should not be recorded.");
+		assertEquals(List.of("title", "priority"), List.copyOf(history.get(1).getChangedFields()), "Changed fields should be listed.");
+		assertEquals(2, history.get(1).getChangedBy(), "Editor should be recorded.");
+		assertEquals("Renamed", taskService.getTaskAsOf(1, Long.MAX_VALUE).get().getTitle(), "Latest state should be rebuilt.");
+	}
+
 	// TEST FOR SORTING TASKS BY PRIORITY
 	@Test
 	void tesSortTasksByPriortity() {
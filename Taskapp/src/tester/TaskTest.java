@@ -58,4 +58,23 @@ class TaskTest {
 		assertEquals(50, task.getProgress(), "Progress should be updated.");
 	}
 
+	// TEST FOR DESCRIPTION PREVIEW
+	@Test
+	void testDescriptionPreview() {
+		String longDescription = "This description is definitely longer than fifty characters in total.";
+		Task task = new Task(1, "Test Task", longDescription, "High", 42, "doubtfire", false, 50);
+
+		assertEquals(longDescription.substring(0, 47) + "...", task.getDescriptionPreview(),
+				"Long description should be truncated.");
+
+		// BOARD PROJECTION WITHOUT FULL DESCRIPTION
+		Task boardTask = new Task(1, "Test Task", null, "High", 42, "doubtfire", false, 50);
+		boardTask.setDescriptionPreview("Short");
+		assertFalse(boardTask.isDescriptionLoaded(), "Description should not be loaded.");
+		assertEquals("Short", boardTask.getDescriptionPreview(), "Stored preview should be used.");
+
+		boardTask.setDescription("Full text");
+		assertTrue(boardTask.isDescriptionLoaded(), "Description should be loaded.");
+	}
+
 }
@@ -2,21 +2,33 @@ package tester;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
 import java.util.Optional;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import taskapp.UserAuth;
 
 class UserAuthTest {
 
-	// CREATE USERS TABLE BEFORE EACH TEST
+	@TempDir
+	Path tempDir;
+
+	// CREATE USERS TABLE IN A TEMPORARY DATABASE BEFORE EACH TEST
 	@BeforeEach
 	void setUp() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("users.db"));
 		UserAuth.createUsersTable();
 	}
 
+	@AfterEach
+	void tearDown() {
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
 	// TEST USER REGISTRATION
 	@Test
 	void testRegisterUser() {
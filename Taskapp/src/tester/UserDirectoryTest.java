@@ -0,0 +1,88 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.UserAuth;
+import taskapp.UserDirectory;
+
+class UserDirectoryTest {
+
+	@TempDir
+	Path tempDir;
+
+	// CREATE USERS TABLE IN A TEMPORARY DATABASE BEFORE EACH TEST
+	@BeforeEach
+	void setUp() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("users.db"));
+		UserAuth.createUsersTable();
+	}
+
+	@AfterEach
+	void tearDown() {
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// TEST THAT REGISTRATION MAKES THE NEW USER VISIBLE IN THE CACHE
+	@Test
+	void testRegisterInvalidatesDirectory() {
+		// WARM THE CACHE FIRST
+		UserDirectory.getUsers();
+
+		String username = "directoryuser";
+		Optional<UserAuth> user = UserAuth.registerUser(username, "testpass");
+		assertTrue(user.isPresent(), "User should be registered.");
+
+		int id = user.get().getId();
+		assertEquals(Optional.of(username), UserDirectory.getUsername(id), "Directory should contain new user.");
+		assertTrue(Arrays.asList(UserDirectory.getAssigneeOptions()).contains(UserDirectory.formatAssignee(id, username)),
+				"Assignee options should contain new user.");
+	}
+
+	// TEST THAT A FAILED LOAD IS NOT CACHED
+	@Test
+	void testFailedLoadNotCached() throws Exception {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("empty.db"));
+		assertTrue(UserDirectory.getUsers().isEmpty(), "Missing users table should give an empty directory.");
+
+		UserAuth.createUsersTable();
+		Thread.sleep(600); // past the retry pause after a failed load
+		try (Connection conn = UserAuth.getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.execute("INSERT INTO users (id, username, password) VALUES (7, 'lateuser', 'x')");
+		}
+		assertEquals(Optional.of("lateuser"), UserDirectory.getUsername(7), "Directory should load once the table exists.");
+	}
+
+	// TEST THAT A USER REGISTERED BY ANOTHER INSTANCE IS FOUND ON A LOOKUP MISS
+	@Test
+	void testMissReloadsDirectory() throws Exception {
+		// WARM THE CACHE FIRST
+		UserDirectory.getUsers();
+
+		// INSERTED DIRECTLY, AS ANOTHER INSTANCE SHARING THE DATABASE WOULD
+		try (Connection conn = UserAuth.getConnection(); Statement stmt = conn.createStatement()) {
+			stmt.execute("INSERT INTO users (id, username, password) VALUES (42, 'otherinstance', 'x')");
+		}
+		Thread.sleep(1100); // past the pause between reloads after a miss
+		assertEquals(Optional.of("otherinstance"), UserDirectory.getUsername(42), "Miss should reload the directory.");
+		assertTrue(Arrays.asList(UserDirectory.getAssigneeOptions()).contains(UserDirectory.formatAssignee(42, "otherinstance")),
+				"Assignee options should contain the reloaded user.");
+	}
+
+	// TEST LOOKUP OF UNKNOWN USER ID
+	@Test
+	void testUnknownUserId() {
+		assertFalse(UserDirectory.getUsername(-1).isPresent(), "Unknown ID should not resolve.");
+	}
+
+}
@@ -0,0 +1,122 @@
+package tester;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import taskapp.RetryPolicy;
+import taskapp.SqliteTaskRepository;
+import taskapp.UserAuth;
+import taskapp.WriteScheduler;
+
+class WriteSchedulerTest {
+
+	@TempDir
+	Path tempDir;
+
+	private WriteScheduler scheduler;
+	private SqliteTaskRepository repository;
+
+	// TEMPORARY DATABASE AND A PRIVATE SCHEDULER FOR EACH TEST
+	@BeforeEach
+	void setup() {
+		UserAuth.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("tasks.db"));
+		scheduler = new WriteScheduler(256, 32, 1000, RetryPolicy.defaultPolicy());
+		repository = new SqliteTaskRepository(null, scheduler);
+		repository.initialize();
+	}
+
+	@AfterEach
+	void teardown() {
+		scheduler.close();
+		UserAuth.setJdbcUrl(UserAuth.DEFAULT_JDBC_URL);
+	}
+
+	// TEST THAT CONCURRENT WRITES ALL COMMIT
+	@Test
+	void testConcurrentCreatesAreSerialized() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> ids = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			int n = i;
+			ids.add(pool.submit(() -> repository.createTask("Task " + n, "Description", "High", 1)));
+		}
+		for (Future<Integer> id : ids) {
+			assertTrue(id.get() > 0, "Every create should succeed.");
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertEquals(200, repository.getAllTasks().size(), "All tasks should be stored.");
+		assertEquals(200, scheduler.getCommittedWrites(), "All writes should be committed.");
+		assertTrue(scheduler.getCommittedBatches() <= 200, "Writes should be grouped into batches.");
+	}
+
+	// TEST THAT ONE FAILING WRITE DOES NOT UNDO THE OTHERS IN ITS BATCH
+	@Test
+	void testFailedWriteIsIsolated() {
+		assertEquals(-1, repository.createTask("Bad", "Description", "Urgent", 1), "Invalid priority should fail.");
+		assertTrue(repository.createTask("Good", "Description", "Low", 1) > 0, "Valid write should succeed.");
+		assertEquals(1, repository.getAllTasks().size(), "Only the valid task should be stored.");
+	}
+
+	// TEST THAT A WRITE THROWING A RUNTIME EXCEPTION FAILS ALONE AND THE WRITER KEEPS RUNNING
+	@Test
+	void testRuntimeExceptionIsIsolated() throws Exception {
+		CountDownLatch queued = new CountDownLatch(1);
+		CompletableFuture<Object> blocker = scheduler.submit(conn -> {
+			try {
+				queued.await(5, TimeUnit.SECONDS); // lets the next writes queue up into one batch
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		CompletableFuture<Integer> good = scheduler.submit(conn -> {
+			try (Statement stmt = conn.createStatement()) {
+				return stmt.executeUpdate("INSERT INTO tasks (title, description, priority, assigned_to_user_id) VALUES ('Good', '', 'Low', 1)");
+			}
+		});
+		CompletableFuture<Object> broken = scheduler.submit(conn -> {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.executeUpdate("INSERT INTO tasks (title, description, priority, assigned_to_user_id) VALUES ('Partial', '', 'Low', 1)");
+			}
+			throw new NullPointerException("bug in write");
+		});
+		CompletableFuture<Object> after = scheduler.submit(conn -> null);
+		queued.countDown();
+
+		blocker.get(5, TimeUnit.SECONDS);
+		ExecutionException error = assertThrows(ExecutionException.class, () -> broken.get(5, TimeUnit.SECONDS), "Broken write should fail.");
+		assertTrue(error.getCause() instanceof NullPointerException, "Failure should carry the original exception.");
+		after.get(5, TimeUnit.SECONDS);
+		assertTrue(repository.createTask("Later", "Description", "Low", 1) > 0, "Writer should keep running.");
+		assertEquals(2, repository.getAllTasks().size(), "Only the broken write should be rolled back.");
+		assertTrue(good.get(5, TimeUnit.SECONDS) > 0, "Writes batched with the broken one should commit.");
+	}
+
+	// TEST RETRY POLICY DELAYS
+	@Test
+	void testRetryPolicyBackoff() {
+		RetryPolicy policy = new RetryPolicy(5, 10, 50);
+		assertEquals(10, policy.delayMillis(1), "First retry should use the initial delay.");
+		assertEquals(20, policy.delayMillis(2), "Delay should double.");
+		assertEquals(50, policy.delayMillis(4), "Delay should be capped.");
+	}
+
+}